@@ -0,0 +1,4 @@
+# TaskImpl and friends use AtomicReferenceFieldUpdaters which look up their fields by name.
+-keepclassmembers class com.github.wrdlbrnft.simpletasks.** {
+    volatile <fields>;
+}
@@ -4,6 +4,10 @@ import android.graphics.Bitmap;
 import android.os.Build;
 import android.util.LruCache;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created with Android Studio<br>
  * User: Xaver<br>
@@ -17,25 +21,70 @@ import android.util.LruCache;
  * efficient caching of images on memory constrained devices and prevents {@link OutOfMemoryError}
  * Exceptions and other memory related issues which are usually encountered when caching objects
  * which require a lot of memory.
+ * <p>
+ * The write time of each entry is recorded. If a time to live is set then entries older than
+ * that are treated as missing and are removed when they are accessed.
  *
  * @param <K> Type of the keys used to identify {@link Bitmap Bitmaps} in the {@link Cache}.
  */
 public class BitmapCache<K> implements Cache<K, Bitmap> {
 
+    private final StatsCounter mStatsCounter = new StatsCounter();
     private final LruImageCache<K> mInternalCache;
+    private final long mTimeToLiveNanos;
 
     public BitmapCache(int maxSize) {
-        mInternalCache = new LruImageCache<>(maxSize);
+        this(maxSize, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new {@link BitmapCache} whose entries expire after the supplied time to live.
+     *
+     * @param maxSize    The maximum size of the {@link Cache} in bytes.
+     * @param timeToLive The time after which an entry expires.
+     * @param unit       The {@link TimeUnit} of the time to live.
+     */
+    public BitmapCache(int maxSize, long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0L) {
+            throw new IllegalArgumentException("Time to live must be positive but was " + timeToLive);
+        }
+        mInternalCache = new LruImageCache<>(maxSize, mStatsCounter);
+        mTimeToLiveNanos = unit.toNanos(timeToLive);
     }
 
     @Override
     public void put(K key, Bitmap item) {
+        // Recorded before the put so the write time is dropped again if the LruCache
+        // evicts the new entry right away.
+        mInternalCache.recordWrite(key);
         mInternalCache.put(key, item);
     }
 
     @Override
     public Bitmap get(K key) {
-        return mInternalCache.get(key);
+        final Bitmap bitmap = mInternalCache.get(key);
+        if (bitmap != null && isExpired(key)) {
+            if (mInternalCache.remove(key) != null) {
+                mStatsCounter.recordEviction();
+            }
+            mStatsCounter.recordMiss();
+            return null;
+        }
+        mStatsCounter.recordLookup(bitmap);
+        return bitmap;
+    }
+
+    @Override
+    public long getAge(K key, TimeUnit unit) {
+        final Long writeTime = mInternalCache.getWriteTime(key);
+        if (writeTime == null) {
+            return AGE_UNKNOWN;
+        }
+        final long age = System.nanoTime() - writeTime;
+        if (age >= mTimeToLiveNanos) {
+            return AGE_UNKNOWN;
+        }
+        return unit.convert(age, TimeUnit.NANOSECONDS);
     }
 
     @Override
@@ -48,10 +97,39 @@ public class BitmapCache<K> implements Cache<K, Bitmap> {
         mInternalCache.evictAll();
     }
 
+    @Override
+    public CacheStats getStats() {
+        return mStatsCounter.snapshot();
+    }
+
+    @Override
+    public CacheStats getStatsAndReset() {
+        return mStatsCounter.snapshotAndReset();
+    }
+
+    private boolean isExpired(K key) {
+        final Long writeTime = mInternalCache.getWriteTime(key);
+        return writeTime != null && System.nanoTime() - writeTime >= mTimeToLiveNanos;
+    }
+
     private static class LruImageCache<K> extends LruCache<K, Bitmap> {
 
-        public LruImageCache(int maxSize) {
+        // Write times are kept next to the LruCache and dropped whenever it removes an entry.
+        // The LruCache does not report new entries, so they are recorded by put().
+        private final Map<K, Long> mWriteTimes = new ConcurrentHashMap<>();
+        private final StatsCounter mStatsCounter;
+
+        public LruImageCache(int maxSize, StatsCounter statsCounter) {
             super(maxSize);
+            mStatsCounter = statsCounter;
+        }
+
+        public Long getWriteTime(K key) {
+            return mWriteTimes.get(key);
+        }
+
+        public void recordWrite(K key) {
+            mWriteTimes.put(key, System.nanoTime());
         }
 
         @Override
@@ -62,5 +140,15 @@ public class BitmapCache<K> implements Cache<K, Bitmap> {
 
             return value.getByteCount();
         }
+
+        @Override
+        protected void entryRemoved(boolean evicted, K key, Bitmap oldValue, Bitmap newValue) {
+            if (evicted) {
+                mStatsCounter.recordEviction();
+            }
+            if (newValue == null) {
+                mWriteTimes.remove(key);
+            }
+        }
     }
 }
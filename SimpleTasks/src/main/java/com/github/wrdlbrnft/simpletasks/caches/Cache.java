@@ -1,5 +1,7 @@
 package com.github.wrdlbrnft.simpletasks.caches;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created with Android Studio<br>
  * User: Xaver<br>
@@ -12,6 +14,11 @@ package com.github.wrdlbrnft.simpletasks.caches;
  */
 public interface Cache<K, T> {
 
+    /**
+     * Returned by {@link Cache#getAge(Object, TimeUnit)} if the age of an entry is not known.
+     */
+    long AGE_UNKNOWN = -1L;
+
     /**
      * Adds a new value to the cache. If a value with the supplied key already exists then it is overwritten.
      *
@@ -41,4 +48,39 @@ public interface Cache<K, T> {
      * Clears the cache. Removes all values stored in the cache.
      */
     void clear();
+
+    /**
+     * Returns how long ago the value associated with the supplied key was written to the cache.
+     * Implementations which do not track write times return {@link Cache#AGE_UNKNOWN}.
+     *
+     * @param key  The key identifying the value.
+     * @param unit The {@link TimeUnit} in which the age should be returned.
+     * @return Returns the age of the value or {@link Cache#AGE_UNKNOWN} if the age is not known
+     * or no such value exists.
+     */
+    default long getAge(K key, TimeUnit unit) {
+        return AGE_UNKNOWN;
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counts of this {@link Cache}.
+     * Implementations which do not record statistics return {@link CacheStats#EMPTY}.
+     *
+     * @return Returns the {@link CacheStats} of this {@link Cache}.
+     */
+    default CacheStats getStats() {
+        return CacheStats.EMPTY;
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counts of this {@link Cache} and resets
+     * them to zero. The counts are reset one after another, so the snapshot is only weakly
+     * consistent: operations which happen concurrently are counted in either the returned or the
+     * next snapshot, but the counts are not guaranteed to describe a single point in time.
+     *
+     * @return Returns the {@link CacheStats} of this {@link Cache} before the reset.
+     */
+    default CacheStats getStatsAndReset() {
+        return CacheStats.EMPTY;
+    }
 }
@@ -0,0 +1,81 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+/**
+ * An immutable snapshot of the statistics of a {@link Cache}, returned by
+ * {@link Cache#getStats()} and {@link Cache#getStatsAndReset()}.
+ */
+public final class CacheStats {
+
+    /**
+     * {@link CacheStats} without any recorded operations. Returned by {@link Cache Caches} which
+     * do not record statistics.
+     */
+    public static final CacheStats EMPTY = new CacheStats(0L, 0L, 0L);
+
+    private final long mHitCount;
+    private final long mMissCount;
+    private final long mEvictionCount;
+
+    public CacheStats(long hitCount, long missCount, long evictionCount) {
+        mHitCount = hitCount;
+        mMissCount = missCount;
+        mEvictionCount = evictionCount;
+    }
+
+    /**
+     * Returns the number of lookups which found a value.
+     *
+     * @return Returns the number of hits.
+     */
+    public long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of lookups which did not find a value.
+     *
+     * @return Returns the number of misses.
+     */
+    public long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the total number of lookups.
+     *
+     * @return Returns the number of hits and misses.
+     */
+    public long getRequestCount() {
+        return mHitCount + mMissCount;
+    }
+
+    /**
+     * Returns the fraction of lookups which found a value.
+     *
+     * @return Returns the hit rate or {@code 1.0} if there were no lookups.
+     */
+    public double getHitRate() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0L ? 1.0 : (double) mHitCount / requestCount;
+    }
+
+    /**
+     * Returns the number of entries the {@link Cache} removed on its own because they exceeded
+     * its size or expired. Entries removed with {@link Cache#evict(Object)} or
+     * {@link Cache#clear()} are not counted.
+     *
+     * @return Returns the number of evictions.
+     */
+    public long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + mHitCount +
+                ", missCount=" + mMissCount +
+                ", evictionCount=" + mEvictionCount +
+                '}';
+    }
+}
@@ -0,0 +1,436 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of the {@link Cache} interface which stores its entries in a file, so they
+ * survive the process. Keys and values are converted to bytes with a {@link Serializer}.
+ * <p>
+ * Entries are appended to a single data file, replacing or evicting an entry appends a new
+ * record. An index in memory maps every key to the position of its latest record, and records
+ * are read through memory mapped regions of the file. The mapping of the last region grows
+ * geometrically ahead of the data, so reading a freshly written record rarely maps the file
+ * again. The file is zero filled beyond the data, that part is cut off when the
+ * {@link DiskCache} is closed or recovered. Each record carries a checksum. When the
+ * {@link DiskCache} is opened the file is scanned to rebuild the index and everything after the
+ * first incomplete or corrupt record - for example one which was being written while the
+ * process died - is cut off.
+ * <p>
+ * Once the file grows beyond the maximum size it is compacted: the latest record of each live
+ * entry is copied to a new file, least recently used entries are dropped until they take at most
+ * three quarters of the maximum size, and the new file atomically replaces the old one.
+ * <p>
+ * All operations perform disk I/O and are synchronized. Failing I/O makes the affected entry
+ * behave like a missing entry. A {@link DiskCache} is usually combined with an in memory
+ * {@link Cache} in a {@link TieredCache}.
+ *
+ * @param <K> Type of the keys used to identify values in the {@link Cache}.
+ * @param <T> Type of the values stored in the {@link Cache}.
+ */
+public class DiskCache<K, T> implements Cache<K, T> {
+
+    private static final int HEADER_SIZE = 16;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int TOMBSTONE = -1;
+
+    private static final int REGION_SHIFT = 22;
+    private static final long REGION_SIZE = 1L << REGION_SHIFT;
+    private static final long MIN_MAPPING_SIZE = 1L << 16;
+
+    private final LinkedHashMap<K, Location> mIndex = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final File mFile;
+    private final File mCompactionFile;
+    private final Serializer<K> mKeySerializer;
+    private final Serializer<T> mValueSerializer;
+    private final long mMaximumSize;
+
+    private RandomAccessFile mRandomAccessFile;
+    private FileChannel mChannel;
+    private MappedByteBuffer[] mRegions = new MappedByteBuffer[0];
+    private long mFileSize;
+    private long mLiveSize;
+
+    /**
+     * Opens a {@link DiskCache} stored in the supplied file. If the file already exists the
+     * entries in it are recovered.
+     *
+     * @param file            The file in which the entries are stored.
+     * @param keySerializer   The {@link Serializer} used for the keys.
+     * @param valueSerializer The {@link Serializer} used for the values.
+     * @param maximumSize     The size in bytes the file may reach before it is compacted.
+     * @throws IOException If the file cannot be opened or recovered.
+     */
+    public DiskCache(File file, Serializer<K> keySerializer, Serializer<T> valueSerializer, long maximumSize) throws IOException {
+        if (maximumSize <= 0L) {
+            throw new IllegalArgumentException("Maximum size must be positive but was " + maximumSize);
+        }
+        mFile = file;
+        mCompactionFile = new File(file.getPath() + ".compact");
+        mKeySerializer = keySerializer;
+        mValueSerializer = valueSerializer;
+        mMaximumSize = maximumSize;
+
+        // A leftover from a compaction which did not finish, the data file is still intact.
+        if (mCompactionFile.exists() && !mCompactionFile.delete()) {
+            throw new IOException("Could not delete " + mCompactionFile);
+        }
+        open();
+        recover();
+    }
+
+    @Override
+    public synchronized void put(K key, T item) {
+        if (item == null) {
+            evict(key);
+            return;
+        }
+
+        try {
+            final byte[] keyData = mKeySerializer.serialize(key);
+            final byte[] valueData = mValueSerializer.serialize(item);
+            final long writeTime = System.currentTimeMillis();
+            final long offset = append(keyData, valueData, writeTime);
+            final Location location = new Location(offset, keyData.length, valueData.length, writeTime);
+            final Location previous = mIndex.put(key, location);
+            mLiveSize += location.getRecordSize();
+            if (previous != null) {
+                mLiveSize -= previous.getRecordSize();
+            }
+        } catch (IOException e) {
+            final Location previous = mIndex.remove(key);
+            if (previous != null) {
+                mLiveSize -= previous.getRecordSize();
+            }
+            return;
+        }
+        tryCompact();
+    }
+
+    @Override
+    public synchronized T get(K key) {
+        final Location location = mIndex.get(key);
+        if (location == null) {
+            return null;
+        }
+
+        try {
+            final ByteBuffer record = readRecord(location.mOffset, location.getRecordSize());
+            if (!isValid(record)) {
+                throw new IOException("Record for " + key + " is corrupt.");
+            }
+            final byte[] valueData = new byte[location.mValueLength];
+            record.position(HEADER_SIZE + location.mKeyLength);
+            record.get(valueData);
+            return mValueSerializer.deserialize(valueData);
+        } catch (IOException e) {
+            mIndex.remove(key);
+            mLiveSize -= location.getRecordSize();
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized long getAge(K key, TimeUnit unit) {
+        final Location location = mIndex.get(key);
+        if (location == null) {
+            return AGE_UNKNOWN;
+        }
+        final long age = Math.max(0L, System.currentTimeMillis() - location.mWriteTime);
+        return unit.convert(age, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void evict(K key) {
+        final Location location = mIndex.remove(key);
+        if (location == null) {
+            return;
+        }
+
+        mLiveSize -= location.getRecordSize();
+        try {
+            append(mKeySerializer.serialize(key), null, System.currentTimeMillis());
+        } catch (IOException e) {
+            // Without the tombstone the old value comes back after a restart, just like a stale entry.
+            return;
+        }
+        tryCompact();
+    }
+
+    @Override
+    public synchronized void clear() {
+        mIndex.clear();
+        mLiveSize = 0L;
+        try {
+            mChannel.truncate(0L);
+            mChannel.force(true);
+            mFileSize = 0L;
+            mRegions = new MappedByteBuffer[0];
+        } catch (IOException e) {
+            // The index is empty so the old records are never read again.
+        }
+    }
+
+    /**
+     * Flushes all written records to the storage device and closes the file. The
+     * {@link DiskCache} cannot be used afterwards.
+     *
+     * @throws IOException If the file cannot be flushed or closed.
+     */
+    public synchronized void close() throws IOException {
+        mIndex.clear();
+        mRegions = new MappedByteBuffer[0];
+        try {
+            mChannel.truncate(mFileSize);
+            mChannel.force(true);
+        } finally {
+            mRandomAccessFile.close();
+        }
+    }
+
+    /**
+     * Returns the current size of the data file in bytes.
+     *
+     * @return Returns the size of the data file.
+     */
+    public synchronized long getFileSize() {
+        return mFileSize;
+    }
+
+    private void open() throws IOException {
+        mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+        mChannel = mRandomAccessFile.getChannel();
+        mFileSize = mChannel.size();
+        mRegions = new MappedByteBuffer[0];
+    }
+
+    private void recover() throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long offset = 0L;
+        while (true) {
+            header.clear();
+            if (offset + HEADER_SIZE + CHECKSUM_SIZE > mFileSize || !readFully(header, offset)) {
+                break;
+            }
+            header.flip();
+            final int keyLength = header.getInt();
+            final int valueLength = header.getInt();
+            final long writeTime = header.getLong();
+            if (keyLength < 0 || valueLength < TOMBSTONE) {
+                break;
+            }
+
+            final long recordSize = recordSize(keyLength, valueLength);
+            if (recordSize > Integer.MAX_VALUE || offset + recordSize > mFileSize) {
+                break;
+            }
+
+            final ByteBuffer record = ByteBuffer.allocate((int) recordSize);
+            if (!readFully(record, offset)) {
+                break;
+            }
+            record.flip();
+            if (!isValid(record)) {
+                break;
+            }
+
+            final byte[] keyData = new byte[keyLength];
+            record.position(HEADER_SIZE);
+            record.get(keyData);
+            final K key = mKeySerializer.deserialize(keyData);
+            final Location previous = valueLength == TOMBSTONE
+                    ? mIndex.remove(key)
+                    : mIndex.put(key, new Location(offset, keyLength, valueLength, writeTime));
+            if (previous != null) {
+                mLiveSize -= previous.getRecordSize();
+            }
+            if (valueLength != TOMBSTONE) {
+                mLiveSize += recordSize;
+            }
+            offset += recordSize;
+        }
+
+        if (offset < mFileSize) {
+            mChannel.truncate(offset);
+            mChannel.force(true);
+            mFileSize = offset;
+        }
+    }
+
+    private long append(byte[] keyData, byte[] valueData, long writeTime) throws IOException {
+        final int valueLength = valueData != null ? valueData.length : TOMBSTONE;
+        final ByteBuffer record = ByteBuffer.allocate((int) recordSize(keyData.length, valueLength));
+        record.putInt(keyData.length);
+        record.putInt(valueLength);
+        record.putLong(writeTime);
+        record.put(keyData);
+        if (valueData != null) {
+            record.put(valueData);
+        }
+        record.putInt(checksum(record.array(), record.position()));
+        record.flip();
+
+        final long offset = mFileSize;
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += mChannel.write(record, position);
+        }
+        mFileSize = position;
+        return offset;
+    }
+
+    private ByteBuffer readRecord(long offset, int size) throws IOException {
+        final int regionIndex = (int) (offset >>> REGION_SHIFT);
+        final long end = offset + size;
+        if (((end - 1) >>> REGION_SHIFT) != regionIndex) {
+            // Records crossing a region boundary are rare enough to be read directly.
+            final ByteBuffer record = ByteBuffer.allocate(size);
+            if (!readFully(record, offset)) {
+                throw new IOException("Unexpected end of file.");
+            }
+            record.flip();
+            return record;
+        }
+
+        final long regionStart = (long) regionIndex << REGION_SHIFT;
+        final MappedByteBuffer region = getRegion(regionIndex, regionStart, end - regionStart);
+        final ByteBuffer record = region.duplicate();
+        record.position((int) (offset - regionStart));
+        record.limit((int) (end - regionStart));
+        return record.slice();
+    }
+
+    private MappedByteBuffer getRegion(int index, long regionStart, long requiredSize) throws IOException {
+        if (index >= mRegions.length) {
+            final MappedByteBuffer[] regions = new MappedByteBuffer[index + 1];
+            System.arraycopy(mRegions, 0, regions, 0, mRegions.length);
+            mRegions = regions;
+        }
+
+        MappedByteBuffer region = mRegions[index];
+        if (region == null || region.capacity() < requiredSize) {
+            // A region which is not completely written yet is mapped with twice its previous
+            // size. Mapping past the end of the data extends the file with zeros, records
+            // appended there later are visible through the existing mapping.
+            final long size = regionStart + REGION_SIZE <= mFileSize
+                    ? REGION_SIZE
+                    : Math.min(REGION_SIZE, Math.max(requiredSize, Math.max(MIN_MAPPING_SIZE, region != null ? 2L * region.capacity() : 0L)));
+            region = mChannel.map(FileChannel.MapMode.READ_ONLY, regionStart, size);
+            mRegions[index] = region;
+        }
+        return region;
+    }
+
+    private boolean readFully(ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            final int read = mChannel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private void tryCompact() {
+        if (mFileSize <= mMaximumSize) {
+            return;
+        }
+
+        try {
+            compact();
+        } catch (IOException e) {
+            // The data file is only replaced once the compacted file is complete, so it is
+            // still intact. Compaction is attempted again with the next write.
+        }
+    }
+
+    private void compact() throws IOException {
+        final long targetSize = mMaximumSize / 4L * 3L;
+        final Iterator<Map.Entry<K, Location>> iterator = mIndex.entrySet().iterator();
+        while (mLiveSize > targetSize && iterator.hasNext()) {
+            mLiveSize -= iterator.next().getValue().getRecordSize();
+            iterator.remove();
+        }
+
+        final RandomAccessFile compactionFile = new RandomAccessFile(mCompactionFile, "rw");
+        try {
+            final FileChannel target = compactionFile.getChannel();
+            target.truncate(0L);
+            long position = 0L;
+            for (Map.Entry<K, Location> entry : mIndex.entrySet()) {
+                final Location location = entry.getValue();
+                final ByteBuffer record = readRecord(location.mOffset, location.getRecordSize());
+                final long offset = position;
+                while (record.hasRemaining()) {
+                    position += target.write(record, position);
+                }
+                entry.setValue(new Location(offset, location.mKeyLength, location.mValueLength, location.mWriteTime));
+            }
+            target.force(true);
+        } finally {
+            compactionFile.close();
+        }
+
+        mRegions = new MappedByteBuffer[0];
+        mRandomAccessFile.close();
+        if (!mCompactionFile.renameTo(mFile)) {
+            // The old file is still intact, so recover from it to restore a consistent index.
+            mIndex.clear();
+            mLiveSize = 0L;
+            open();
+            recover();
+            throw new IOException("Could not replace " + mFile + " with " + mCompactionFile);
+        }
+        open();
+    }
+
+    private static boolean isValid(ByteBuffer record) {
+        final int checksumOffset = record.limit() - CHECKSUM_SIZE;
+        final byte[] data = new byte[checksumOffset];
+        final ByteBuffer content = record.duplicate();
+        content.position(0);
+        content.get(data);
+        return checksum(data, data.length) == record.getInt(checksumOffset);
+    }
+
+    private static int checksum(byte[] data, int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static long recordSize(int keyLength, int valueLength) {
+        return (long) HEADER_SIZE + keyLength + Math.max(0, valueLength) + CHECKSUM_SIZE;
+    }
+
+    private static class Location {
+
+        private final long mOffset;
+        private final int mKeyLength;
+        private final int mValueLength;
+        private final long mWriteTime;
+
+        private Location(long offset, int keyLength, int valueLength, long writeTime) {
+            mOffset = offset;
+            mKeyLength = keyLength;
+            mValueLength = valueLength;
+            mWriteTime = writeTime;
+        }
+
+        private int getRecordSize() {
+            return (int) recordSize(mKeyLength, mValueLength);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+/**
+ * A count-min sketch which estimates how often a key was accessed recently. Each key maps to
+ * four 4-bit counters, the estimate is the smallest of them. Once the number of increments
+ * reaches the sample size all counters are halved, so the sketch forgets old accesses and
+ * adapts when the popular keys change.
+ * <p>
+ * The table is sized once when the sketch is created, so the recorded history is never lost
+ * while the cache fills up.
+ * <p>
+ * This class is not thread safe, {@link TinyLfuCache} only uses it while holding its eviction lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L,
+            0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L
+    };
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final long[] mTable;
+    private final int mTableMask;
+    private final int mSampleSize;
+    private int mSize;
+
+    /**
+     * Creates a sketch which can track the supplied number of keys.
+     */
+    FrequencySketch(long expectedSize) {
+        final int capacity = (int) Math.min(Math.max(expectedSize, MIN_CAPACITY), MAX_CAPACITY);
+        mTable = new long[ceilingPowerOfTwo(capacity)];
+        mTableMask = mTable.length - 1;
+        mSampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the estimated number of recent accesses of the key, at most 15.
+     */
+    int frequency(Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int) ((mTable[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the key.
+     */
+    void increment(Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+
+        if (added && ++mSize >= mSampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        if ((mTable[index] & mask) != mask) {
+            mTable[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < mTable.length; i++) {
+            odd += Long.bitCount(mTable[i] & ONE_MASK);
+            mTable[i] = (mTable[i] >>> 1) & RESET_MASK;
+        }
+        mSize = (mSize - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long value = (hash + SEEDS[i]) * SEEDS[i];
+        value += value >>> 32;
+        return ((int) value) & mTableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(x - 1));
+    }
+}
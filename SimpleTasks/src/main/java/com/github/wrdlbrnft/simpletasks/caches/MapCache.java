@@ -1,9 +1,9 @@
 package com.github.wrdlbrnft.simpletasks.caches;
 
-import android.support.v4.util.ArrayMap;
-
-import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created with Android Studio<br>
@@ -11,33 +11,114 @@ import java.util.Map;
  * Date: 24/02/2018
  * <p>
  * Basic implementation of the {@link Cache} interface backed by a {@link Map}. This implementation
- * is thread safe and synchronizes on the {@link Map} on each call to the methods defined in
- * the {@link Cache} interface.
+ * is thread safe and uses a {@link ConcurrentHashMap}, so reading from the {@link Cache} never
+ * takes a lock. Storing {@code null} as value removes the entry.
+ * <p>
+ * The write time of each entry is recorded. If a time to live is set then entries older than
+ * that are treated as missing and are removed when they are accessed.
  *
  * @param <K> Type of the keys used to identify values in the {@link Cache}.
  * @param <T> Type of the values stored in the {@link Cache}.
  */
 public class MapCache<K, T> implements Cache<K, T> {
 
-    private final Map<K, T> mMap = Collections.synchronizedMap(new ArrayMap<K, T>());
+    private static final Object NULL_KEY = new Object();
+
+    private final ConcurrentMap<Object, Entry<T>> mMap = new ConcurrentHashMap<>();
+    private final StatsCounter mStatsCounter = new StatsCounter();
+    private final long mTimeToLiveNanos;
+
+    public MapCache() {
+        mTimeToLiveNanos = Long.MAX_VALUE;
+    }
+
+    /**
+     * Creates a new {@link MapCache} whose entries expire after the supplied time to live.
+     *
+     * @param timeToLive The time after which an entry expires.
+     * @param unit       The {@link TimeUnit} of the time to live.
+     */
+    public MapCache(long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0L) {
+            throw new IllegalArgumentException("Time to live must be positive but was " + timeToLive);
+        }
+        mTimeToLiveNanos = unit.toNanos(timeToLive);
+    }
 
     @Override
     public void put(K key, T item) {
-        mMap.put(key, item);
+        if (item == null) {
+            mMap.remove(maskNull(key));
+        } else {
+            mMap.put(maskNull(key), new Entry<>(item, System.nanoTime()));
+        }
     }
 
     @Override
     public T get(K key) {
-        return mMap.get(key);
+        final Entry<T> entry = getEntry(key);
+        final T value = entry != null ? entry.mValue : null;
+        mStatsCounter.recordLookup(value);
+        return value;
+    }
+
+    @Override
+    public long getAge(K key, TimeUnit unit) {
+        final Entry<T> entry = getEntry(key);
+        if (entry == null) {
+            return AGE_UNKNOWN;
+        }
+        return unit.convert(System.nanoTime() - entry.mWriteTime, TimeUnit.NANOSECONDS);
     }
 
     @Override
     public void evict(K key) {
-        mMap.remove(key);
+        mMap.remove(maskNull(key));
     }
 
     @Override
     public void clear() {
         mMap.clear();
     }
+
+    @Override
+    public CacheStats getStats() {
+        return mStatsCounter.snapshot();
+    }
+
+    @Override
+    public CacheStats getStatsAndReset() {
+        return mStatsCounter.snapshotAndReset();
+    }
+
+    private Entry<T> getEntry(K key) {
+        final Object mapKey = maskNull(key);
+        final Entry<T> entry = mMap.get(mapKey);
+        if (entry == null) {
+            return null;
+        }
+
+        if (System.nanoTime() - entry.mWriteTime >= mTimeToLiveNanos) {
+            if (mMap.remove(mapKey, entry)) {
+                mStatsCounter.recordEviction();
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static class Entry<T> {
+
+        private final T mValue;
+        private final long mWriteTime;
+
+        private Entry(T value, long writeTime) {
+            mValue = value;
+            mWriteTime = writeTime;
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+
+/**
+ * Converts keys and values to bytes and back so they can be stored by a {@link DiskCache}.
+ *
+ * @param <T> The type of the objects this {@link Serializer} can convert.
+ */
+public interface Serializer<T> {
+
+    /**
+     * Converts the supplied object to bytes.
+     *
+     * @param value The object to convert.
+     * @return Returns the bytes representing the object.
+     * @throws IOException If the object cannot be converted.
+     */
+    byte[] serialize(T value) throws IOException;
+
+    /**
+     * Restores an object from bytes returned by {@link Serializer#serialize(Object)}.
+     *
+     * @param data The bytes representing the object.
+     * @return Returns the restored object.
+     * @throws IOException If the bytes cannot be converted.
+     */
+    T deserialize(byte[] data) throws IOException;
+
+    /**
+     * Returns a {@link Serializer} which stores {@link String Strings} as UTF-8.
+     *
+     * @return Returns a {@link Serializer} for {@link String Strings}.
+     */
+    static Serializer<String> ofStrings() {
+        final Charset charset = Charset.forName("UTF-8");
+        return new Serializer<String>() {
+
+            @Override
+            public byte[] serialize(String value) {
+                return value.getBytes(charset);
+            }
+
+            @Override
+            public String deserialize(byte[] data) {
+                return new String(data, charset);
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Serializer} which uses Java serialization. This is convenient but slow
+     * and produces large output, so a custom {@link Serializer} is preferable for large values.
+     *
+     * @param <T> The type of the objects this {@link Serializer} can convert.
+     * @return Returns a {@link Serializer} for {@link Serializable} objects.
+     */
+    static <T extends Serializable> Serializer<T> ofSerializable() {
+        return new Serializer<T>() {
+
+            @Override
+            public byte[] serialize(T value) throws IOException {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(value);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T deserialize(byte[] data) throws IOException {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                    return (T) in.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Could not deserialize object.", e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import com.github.wrdlbrnft.simpletasks.utils.StripedCounter;
+
+/**
+ * Records the statistics of a {@link Cache} implementation with {@link StripedCounter StripedCounters}.
+ */
+final class StatsCounter {
+
+    private final StripedCounter mHitCount = new StripedCounter();
+    private final StripedCounter mMissCount = new StripedCounter();
+    private final StripedCounter mEvictionCount = new StripedCounter();
+
+    void recordHit() {
+        mHitCount.increment();
+    }
+
+    void recordMiss() {
+        mMissCount.increment();
+    }
+
+    void recordLookup(Object value) {
+        if (value != null) {
+            mHitCount.increment();
+        } else {
+            mMissCount.increment();
+        }
+    }
+
+    void recordEviction() {
+        mEvictionCount.increment();
+    }
+
+    CacheStats snapshot() {
+        return new CacheStats(mHitCount.sum(), mMissCount.sum(), mEvictionCount.sum());
+    }
+
+    CacheStats snapshotAndReset() {
+        return new CacheStats(mHitCount.sumThenReset(), mMissCount.sumThenReset(), mEvictionCount.sumThenReset());
+    }
+}
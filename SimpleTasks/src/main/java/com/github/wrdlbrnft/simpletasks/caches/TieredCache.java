@@ -0,0 +1,105 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the {@link Cache} interface which layers a fast in memory {@link Cache}
+ * over a {@link DiskCache}. Values are written to both tiers. Lookups check the memory tier first
+ * and fall back to the disk tier, values found on disk are copied back into the memory tier.
+ * This way values evicted from memory and values cached before the process was restarted can be
+ * restored without reloading them.
+ * <p>
+ * Lookups which miss the memory tier read from disk on the calling thread.
+ * <p>
+ * If the memory tier expires its entries the same time to live has to be passed to the
+ * {@link TieredCache}. Values on disk which are older than that are treated as missing. Younger
+ * values are returned, but not copied into the memory tier, since it would treat them as written
+ * just now and keep them beyond their time to live.
+ *
+ * @param <K> Type of the keys used to identify values in the {@link Cache}.
+ * @param <T> Type of the values stored in the {@link Cache}.
+ */
+public class TieredCache<K, T> implements Cache<K, T> {
+
+    private final Cache<K, T> mMemoryCache;
+    private final DiskCache<K, T> mDiskCache;
+    private final long mTimeToLiveNanos;
+
+    public TieredCache(Cache<K, T> memoryCache, DiskCache<K, T> diskCache) {
+        mMemoryCache = memoryCache;
+        mDiskCache = diskCache;
+        mTimeToLiveNanos = Long.MAX_VALUE;
+    }
+
+    /**
+     * Creates a new {@link TieredCache} whose entries expire after the supplied time to live.
+     *
+     * @param memoryCache The {@link Cache} used as memory tier, usually with the same time to live.
+     * @param diskCache   The {@link DiskCache} used as disk tier.
+     * @param timeToLive  The time after which an entry expires.
+     * @param unit        The {@link TimeUnit} of the time to live.
+     */
+    public TieredCache(Cache<K, T> memoryCache, DiskCache<K, T> diskCache, long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0L) {
+            throw new IllegalArgumentException("Time to live must be positive but was " + timeToLive);
+        }
+        mMemoryCache = memoryCache;
+        mDiskCache = diskCache;
+        mTimeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    @Override
+    public void put(K key, T item) {
+        mMemoryCache.put(key, item);
+        mDiskCache.put(key, item);
+    }
+
+    @Override
+    public T get(K key) {
+        final T value = mMemoryCache.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        if (mTimeToLiveNanos == Long.MAX_VALUE) {
+            final T storedValue = mDiskCache.get(key);
+            if (storedValue != null) {
+                mMemoryCache.put(key, storedValue);
+            }
+            return storedValue;
+        }
+
+        final long age = mDiskCache.getAge(key, TimeUnit.NANOSECONDS);
+        if (age == AGE_UNKNOWN) {
+            return null;
+        }
+        if (age >= mTimeToLiveNanos) {
+            mDiskCache.evict(key);
+            return null;
+        }
+        return mDiskCache.get(key);
+    }
+
+    @Override
+    public long getAge(K key, TimeUnit unit) {
+        // The disk tier keeps the original write time, the memory tier only knows when the
+        // value was last copied into memory.
+        final long age = mDiskCache.getAge(key, TimeUnit.NANOSECONDS);
+        if (age != AGE_UNKNOWN) {
+            return age < mTimeToLiveNanos ? unit.convert(age, TimeUnit.NANOSECONDS) : AGE_UNKNOWN;
+        }
+        return mMemoryCache.getAge(key, unit);
+    }
+
+    @Override
+    public void evict(K key) {
+        mMemoryCache.evict(key);
+        mDiskCache.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        mMemoryCache.clear();
+        mDiskCache.clear();
+    }
+}
@@ -0,0 +1,499 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A general purpose, thread safe implementation of the {@link Cache} interface which is bounded
+ * by the number or the total weight of its entries. When the bound is exceeded entries are
+ * evicted according to the W-TinyLFU policy:
+ * <ul>
+ * <li>New entries enter a small LRU window which takes 1% of the maximum weight.</li>
+ * <li>Entries leaving the window have to compete with the least recently used entry of the main
+ * region for admission. Whichever was accessed less often recently is evicted. Access frequencies
+ * are estimated with a compact sketch which forgets old accesses over time.</li>
+ * <li>The main region is split into a probation and a protected segment. Entries accessed while
+ * on probation are promoted to the protected segment, which takes 80% of the main region.</li>
+ * </ul>
+ * Because of the admission filter a scan over many keys which are accessed only once cannot
+ * flush the entries which are used frequently.
+ * <p>
+ * Reads never take a lock. They look up the entry in a {@link ConcurrentHashMap} and record the
+ * access in a small lossy buffer which is replayed against the eviction policy the next time
+ * the eviction lock is free. Writes update the eviction policy under a lock.
+ * <p>
+ * The frequency sketch is sized once from the maximum size, for at most 1048576 keys. Caches with
+ * a {@link Weigher} cannot know how many entries fit, their sketch is sized for at most 65536 keys.
+ * <p>
+ * Like {@link MapCache} the write time of each entry is recorded and an optional time to live
+ * can be set.
+ *
+ * @param <K> Type of the keys used to identify values in the {@link Cache}.
+ * @param <T> Type of the values stored in the {@link Cache}.
+ */
+public class TinyLfuCache<K, T> implements Cache<K, T> {
+
+    /**
+     * Calculates the weight of entries stored in a {@link TinyLfuCache}.
+     *
+     * @param <K> Type of the keys used to identify values in the {@link Cache}.
+     * @param <T> Type of the values stored in the {@link Cache}.
+     */
+    public interface Weigher<K, T> {
+
+        /**
+         * Returns the weight of an entry. The weight of an entry is calculated once when it is
+         * stored in the {@link Cache}.
+         *
+         * @param key   The key of the entry.
+         * @param value The value of the entry.
+         * @return Returns the weight of the entry, must not be negative.
+         */
+        int weigh(K key, T value);
+    }
+
+    private static final long MAX_SKETCH_SIZE = 1L << 20;
+    private static final long MAX_WEIGHED_SKETCH_SIZE = 1L << 16;
+
+    private static final Object NULL_KEY = new Object();
+
+    private static final int QUEUE_NONE = 0x00;
+    private static final int QUEUE_WINDOW = 0x01;
+    private static final int QUEUE_PROBATION = 0x02;
+    private static final int QUEUE_PROTECTED = 0x04;
+
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+    private final ConcurrentMap<Object, Node<T>> mData = new ConcurrentHashMap<>();
+    private final ReentrantLock mEvictionLock = new ReentrantLock();
+    private final FrequencySketch mSketch;
+    private final StatsCounter mStatsCounter = new StatsCounter();
+
+    private final AtomicReferenceArray<Node<T>> mReadBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong mReadBufferWrites = new AtomicLong();
+    private volatile long mReadBufferReads;
+
+    private final AccessOrderQueue<T> mWindow = new AccessOrderQueue<>();
+    private final AccessOrderQueue<T> mProbation = new AccessOrderQueue<>();
+    private final AccessOrderQueue<T> mProtected = new AccessOrderQueue<>();
+
+    private final Weigher<? super K, ? super T> mWeigher;
+    private final long mMaximumWeight;
+    private final long mWindowMaximumWeight;
+    private final long mProtectedMaximumWeight;
+    private final long mTimeToLiveNanos;
+
+    private long mWeight;
+    private long mWindowWeight;
+    private long mProtectedWeight;
+
+    /**
+     * Creates a new {@link TinyLfuCache} which holds at most the supplied number of entries.
+     *
+     * @param maximumSize The maximum number of entries.
+     */
+    public TinyLfuCache(long maximumSize) {
+        this(maximumSize, (key, value) -> 1, Long.MAX_VALUE, TimeUnit.NANOSECONDS, Math.min(maximumSize, MAX_SKETCH_SIZE));
+    }
+
+    /**
+     * Creates a new {@link TinyLfuCache} whose entries may weigh at most the supplied weight
+     * in total.
+     *
+     * @param maximumWeight The maximum total weight of all entries.
+     * @param weigher       The {@link Weigher} used to calculate the weight of each entry.
+     */
+    public TinyLfuCache(long maximumWeight, Weigher<? super K, ? super T> weigher) {
+        this(maximumWeight, weigher, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new {@link TinyLfuCache} whose entries may weigh at most the supplied weight
+     * in total and expire after the supplied time to live.
+     *
+     * @param maximumWeight The maximum total weight of all entries.
+     * @param weigher       The {@link Weigher} used to calculate the weight of each entry.
+     * @param timeToLive    The time after which an entry expires.
+     * @param unit          The {@link TimeUnit} of the time to live.
+     */
+    public TinyLfuCache(long maximumWeight, Weigher<? super K, ? super T> weigher, long timeToLive, TimeUnit unit) {
+        this(maximumWeight, weigher, timeToLive, unit, Math.min(maximumWeight, MAX_WEIGHED_SKETCH_SIZE));
+    }
+
+    private TinyLfuCache(long maximumWeight, Weigher<? super K, ? super T> weigher, long timeToLive, TimeUnit unit, long sketchSize) {
+        if (maximumWeight <= 0L) {
+            throw new IllegalArgumentException("Maximum weight must be positive but was " + maximumWeight);
+        }
+        if (timeToLive <= 0L) {
+            throw new IllegalArgumentException("Time to live must be positive but was " + timeToLive);
+        }
+        mWeigher = weigher;
+        mMaximumWeight = maximumWeight;
+        mWindowMaximumWeight = Math.max(1L, maximumWeight / 100L);
+        mProtectedMaximumWeight = (maximumWeight - mWindowMaximumWeight) / 5L * 4L;
+        mTimeToLiveNanos = unit.toNanos(timeToLive);
+        mSketch = new FrequencySketch(sketchSize);
+    }
+
+    @Override
+    public void put(K key, T item) {
+        if (item == null) {
+            evict(key);
+            return;
+        }
+
+        final int weight = mWeigher.weigh(key, item);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative but was " + weight);
+        }
+
+        final Object mapKey = maskNull(key);
+        final Node<T> node = new Node<>(mapKey, item, weight, System.nanoTime());
+        final Node<T> previous = mData.put(mapKey, node);
+
+        mEvictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (previous != null) {
+                onRemoved(previous);
+            }
+            onAdded(node);
+            evictEntries();
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @Override
+    public T get(K key) {
+        final Node<T> node = getNode(key);
+        if (node == null) {
+            mStatsCounter.recordMiss();
+            return null;
+        }
+
+        mStatsCounter.recordHit();
+        recordRead(node);
+        return node.mValue;
+    }
+
+    @Override
+    public long getAge(K key, TimeUnit unit) {
+        final Node<T> node = getNode(key);
+        if (node == null) {
+            return AGE_UNKNOWN;
+        }
+        return unit.convert(System.nanoTime() - node.mWriteTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void evict(K key) {
+        final Node<T> node = mData.remove(maskNull(key));
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    @Override
+    public void clear() {
+        mEvictionLock.lock();
+        try {
+            drainReadBuffer();
+            for (Node<T> node : mData.values()) {
+                if (mData.remove(node.mKey, node)) {
+                    onRemoved(node);
+                }
+            }
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return mStatsCounter.snapshot();
+    }
+
+    @Override
+    public CacheStats getStatsAndReset() {
+        return mStatsCounter.snapshotAndReset();
+    }
+
+    /**
+     * Returns the total weight of all entries in this {@link TinyLfuCache}. If the
+     * {@link TinyLfuCache} was created without a {@link Weigher} this is the number of entries.
+     *
+     * @return Returns the total weight of all entries.
+     */
+    public long getWeightedSize() {
+        mEvictionLock.lock();
+        try {
+            return mWeight;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    private Node<T> getNode(K key) {
+        final Node<T> node = mData.get(maskNull(key));
+        if (node == null) {
+            return null;
+        }
+
+        if (System.nanoTime() - node.mWriteTime >= mTimeToLiveNanos) {
+            if (mData.remove(node.mKey, node)) {
+                mStatsCounter.recordEviction();
+                remove(node);
+            }
+            return null;
+        }
+        return node;
+    }
+
+    private void remove(Node<T> node) {
+        mEvictionLock.lock();
+        try {
+            onRemoved(node);
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    private void recordRead(Node<T> node) {
+        final long writes = mReadBufferWrites.get();
+        final long pending = writes - mReadBufferReads;
+        if (pending >= READ_BUFFER_SIZE) {
+            // The buffer is full. Dropping the access only makes the policy slightly less accurate.
+            tryDrainReadBuffer();
+            return;
+        }
+
+        if (mReadBufferWrites.compareAndSet(writes, writes + 1)) {
+            mReadBuffer.lazySet((int) (writes & READ_BUFFER_MASK), node);
+            if (pending + 1 >= READ_BUFFER_DRAIN_THRESHOLD) {
+                tryDrainReadBuffer();
+            }
+        }
+    }
+
+    private void tryDrainReadBuffer() {
+        if (mEvictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                mEvictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        final long writes = mReadBufferWrites.get();
+        long reads = mReadBufferReads;
+        while (reads < writes) {
+            final Node<T> node = mReadBuffer.getAndSet((int) (reads & READ_BUFFER_MASK), null);
+            if (node == null) {
+                // The slot was claimed but the reader has not stored the node yet.
+                break;
+            }
+            onAccess(node);
+            reads++;
+        }
+        mReadBufferReads = reads;
+    }
+
+    private void onAdded(Node<T> node) {
+        if (node.mRemoved) {
+            return;
+        }
+
+        mSketch.increment(node.mKey);
+
+        if (node.mWeight > mMaximumWeight) {
+            // The entry could never fit, so it is not kept at all.
+            mData.remove(node.mKey, node);
+            node.mRemoved = true;
+            mStatsCounter.recordEviction();
+            return;
+        }
+
+        node.mQueue = QUEUE_WINDOW;
+        mWindow.addLast(node);
+        mWindowWeight += node.mWeight;
+        mWeight += node.mWeight;
+    }
+
+    private void onRemoved(Node<T> node) {
+        node.mRemoved = true;
+        switch (node.mQueue) {
+
+            case QUEUE_WINDOW:
+                mWindow.remove(node);
+                mWindowWeight -= node.mWeight;
+                break;
+
+            case QUEUE_PROBATION:
+                mProbation.remove(node);
+                break;
+
+            case QUEUE_PROTECTED:
+                mProtected.remove(node);
+                mProtectedWeight -= node.mWeight;
+                break;
+
+            default:
+                return;
+        }
+        node.mQueue = QUEUE_NONE;
+        mWeight -= node.mWeight;
+    }
+
+    private void onAccess(Node<T> node) {
+        if (node.mRemoved) {
+            return;
+        }
+
+        mSketch.increment(node.mKey);
+        switch (node.mQueue) {
+
+            case QUEUE_WINDOW:
+                mWindow.moveToLast(node);
+                break;
+
+            case QUEUE_PROBATION:
+                mProbation.remove(node);
+                node.mQueue = QUEUE_PROTECTED;
+                mProtected.addLast(node);
+                mProtectedWeight += node.mWeight;
+                demoteProtected();
+                break;
+
+            case QUEUE_PROTECTED:
+                mProtected.moveToLast(node);
+                break;
+        }
+    }
+
+    private void demoteProtected() {
+        while (mProtectedWeight > mProtectedMaximumWeight) {
+            final Node<T> node = mProtected.peekFirst();
+            mProtected.remove(node);
+            mProtectedWeight -= node.mWeight;
+            node.mQueue = QUEUE_PROBATION;
+            mProbation.addLast(node);
+        }
+    }
+
+    private void evictEntries() {
+        while (mWindowWeight > mWindowMaximumWeight) {
+            final Node<T> node = mWindow.peekFirst();
+            mWindow.remove(node);
+            mWindowWeight -= node.mWeight;
+            node.mQueue = QUEUE_PROBATION;
+            mProbation.addLast(node);
+        }
+
+        while (mWeight > mMaximumWeight) {
+            final Node<T> victim = mProbation.peekFirst();
+            final Node<T> candidate = mProbation.peekLast();
+            final Node<T> evicted;
+            if (victim == null) {
+                final Node<T> protectedNode = mProtected.peekFirst();
+                evicted = protectedNode != null ? protectedNode : mWindow.peekFirst();
+            } else if (victim == candidate) {
+                evicted = victim;
+            } else {
+                // The candidate most recently left the window, the victim is the least recently
+                // used entry of the main region. The one used less frequently has to go.
+                evicted = mSketch.frequency(candidate.mKey) > mSketch.frequency(victim.mKey)
+                        ? victim
+                        : candidate;
+            }
+
+            mData.remove(evicted.mKey, evicted);
+            onRemoved(evicted);
+            mStatsCounter.recordEviction();
+        }
+    }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static class Node<T> {
+
+        private final Object mKey;
+        private final T mValue;
+        private final int mWeight;
+        private final long mWriteTime;
+
+        // Guarded by the eviction lock.
+        private Node<T> mPrevious;
+        private Node<T> mNext;
+        private int mQueue = QUEUE_NONE;
+        private boolean mRemoved;
+
+        private Node(Object key, T value, int weight, long writeTime) {
+            mKey = key;
+            mValue = value;
+            mWeight = weight;
+            mWriteTime = writeTime;
+        }
+    }
+
+    /**
+     * A doubly linked list of {@link Node Nodes} ordered from least to most recently used.
+     */
+    private static class AccessOrderQueue<T> {
+
+        private Node<T> mFirst;
+        private Node<T> mLast;
+
+        private Node<T> peekFirst() {
+            return mFirst;
+        }
+
+        private Node<T> peekLast() {
+            return mLast;
+        }
+
+        private void addLast(Node<T> node) {
+            node.mPrevious = mLast;
+            node.mNext = null;
+            if (mLast == null) {
+                mFirst = node;
+            } else {
+                mLast.mNext = node;
+            }
+            mLast = node;
+        }
+
+        private void remove(Node<T> node) {
+            if (node.mPrevious == null) {
+                mFirst = node.mNext;
+            } else {
+                node.mPrevious.mNext = node.mNext;
+            }
+
+            if (node.mNext == null) {
+                mLast = node.mPrevious;
+            } else {
+                node.mNext.mPrevious = node.mPrevious;
+            }
+            node.mPrevious = null;
+            node.mNext = null;
+        }
+
+        private void moveToLast(Node<T> node) {
+            if (node != mLast) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.wrdlbrnft.simpletasks.exceptions;
+
+/**
+ * The error of a {@link com.github.wrdlbrnft.simpletasks.tasks.Task} which was rejected
+ * because the queue of a {@link com.github.wrdlbrnft.simpletasks.runners.BoundedTaskRunner}
+ * was full.
+ */
+public class TaskRejectedException extends RuntimeException {
+
+    public TaskRejectedException(String message) {
+        super(message);
+    }
+
+    public TaskRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
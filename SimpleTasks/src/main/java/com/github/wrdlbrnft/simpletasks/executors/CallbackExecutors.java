@@ -0,0 +1,41 @@
+package com.github.wrdlbrnft.simpletasks.executors;
+
+import com.github.wrdlbrnft.simpletasks.utils.TaskUtils;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Factory methods for the {@link Executor Executors} most commonly used to deliver callbacks
+ * of {@link com.github.wrdlbrnft.simpletasks.tasks.Task Tasks}. Any other {@link Executor} can
+ * be used as well.
+ */
+public final class CallbackExecutors {
+
+    private static final Executor DIRECT = Runnable::run;
+    private static final Executor MAIN_THREAD = runnable -> TaskUtils.getMainThreadExecutor().execute(runnable);
+
+    private CallbackExecutors() {
+    }
+
+    /**
+     * Returns an {@link Executor} which runs callbacks directly on the thread which completed the
+     * {@link com.github.wrdlbrnft.simpletasks.tasks.Task}. This avoids any thread switch and does
+     * not require a {@link android.os.Looper}, but callbacks must be fast and thread safe.
+     *
+     * @return Returns an {@link Executor} which runs everything inline.
+     */
+    public static Executor direct() {
+        return DIRECT;
+    }
+
+    /**
+     * Returns an {@link Executor} which runs callbacks on the main thread. This is the default
+     * for all {@link com.github.wrdlbrnft.simpletasks.tasks.Task Tasks}. How the callbacks are
+     * posted depends on {@link TaskUtils#setCallbackDispatchMode(int)}.
+     *
+     * @return Returns an {@link Executor} which runs everything on the main thread.
+     */
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+}
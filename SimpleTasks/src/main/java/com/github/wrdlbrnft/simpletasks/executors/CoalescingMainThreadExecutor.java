@@ -0,0 +1,135 @@
+package com.github.wrdlbrnft.simpletasks.executors;
+
+import android.os.Handler;
+
+import com.github.wrdlbrnft.simpletasks.utils.TaskUtils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link Executor} which runs {@link Runnable Runnables} on the main thread, but instead of
+ * posting a separate message to the main {@link Handler} for each of them they are collected in a
+ * single queue. As long as the queue is not empty exactly one message is pending on the main
+ * thread, and when it runs it drains the queue in a single pass.
+ * <p>
+ * A pass stops after its time budget is used up. The remaining {@link Runnable Runnables} are
+ * then executed in a new pass in one of the next turns of the main looper, so a large burst
+ * of completed {@link com.github.wrdlbrnft.simpletasks.tasks.Task Tasks} cannot block the main
+ * thread for multiple frames.
+ */
+public class CoalescingMainThreadExecutor implements Executor {
+
+    /**
+     * Listener which is notified on the main thread after each pass of a
+     * {@link CoalescingMainThreadExecutor}.
+     */
+    public interface BatchListener {
+
+        /**
+         * Called after a pass of the {@link CoalescingMainThreadExecutor} has finished.
+         *
+         * @param batchSize      The number of {@link Runnable Runnables} executed in this pass.
+         * @param durationNanos  The time the pass took in nanoseconds.
+         * @param remainingCount The number of {@link Runnable Runnables} which were left for the next pass
+         *                       because the time budget was used up.
+         */
+        void onBatchDispatched(int batchSize, long durationNanos, int remainingCount);
+    }
+
+    /**
+     * The default time budget of a single pass. This is a quarter of a frame at 60 fps.
+     */
+    public static final long DEFAULT_TIME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(4L);
+
+    private static final CoalescingMainThreadExecutor INSTANCE = new CoalescingMainThreadExecutor(TaskUtils.MAIN_HANDLER);
+
+    /**
+     * Returns the shared {@link CoalescingMainThreadExecutor} instance. Sharing one instance
+     * makes sure that completions of all {@link com.github.wrdlbrnft.simpletasks.tasks.Task Tasks}
+     * end up in the same queue.
+     *
+     * @return Returns the shared {@link CoalescingMainThreadExecutor}.
+     */
+    public static CoalescingMainThreadExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    private final Queue<Runnable> mQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+    private final Runnable mDrainRunnable = this::drain;
+    private final Handler mHandler;
+
+    private volatile long mTimeBudgetNanos = DEFAULT_TIME_BUDGET_NANOS;
+    private volatile BatchListener mBatchListener;
+
+    CoalescingMainThreadExecutor(Handler handler) {
+        mHandler = handler;
+    }
+
+    /**
+     * Sets the maximum amount of time a single pass may take. If the budget is used up the
+     * pass ends even if more {@link Runnable Runnables} are queued.
+     *
+     * @param timeBudget The maximum duration of a pass.
+     * @param unit       The {@link TimeUnit} of the supplied duration.
+     */
+    public void setTimeBudget(long timeBudget, TimeUnit unit) {
+        mTimeBudgetNanos = unit.toNanos(timeBudget);
+    }
+
+    /**
+     * Sets a {@link BatchListener} which is notified after each pass. Can be used to find out
+     * how many callbacks are dispatched per pass. Supply {@code null} to remove the listener.
+     *
+     * @param listener The {@link BatchListener} or {@code null}.
+     */
+    public void setBatchListener(BatchListener listener) {
+        mBatchListener = listener;
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        mQueue.offer(runnable);
+        if (mScheduled.compareAndSet(false, true)) {
+            mHandler.post(mDrainRunnable);
+        }
+    }
+
+    private void drain() {
+        final long start = System.nanoTime();
+        final long budget = mTimeBudgetNanos;
+        int batchSize = 0;
+        try {
+            Runnable runnable;
+            while ((runnable = mQueue.poll()) != null) {
+                batchSize++;
+                runnable.run();
+                if (System.nanoTime() - start >= budget) {
+                    break;
+                }
+            }
+        } finally {
+            final long duration = System.nanoTime() - start;
+            if (mQueue.isEmpty()) {
+                mScheduled.set(false);
+
+                // Something might have been queued after the check above but before the flag
+                // was reset, in that case nobody else has scheduled a new pass.
+                if (!mQueue.isEmpty() && mScheduled.compareAndSet(false, true)) {
+                    mHandler.post(mDrainRunnable);
+                }
+            } else {
+                mHandler.post(mDrainRunnable);
+            }
+
+            final BatchListener listener = mBatchListener;
+            if (listener != null) {
+                listener.onBatchDispatched(batchSize, duration, mQueue.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.wrdlbrnft.simpletasks.managers;
+
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+import com.github.wrdlbrnft.simpletasks.tasks.StubTask;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.tasks.TaskHooks;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects keys loaded by a {@link TaskManager} and passes them to a {@link TaskManager.BatchWorker}
+ * in batches. A batch is performed as soon as it reaches the maximum batch size or once the batch
+ * window has passed since its first key was added, whichever comes first. Every key still gets its
+ * own {@link Task}.
+ * <p>
+ * Canceling the {@link Task} of a key removes the key from its batch. Keys which are canceled
+ * before the batch is executed are not passed to the {@link TaskManager.BatchWorker}, a batch
+ * without any keys left is skipped and a running batch is canceled once all its keys are canceled.
+ */
+class BatchLoader<K, T> {
+
+    private final TaskManager.BatchWorker<K, T> mWorker;
+    private final TaskRunner mTaskRunner;
+    private final long mWindowNanos;
+    private final int mMaxBatchSize;
+
+    private Map<K, StubTask<T>> mPendingBatch = new LinkedHashMap<>();
+    private TaskTimer.Timeout mPendingFlush;
+
+    BatchLoader(TaskManager.BatchWorker<K, T> worker, TaskRunner taskRunner, long windowNanos, int maxBatchSize) {
+        mWorker = worker;
+        mTaskRunner = taskRunner;
+        mWindowNanos = windowNanos;
+        mMaxBatchSize = maxBatchSize;
+    }
+
+    Task<T> load(K key) {
+        final StubTask<T> task;
+        Map<K, StubTask<T>> fullBatch = null;
+        boolean scheduleFlush = false;
+        synchronized (this) {
+            final StubTask<T> pendingTask = mPendingBatch.get(key);
+            if (pendingTask != null) {
+                return pendingTask;
+            }
+
+            task = StubTask.create();
+            task.deliverCallbacksOn(CallbackExecutors.direct());
+            mPendingBatch.put(key, task);
+            if (mPendingBatch.size() >= mMaxBatchSize) {
+                fullBatch = takeBatch();
+            } else if (mPendingBatch.size() == 1) {
+                scheduleFlush = true;
+            }
+        }
+
+        TaskHooks.whenStopped(task, () -> discard(key, task));
+
+        if (fullBatch != null) {
+            perform(fullBatch);
+        } else if (scheduleFlush) {
+            final TaskTimer.Timeout timeout = TaskTimer.schedule(this::flush, mWindowNanos, TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                if (mPendingBatch.get(key) == task) {
+                    mPendingFlush = timeout;
+                } else {
+                    timeout.cancel();
+                }
+            }
+        }
+        return task;
+    }
+
+    private void discard(K key, StubTask<T> task) {
+        synchronized (this) {
+            if (mPendingBatch.get(key) != task) {
+                return;
+            }
+
+            mPendingBatch.remove(key);
+            if (mPendingBatch.isEmpty() && mPendingFlush != null) {
+                mPendingFlush.cancel();
+                mPendingFlush = null;
+            }
+        }
+    }
+
+    private void flush() {
+        final Map<K, StubTask<T>> batch;
+        synchronized (this) {
+            batch = takeBatch();
+        }
+        perform(batch);
+    }
+
+    private Map<K, StubTask<T>> takeBatch() {
+        final Map<K, StubTask<T>> batch = mPendingBatch;
+        mPendingBatch = new LinkedHashMap<>();
+        if (mPendingFlush != null) {
+            mPendingFlush.cancel();
+            mPendingFlush = null;
+        }
+        return batch;
+    }
+
+    private void perform(Map<K, StubTask<T>> batch) {
+        final Set<K> keys = getPendingKeys(batch);
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        final Task<Map<K, T>> batchTask = mTaskRunner.queue(() -> {
+            // Keys may have been canceled while the batch was waiting for execution.
+            final Set<K> pendingKeys = getPendingKeys(batch);
+            return pendingKeys.isEmpty()
+                    ? null
+                    : mWorker.performAll(Collections.unmodifiableSet(pendingKeys));
+        });
+        batchTask.deliverCallbacksOn(CallbackExecutors.direct())
+                .onResult(results -> {
+                    for (K key : keys) {
+                        batch.get(key).notifyResult(results != null ? results.get(key) : null);
+                    }
+                })
+                .onError(exception -> {
+                    for (K key : keys) {
+                        batch.get(key).notifyError(exception);
+                    }
+                })
+                .onCanceled(() -> {
+                    for (K key : keys) {
+                        batch.get(key).cancel();
+                    }
+                });
+
+        final AtomicInteger remaining = new AtomicInteger(keys.size());
+        for (K key : keys) {
+            TaskHooks.whenStopped(batch.get(key), () -> {
+                if (remaining.decrementAndGet() == 0) {
+                    batchTask.cancel();
+                }
+            });
+        }
+    }
+
+    private Set<K> getPendingKeys(Map<K, StubTask<T>> batch) {
+        final Set<K> keys = new LinkedHashSet<>();
+        for (Map.Entry<K, StubTask<T>> entry : batch.entrySet()) {
+            if (!entry.getValue().isDone()) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.wrdlbrnft.simpletasks.managers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Describes how a {@link TaskManager} retries a failed {@link TaskManager.Worker}. After a failed
+ * attempt the load is retried if attempts are left and the exception is classified as retryable.
+ * The delay before a retry grows exponentially from the initial delay up to the maximum delay.
+ * Jitter randomly shortens each delay so clients which failed at the same time do not retry at
+ * the same time. Example:
+ * <pre>
+ *     RetryPolicy policy = RetryPolicy.builder()
+ *             .maxAttempts(5)
+ *             .backoff(200, TimeUnit.MILLISECONDS)
+ *             .maxDelay(10, TimeUnit.SECONDS)
+ *             .retryOn(IOException.class)
+ *             .build();
+ * </pre>
+ */
+public final class RetryPolicy {
+
+    /**
+     * Decides whether a failed attempt may be retried.
+     */
+    public interface Classifier {
+
+        /**
+         * Returns whether the attempt which failed with the supplied exception may be retried.
+         *
+         * @param exception The exception thrown by the attempt.
+         * @return Returns {@code true} if the attempt may be retried.
+         */
+        boolean isRetryable(Throwable exception);
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final int mMaxAttempts;
+    private final long mInitialDelayNanos;
+    private final double mMultiplier;
+    private final long mMaxDelayNanos;
+    private final double mJitter;
+    private final Classifier mClassifier;
+    private final AtomicLong mSeed = new AtomicLong(System.nanoTime());
+
+    private RetryPolicy(Builder builder) {
+        mMaxAttempts = builder.mMaxAttempts;
+        mInitialDelayNanos = builder.mInitialDelayNanos;
+        mMultiplier = builder.mMultiplier;
+        mMaxDelayNanos = builder.mMaxDelayNanos;
+        mJitter = builder.mJitter;
+        mClassifier = builder.mClassifier;
+    }
+
+    /**
+     * Creates a {@link Builder} used to construct a new {@link RetryPolicy}.
+     *
+     * @return Returns a new {@link Builder} instance.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the maximum number of attempts, including the first one.
+     *
+     * @return Returns the maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    boolean shouldRetry(Throwable exception, int attempt) {
+        return attempt < mMaxAttempts && mClassifier.isRetryable(exception);
+    }
+
+    /**
+     * Returns the delay in nanoseconds before the attempt following the supplied failed attempt.
+     */
+    long getDelayNanos(int failedAttempt) {
+        final double exponential = mInitialDelayNanos * Math.pow(mMultiplier, failedAttempt - 1);
+        final long delay = exponential >= mMaxDelayNanos ? mMaxDelayNanos : (long) exponential;
+        return delay - (long) (delay * mJitter * nextRandom());
+    }
+
+    private double nextRandom() {
+        // SplitMix64 on a shared seed, lock-free and good enough to spread retries.
+        long z = mSeed.addAndGet(GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Used to construct new {@link RetryPolicy} instances.
+     */
+    public static final class Builder {
+
+        private int mMaxAttempts = 3;
+        private long mInitialDelayNanos = TimeUnit.MILLISECONDS.toNanos(100L);
+        private double mMultiplier = 2.0;
+        private long mMaxDelayNanos = TimeUnit.SECONDS.toNanos(30L);
+        private double mJitter = 0.5;
+        private Classifier mClassifier = exception -> exception instanceof Exception;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of attempts, including the first one. Defaults to 3.
+         *
+         * @param maxAttempts The maximum number of attempts.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("Max attempts must be at least 1 but was " + maxAttempts);
+            }
+            mMaxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first retry. Defaults to 100 milliseconds.
+         *
+         * @param initialDelay The delay before the first retry.
+         * @param unit         The {@link TimeUnit} of the delay.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder backoff(long initialDelay, TimeUnit unit) {
+            if (initialDelay < 0L) {
+                throw new IllegalArgumentException("Initial delay must not be negative but was " + initialDelay);
+            }
+            mInitialDelayNanos = unit.toNanos(initialDelay);
+            return this;
+        }
+
+        /**
+         * Sets the factor by which the delay grows with every retry. Defaults to 2.
+         *
+         * @param multiplier The factor applied to the delay after every retry.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder multiplier(double multiplier) {
+            if (!(multiplier >= 1.0)) {
+                throw new IllegalArgumentException("Multiplier must be at least 1.0 but was " + multiplier);
+            }
+            mMultiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Sets the maximum delay between two attempts. Defaults to 30 seconds.
+         *
+         * @param maxDelay The maximum delay.
+         * @param unit     The {@link TimeUnit} of the delay.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder maxDelay(long maxDelay, TimeUnit unit) {
+            if (maxDelay < 0L) {
+                throw new IllegalArgumentException("Max delay must not be negative but was " + maxDelay);
+            }
+            mMaxDelayNanos = unit.toNanos(maxDelay);
+            return this;
+        }
+
+        /**
+         * Sets by which fraction each delay may be randomly shortened. {@code 0.0} disables
+         * jitter, {@code 1.0} picks any delay between zero and the exponential delay.
+         * Defaults to 0.5.
+         *
+         * @param jitter The jitter between {@code 0.0} and {@code 1.0}.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder jitter(double jitter) {
+            if (!(jitter >= 0.0 && jitter <= 1.0)) {
+                throw new IllegalArgumentException("Jitter must be between 0.0 and 1.0 but was " + jitter);
+            }
+            mJitter = jitter;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Classifier} which decides which exceptions may be retried. By default
+         * all {@link Exception Exceptions} are retried, but no {@link Error Errors}.
+         *
+         * @param classifier The {@link Classifier}.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder retryIf(Classifier classifier) {
+            mClassifier = classifier;
+            return this;
+        }
+
+        /**
+         * Only retries exceptions which are instances of one of the supplied types.
+         *
+         * @param types The types of exceptions which may be retried.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        @SafeVarargs
+        public final Builder retryOn(Class<? extends Throwable>... types) {
+            final Class<? extends Throwable>[] retryableTypes = types.clone();
+            mClassifier = exception -> {
+                for (Class<? extends Throwable> type : retryableTypes) {
+                    if (type.isInstance(exception)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+            return this;
+        }
+
+        /**
+         * Creates a new {@link RetryPolicy} with the options set on this {@link Builder}.
+         *
+         * @return Returns a new {@link RetryPolicy}.
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
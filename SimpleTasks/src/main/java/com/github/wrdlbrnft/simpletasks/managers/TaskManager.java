@@ -4,7 +4,11 @@ import com.github.wrdlbrnft.simpletasks.caches.Cache;
 import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
 import com.github.wrdlbrnft.simpletasks.tasks.Task;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created with Android Studio<br>
@@ -73,6 +77,28 @@ public interface TaskManager<K, T> {
         T perform(K value);
     }
 
+    /**
+     * This interface can be used in place of a {@link Worker} if results can be loaded more
+     * efficiently for many keys at once - for example with a single request to a backend or a
+     * single database query. Keys queued in the {@link TaskManager} within the batch window are
+     * collected and passed to the {@link BatchWorker} together. Each caller still gets its own
+     * {@link Task} for its key, and caching as well as de-duplication still work per key.
+     *
+     * @param <K> The type of the inputs passed to the {@link BatchWorker} instance.
+     * @param <T> The type of the results produced by the {@link BatchWorker} instance.
+     */
+    interface BatchWorker<K, T> {
+
+        /**
+         * Loads the results for all supplied keys. Keys which are missing in the returned
+         * {@link Map} yield {@code null}.
+         *
+         * @param keys The keys whose results should be loaded.
+         * @return Returns a {@link Map} with the result for each key.
+         */
+        Map<K, T> performAll(Set<K> keys);
+    }
+
     /**
      * This class is used to construct new {@link TaskManager} instances.
      *
@@ -112,6 +138,83 @@ public interface TaskManager<K, T> {
          */
         Builder<K, T> onModification(ModificationCallback<K, T> callback);
 
+        /**
+         * With this method you can set the {@link Executor} on which the callbacks of all
+         * {@link Task Tasks} returned by the {@link TaskManager} are executed. This includes the
+         * {@link ModificationCallback}. If no {@link Executor} is set then callbacks are executed
+         * on the applications main thread.
+         *
+         * @param executor The {@link Executor} used to execute callbacks.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         * @see Task#deliverCallbacksOn(Executor)
+         */
+        Builder<K, T> deliverCallbacksOn(Executor executor);
+
+        /**
+         * Sets how long a {@link TaskManager} created with a {@link BatchWorker} collects keys
+         * before it performs a batch. The window starts when the first key is added to a new batch.
+         * Ignored if the {@link TaskManager} uses a {@link Worker}.
+         *
+         * @param window The duration of the batch window.
+         * @param unit   The {@link TimeUnit} of the batch window.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        Builder<K, T> batchWindow(long window, TimeUnit unit);
+
+        /**
+         * Sets the maximum number of keys a {@link TaskManager} created with a {@link BatchWorker}
+         * passes to the {@link BatchWorker} at once. A batch which reaches this size is performed
+         * immediately without waiting for the end of the batch window. Ignored if the
+         * {@link TaskManager} uses a {@link Worker}.
+         *
+         * @param maxBatchSize The maximum number of keys in a batch.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        Builder<K, T> maxBatchSize(int maxBatchSize);
+
+        /**
+         * Enables refresh-ahead. When {@link TaskManager#queue(Object)} finds a cached value which
+         * is older than the refresh interval the cached value is returned immediately and a single
+         * reload of the key is started in the background. The reload shares the in-flight
+         * {@link Task} with concurrent calls to {@link TaskManager#queue(Object)} for that key and
+         * replaces the cached value once it succeeds.
+         * <p>
+         * Requires a {@link Cache} which reports the age of its entries, like
+         * {@link com.github.wrdlbrnft.simpletasks.caches.MapCache}. Combined with a time to live
+         * on the {@link Cache} which is longer than the refresh interval this serves stale values
+         * while they are revalidated, entries older than the time to live are treated as missing.
+         *
+         * @param interval The age after which a cached value is refreshed.
+         * @param unit     The {@link TimeUnit} of the refresh interval.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        Builder<K, T> refreshAfterWrite(long interval, TimeUnit unit);
+
+        /**
+         * Retries failed loads according to the supplied {@link RetryPolicy}. Retries are
+         * scheduled on a timer after the backoff delay, no thread is blocked while waiting. The
+         * in-flight {@link Task} stays registered for its key until the last attempt completes,
+         * so calls to {@link TaskManager#queue(Object)} during a retry receive the same
+         * {@link Task} instead of starting another load. Only the final result or failure is
+         * delivered to the callbacks. Canceling the {@link Task} stops any further retries.
+         *
+         * @param policy The {@link RetryPolicy} applied to failed loads.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        Builder<K, T> retry(RetryPolicy policy);
+
+        /**
+         * By default a load is canceled and its {@link Worker} interrupted once every consumer
+         * which attached its callbacks with a {@link android.arch.lifecycle.Lifecycle} has been
+         * destroyed and no other consumer is interested in the result, see
+         * {@link Task#cancelWhenOrphaned()}. Calling this method keeps such loads running, so
+         * their results still end up in the {@link Cache} and are passed to the
+         * {@link ModificationCallback}.
+         *
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        Builder<K, T> keepOrphanedLoads();
+
         /**
          * Creates a new {@link TaskManager} instance with the options set on this {@link Builder}.
          *
@@ -147,6 +250,24 @@ public interface TaskManager<K, T> {
      */
     void clearCache();
 
+    /**
+     * Returns a snapshot of the statistics of this {@link TaskManager}. The statistics of the
+     * {@link Cache} itself are available from {@link Cache#getStats()}.
+     *
+     * @return Returns the {@link TaskManagerStats} of this {@link TaskManager}.
+     */
+    TaskManagerStats getStats();
+
+    /**
+     * Returns a snapshot of the statistics of this {@link TaskManager} and resets them. The values
+     * are reset one after another, so the snapshot is only weakly consistent: requests and loads
+     * which happen concurrently are counted in either the returned or the next snapshot, and the
+     * counts of a single load may be split between the two.
+     *
+     * @return Returns the {@link TaskManagerStats} of this {@link TaskManager} before the reset.
+     */
+    TaskManagerStats getStatsAndReset();
+
     /**
      * Creates a {@link Builder} instance used to construct new {@link TaskManager TaskManagers}.
      * <p>
@@ -159,6 +280,23 @@ public interface TaskManager<K, T> {
      * @return Returns a {@link Builder} instance which can be used to construct a new {@link TaskManager}.
      */
     static <K, T> Builder<K, T> with(Worker<K, T> worker) {
-        return new TaskManagerBuilderImpl<>(worker);
+        return new TaskManagerBuilderImpl<>(worker, null);
+    }
+
+    /**
+     * Creates a {@link Builder} instance used to construct new {@link TaskManager TaskManagers}
+     * which load their results in batches.
+     * <p>
+     * Keys queued within the batch window - see {@link Builder#batchWindow(long, TimeUnit)} - are
+     * passed to the supplied {@link BatchWorker} together, up to the maximum batch size set with
+     * {@link Builder#maxBatchSize(int)}.
+     *
+     * @param worker The {@link BatchWorker} instance used to perform the work in the {@link TaskManager}.
+     * @param <K>    Type of input data for the {@link TaskManager}.
+     * @param <T>    Type of the result produced by the {@link TaskManager}
+     * @return Returns a {@link Builder} instance which can be used to construct a new {@link TaskManager}.
+     */
+    static <K, T> Builder<K, T> withBatches(BatchWorker<K, T> worker) {
+        return new TaskManagerBuilderImpl<>(null, worker);
     }
 }
@@ -3,6 +3,9 @@ package com.github.wrdlbrnft.simpletasks.managers;
 import com.github.wrdlbrnft.simpletasks.caches.Cache;
 import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created with Android Studio<br>
  * User: Xaver<br>
@@ -11,14 +14,25 @@ import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
 
 class TaskManagerBuilderImpl<K, T> implements TaskManager.Builder<K, T> {
 
+    private static final long DEFAULT_BATCH_WINDOW_MILLIS = 10L;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
     private final TaskManager.Worker<K, T> mWorker;
+    private final TaskManager.BatchWorker<K, T> mBatchWorker;
 
     private Cache<K, T> mCache;
     private TaskRunner mTaskRunner;
     private TaskManager.ModificationCallback<K, T> mModificationCallback;
+    private Executor mCallbackExecutor;
+    private long mBatchWindowNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BATCH_WINDOW_MILLIS);
+    private int mMaxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private long mRefreshAfterNanos = Long.MAX_VALUE;
+    private RetryPolicy mRetryPolicy;
+    private boolean mCancelOrphanedLoads = true;
 
-    TaskManagerBuilderImpl(TaskManager.Worker<K, T> worker) {
+    TaskManagerBuilderImpl(TaskManager.Worker<K, T> worker, TaskManager.BatchWorker<K, T> batchWorker) {
         mWorker = worker;
+        mBatchWorker = batchWorker;
     }
 
     @Override
@@ -39,13 +53,66 @@ class TaskManagerBuilderImpl<K, T> implements TaskManager.Builder<K, T> {
         return this;
     }
 
+    @Override
+    public TaskManager.Builder<K, T> deliverCallbacksOn(Executor executor) {
+        mCallbackExecutor = executor;
+        return this;
+    }
+
+    @Override
+    public TaskManager.Builder<K, T> batchWindow(long window, TimeUnit unit) {
+        if (window < 0L) {
+            throw new IllegalArgumentException("Batch window must not be negative but was " + window);
+        }
+        mBatchWindowNanos = unit.toNanos(window);
+        return this;
+    }
+
+    @Override
+    public TaskManager.Builder<K, T> maxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be at least 1 but was " + maxBatchSize);
+        }
+        mMaxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    @Override
+    public TaskManager.Builder<K, T> refreshAfterWrite(long interval, TimeUnit unit) {
+        if (interval <= 0L) {
+            throw new IllegalArgumentException("Refresh interval must be positive but was " + interval);
+        }
+        mRefreshAfterNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    @Override
+    public TaskManager.Builder<K, T> retry(RetryPolicy policy) {
+        mRetryPolicy = policy;
+        return this;
+    }
+
+    @Override
+    public TaskManager.Builder<K, T> keepOrphanedLoads() {
+        mCancelOrphanedLoads = false;
+        return this;
+    }
+
     @Override
     public TaskManager<K, T> build() {
+        final BatchLoader<K, T> batchLoader = mBatchWorker != null
+                ? new BatchLoader<>(mBatchWorker, mTaskRunner, mBatchWindowNanos, mMaxBatchSize)
+                : null;
         return new TaskManagerImpl<>(
                 mWorker,
+                batchLoader,
                 mTaskRunner,
                 mCache,
-                mModificationCallback
+                mModificationCallback,
+                mCallbackExecutor,
+                mRefreshAfterNanos,
+                mRetryPolicy,
+                mCancelOrphanedLoads
         );
     }
 }
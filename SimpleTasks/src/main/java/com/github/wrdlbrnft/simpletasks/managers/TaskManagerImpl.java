@@ -1,98 +1,309 @@
 package com.github.wrdlbrnft.simpletasks.managers;
 
-import android.support.v4.util.ArrayMap;
-
 import com.github.wrdlbrnft.simpletasks.caches.Cache;
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
 import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+import com.github.wrdlbrnft.simpletasks.tasks.StubTask;
 import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.utils.LatencyHistogram;
+import com.github.wrdlbrnft.simpletasks.utils.StripedCounter;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created with Android Studio<br>
  * User: Xaver<br>
  * Date: 24/02/2018
+ * <p>
+ * In-flight {@link Task Tasks} are kept in a {@link ConcurrentMap}. A key is claimed by atomically
+ * inserting a not yet started {@link StubTask}, only the thread which wins the claim queues the
+ * {@link Worker}. The claim is released with a conditional remove once the {@link Worker} has
+ * completed, so a newer claim for the same key is never removed by accident.
+ * <p>
+ * With refresh-ahead enabled a cached value older than the refresh interval is returned right
+ * away and a reload is claimed through the same map, so concurrent refreshes and misses for the
+ * same key share a single load.
+ * <p>
+ * With a {@link RetryPolicy} a failed attempt schedules the next one on the {@link TaskTimer}
+ * while the claimed {@link StubTask} stays in the map, so requests arriving during the backoff
+ * join the pending load.
+ * <p>
+ * Unless orphaned loads are kept the claimed {@link StubTask} is canceled once every
+ * lifecycle bound consumer is gone, see {@link Task#cancelWhenOrphaned()}. The modification
+ * callback is therefore attached to the load itself, so it does not count as a consumer.
  */
-
 class TaskManagerImpl<K, T> implements TaskManager<K, T> {
 
-    private final Map<K, Task<T>> mTaskMap = new ArrayMap<>();
+    private static final Object NULL_KEY = new Object();
+
+    private final ConcurrentMap<Object, Task<T>> mTaskMap = new ConcurrentHashMap<>();
 
     private final Worker<K, T> mWorker;
+    private final BatchLoader<K, T> mBatchLoader;
     private final TaskRunner mTaskRunner;
     private final Cache<K, T> mCache;
     private final ModificationCallback<K, T> mModificationCallback;
+    private final Executor mCallbackExecutor;
+    private final long mRefreshAfterNanos;
+    private final RetryPolicy mRetryPolicy;
+    private final boolean mCancelOrphanedLoads;
 
-    TaskManagerImpl(Worker<K, T> worker, TaskRunner taskRunner, Cache<K, T> cache, ModificationCallback<K, T> modificationCallback) {
+    private final StripedCounter mHitCount = new StripedCounter();
+    private final StripedCounter mDeduplicatedCount = new StripedCounter();
+    private final StripedCounter mMissCount = new StripedCounter();
+    private final StripedCounter mRefreshCount = new StripedCounter();
+    private final StripedCounter mLoadSuccessCount = new StripedCounter();
+    private final StripedCounter mLoadFailureCount = new StripedCounter();
+    private final StripedCounter mRetryCount = new StripedCounter();
+    private final LatencyHistogram mLoadLatency = new LatencyHistogram();
+
+    TaskManagerImpl(Worker<K, T> worker, BatchLoader<K, T> batchLoader, TaskRunner taskRunner, Cache<K, T> cache, ModificationCallback<K, T> modificationCallback, Executor callbackExecutor, long refreshAfterNanos, RetryPolicy retryPolicy, boolean cancelOrphanedLoads) {
         mWorker = worker;
+        mBatchLoader = batchLoader;
         mTaskRunner = taskRunner;
         mCache = cache;
         mModificationCallback = modificationCallback;
+        mCallbackExecutor = callbackExecutor;
+        mRefreshAfterNanos = refreshAfterNanos;
+        mRetryPolicy = retryPolicy;
+        mCancelOrphanedLoads = cancelOrphanedLoads;
     }
 
     @Override
     public Task<T> queue(K key) {
-        synchronized (mTaskMap) {
-            if (mCache != null) {
-                final T cachedValue = mCache.get(key);
-                if (cachedValue != null) {
-                    return Task.withResult(cachedValue);
-                }
+        final T cachedValue = getCachedValue(key);
+        if (cachedValue != null) {
+            mHitCount.increment();
+            if (needsRefresh(key)) {
+                claim(key, true);
             }
+            return Task.withResult(cachedValue, mCallbackExecutor);
+        }
 
-            final Task<T> cachedTask = mTaskMap.get(key);
-            if (cachedTask != null) {
-                return cachedTask;
+        return claim(key, false);
+    }
+
+    private Task<T> claim(K key, boolean refresh) {
+        final Object mapKey = maskNull(key);
+        final Task<T> runningTask = mTaskMap.get(mapKey);
+        if (runningTask != null) {
+            if (!refresh) {
+                mDeduplicatedCount.increment();
             }
+            return runningTask;
+        }
+
+        final StubTask<T> task = StubTask.create();
+        withCallbackExecutor(task);
+        if (mCancelOrphanedLoads) {
+            task.cancelWhenOrphaned();
+        }
+        final Task<T> claimedTask = mTaskMap.putIfAbsent(mapKey, task);
+        if (claimedTask != null) {
+            if (!refresh) {
+                mDeduplicatedCount.increment();
+            }
+            return claimedTask;
+        }
+
+        // Another thread may have finished loading this key between the cache lookup above and
+        // the claim, in that case the cached value is still good. A refresh has to load anyway.
+        if (!refresh) {
+            final T loadedValue = getCachedValue(key);
+            if (loadedValue != null) {
+                mHitCount.increment();
+                task.notifyResult(loadedValue);
+                mTaskMap.remove(mapKey, task);
+                return task;
+            }
+        }
+
+        if (refresh) {
+            mRefreshCount.increment();
+        } else {
+            mMissCount.increment();
+        }
 
-            final Task<T> task = mTaskRunner.queue(() -> mWorker.perform(key)).onResult(result -> {
-                synchronized (mTaskMap) {
+        final long loadStart = System.nanoTime();
+        final Task<T> workerTask = loadWithRetries(key)
+                .onResult(result -> {
+                    mLoadSuccessCount.increment();
+                    mLoadLatency.recordNanos(System.nanoTime() - loadStart);
                     try {
-                        if (result == null) {
-                            return;
-                        }
-                        if (mCache != null) {
+                        if (result != null && mCache != null && mTaskMap.get(mapKey) == task) {
                             mCache.put(key, result);
                         }
-
-                        if (mModificationCallback != null) {
-                            mModificationCallback.onModification(key, result);
-                        }
                     } finally {
-                        mTaskMap.remove(key);
+                        mTaskMap.remove(mapKey, task);
+                    }
+                    if (result != null && mModificationCallback != null) {
+                        getCallbackExecutor().execute(() -> mModificationCallback.onModification(key, result));
                     }
-                }
-            }).onError(exception -> {
-                synchronized (mTaskMap) {
-                    mTaskMap.remove(key);
-                }
-            }).onCanceled(() -> {
-                synchronized (mTaskMap) {
-                    mTaskMap.remove(key);
-                }
-            });
-            mTaskMap.put(key, task);
-            return task;
+                })
+                .onError(exception -> {
+                    mLoadFailureCount.increment();
+                    mLoadLatency.recordNanos(System.nanoTime() - loadStart);
+                    mTaskMap.remove(mapKey, task);
+                })
+                .onCanceled(() -> mTaskMap.remove(mapKey, task));
+        task.notifyFrom(workerTask);
+        return task;
+    }
+
+    private Task<T> loadWithRetries(K key) {
+        if (mRetryPolicy == null) {
+            return load(key);
+        }
+        return new RetryingLoad(key).start();
+    }
+
+    private Task<T> load(K key) {
+        if (mBatchLoader != null) {
+            return mBatchLoader.load(key);
+        }
+        return mTaskRunner.queue(() -> mWorker.perform(key))
+                .deliverCallbacksOn(CallbackExecutors.direct());
+    }
+
+    private boolean needsRefresh(K key) {
+        if (mRefreshAfterNanos == Long.MAX_VALUE) {
+            return false;
+        }
+        final long age = mCache.getAge(key, TimeUnit.NANOSECONDS);
+        return age != Cache.AGE_UNKNOWN && age >= mRefreshAfterNanos;
+    }
+
+    private T getCachedValue(K key) {
+        if (mCache == null) {
+            return null;
+        }
+        return mCache.get(key);
+    }
+
+    private Executor getCallbackExecutor() {
+        return mCallbackExecutor != null ? mCallbackExecutor : CallbackExecutors.mainThread();
+    }
+
+    private Task<T> withCallbackExecutor(Task<T> task) {
+        if (mCallbackExecutor != null) {
+            return task.deliverCallbacksOn(mCallbackExecutor);
         }
+        return task;
     }
 
     @Override
     public void invalidateCache(K id) {
-        synchronized (mTaskMap) {
-            if (mCache != null) {
-                mCache.evict(id);
-            }
-            mTaskMap.remove(id);
+        if (mCache != null) {
+            mCache.evict(id);
         }
+        mTaskMap.remove(maskNull(id));
     }
 
     @Override
     public void clearCache() {
-        synchronized (mTaskMap) {
-            if (mCache != null) {
-                mCache.clear();
+        if (mCache != null) {
+            mCache.clear();
+        }
+        mTaskMap.clear();
+    }
+
+    @Override
+    public TaskManagerStats getStats() {
+        return new TaskManagerStats(
+                mHitCount.sum(),
+                mDeduplicatedCount.sum(),
+                mMissCount.sum(),
+                mRefreshCount.sum(),
+                mLoadSuccessCount.sum(),
+                mLoadFailureCount.sum(),
+                mRetryCount.sum(),
+                mLoadLatency.snapshot()
+        );
+    }
+
+    @Override
+    public TaskManagerStats getStatsAndReset() {
+        return new TaskManagerStats(
+                mHitCount.sumThenReset(),
+                mDeduplicatedCount.sumThenReset(),
+                mMissCount.sumThenReset(),
+                mRefreshCount.sumThenReset(),
+                mLoadSuccessCount.sumThenReset(),
+                mLoadFailureCount.sumThenReset(),
+                mRetryCount.sumThenReset(),
+                mLoadLatency.snapshotAndReset()
+        );
+    }
+
+    private final class RetryingLoad {
+
+        private final K mKey;
+        private final StubTask<T> mTask = StubTask.create();
+
+        private volatile Task<T> mAttemptTask;
+        private volatile TaskTimer.Timeout mRetryTimeout;
+        private int mAttempt;
+
+        private RetryingLoad(K key) {
+            mKey = key;
+            mTask.deliverCallbacksOn(CallbackExecutors.direct());
+        }
+
+        private Task<T> start() {
+            // The claimed StubTask cancels this Task through notifyFrom(), stop retrying then.
+            mTask.onCanceled(this::cancelAttempt);
+            attempt();
+            return mTask;
+        }
+
+        private void attempt() {
+            if (mTask.isDone()) {
+                return;
+            }
+            mAttempt++;
+            final Task<T> attemptTask = load(mKey)
+                    .onResult(mTask::notifyResult)
+                    .onError(this::onAttemptFailed)
+                    .onCanceled(mTask::cancel);
+            mAttemptTask = attemptTask;
+            if (mTask.isDone()) {
+                attemptTask.cancel();
+            }
+        }
+
+        private void onAttemptFailed(Throwable exception) {
+            if (mTask.isDone()) {
+                return;
+            }
+            if (!mRetryPolicy.shouldRetry(exception, mAttempt)) {
+                mTask.notifyError(exception);
+                return;
+            }
+            mRetryCount.increment();
+            final TaskTimer.Timeout timeout = TaskTimer.schedule(this::attempt, mRetryPolicy.getDelayNanos(mAttempt), TimeUnit.NANOSECONDS);
+            mRetryTimeout = timeout;
+            if (mTask.isDone()) {
+                timeout.cancel();
+            }
+        }
+
+        private void cancelAttempt() {
+            final TaskTimer.Timeout timeout = mRetryTimeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            final Task<T> attemptTask = mAttemptTask;
+            if (attemptTask != null) {
+                attemptTask.cancel();
             }
-            mTaskMap.clear();
         }
     }
+
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
 }
@@ -0,0 +1,140 @@
+package com.github.wrdlbrnft.simpletasks.managers;
+
+import com.github.wrdlbrnft.simpletasks.utils.LatencyHistogram;
+
+/**
+ * An immutable snapshot of the statistics of a {@link TaskManager}, returned by
+ * {@link TaskManager#getStats()} and {@link TaskManager#getStatsAndReset()}. Every call to
+ * {@link TaskManager#queue(Object)} is counted exactly once as a hit, a deduplicated request or
+ * a miss.
+ */
+public final class TaskManagerStats {
+
+    private final long mHitCount;
+    private final long mDeduplicatedCount;
+    private final long mMissCount;
+    private final long mRefreshCount;
+    private final long mLoadSuccessCount;
+    private final long mLoadFailureCount;
+    private final long mRetryCount;
+    private final LatencyHistogram.Snapshot mLoadLatency;
+
+    TaskManagerStats(long hitCount, long deduplicatedCount, long missCount, long refreshCount, long loadSuccessCount, long loadFailureCount, long retryCount, LatencyHistogram.Snapshot loadLatency) {
+        mHitCount = hitCount;
+        mDeduplicatedCount = deduplicatedCount;
+        mMissCount = missCount;
+        mRefreshCount = refreshCount;
+        mLoadSuccessCount = loadSuccessCount;
+        mLoadFailureCount = loadFailureCount;
+        mRetryCount = retryCount;
+        mLoadLatency = loadLatency;
+    }
+
+    /**
+     * Returns the number of requests which were answered from the cache.
+     *
+     * @return Returns the number of cache hits.
+     */
+    public long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of requests which received the {@link com.github.wrdlbrnft.simpletasks.tasks.Task}
+     * of a load which was already in flight for the same key.
+     *
+     * @return Returns the number of deduplicated requests.
+     */
+    public long getDeduplicatedCount() {
+        return mDeduplicatedCount;
+    }
+
+    /**
+     * Returns the number of requests which started a new load.
+     *
+     * @return Returns the number of misses.
+     */
+    public long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the total number of requests.
+     *
+     * @return Returns the number of hits, deduplicated requests and misses.
+     */
+    public long getRequestCount() {
+        return mHitCount + mDeduplicatedCount + mMissCount;
+    }
+
+    /**
+     * Returns the fraction of requests which were answered from the cache.
+     *
+     * @return Returns the hit rate or {@code 1.0} if there were no requests.
+     */
+    public double getHitRate() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0L ? 1.0 : (double) mHitCount / requestCount;
+    }
+
+    /**
+     * Returns the number of background reloads started by refresh-ahead. These are not counted
+     * as misses, the request which triggered them is counted as a hit.
+     *
+     * @return Returns the number of refreshes.
+     */
+    public long getRefreshCount() {
+        return mRefreshCount;
+    }
+
+    /**
+     * Returns the number of loads, including refreshes, which produced a result.
+     *
+     * @return Returns the number of successful loads.
+     */
+    public long getLoadSuccessCount() {
+        return mLoadSuccessCount;
+    }
+
+    /**
+     * Returns the number of loads, including refreshes, which failed with an exception.
+     *
+     * @return Returns the number of failed loads.
+     */
+    public long getLoadFailureCount() {
+        return mLoadFailureCount;
+    }
+
+    /**
+     * Returns the number of retries scheduled by the {@link RetryPolicy}. A load which succeeds
+     * or fails after retries is counted only once as a successful or failed load.
+     *
+     * @return Returns the number of retries.
+     */
+    public long getRetryCount() {
+        return mRetryCount;
+    }
+
+    /**
+     * Returns the durations of all successful and failed loads.
+     *
+     * @return Returns a {@link LatencyHistogram.Snapshot} of the load durations.
+     */
+    public LatencyHistogram.Snapshot getLoadLatency() {
+        return mLoadLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskManagerStats{" +
+                "hitCount=" + mHitCount +
+                ", deduplicatedCount=" + mDeduplicatedCount +
+                ", missCount=" + mMissCount +
+                ", refreshCount=" + mRefreshCount +
+                ", loadSuccessCount=" + mLoadSuccessCount +
+                ", loadFailureCount=" + mLoadFailureCount +
+                ", retryCount=" + mRetryCount +
+                ", loadCount=" + mLoadLatency.getCount() +
+                '}';
+    }
+}
@@ -20,18 +20,27 @@ public abstract class BaseTaskRunner implements TaskRunner {
 
     private final Queue<Runnable> mTaskQueue = new ArrayDeque<>();
     private int mState = STATE_RUNNING;
+    private RunnerInstrumentation mInstrumentation;
 
     @Override
     public final synchronized <T> Task<T> queue(Callable<T> callable) {
         final Task<T> task = Task.from(callable);
+        final Runnable runnable = mInstrumentation != null
+                ? QueuedTask.create(task, mInstrumentation)
+                : task.asRunnable();
         if (mState == STATE_RUNNING) {
-            executeTask(task.asRunnable());
+            executeTask(runnable);
         } else {
-            mTaskQueue.add(task.asRunnable());
+            mTaskQueue.add(runnable);
         }
         return task;
     }
 
+    @Override
+    public final synchronized void setInstrumentation(RunnerInstrumentation instrumentation) {
+        mInstrumentation = instrumentation;
+    }
+
     protected abstract void executeTask(Runnable runnable);
 
     @Override
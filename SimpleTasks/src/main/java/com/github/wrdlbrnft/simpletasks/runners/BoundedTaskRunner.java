@@ -0,0 +1,315 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskRejectedException;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.tasks.TaskHooks;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TaskRunner} implementation which limits how many {@link Task Tasks} are executed at the
+ * same time and how many may wait for execution. {@link Task Tasks} which cannot be executed right
+ * away are kept in a bounded queue. When that queue is full the configured policy decides what
+ * happens to a newly queued {@link Task}:
+ * <table summary="">
+ * <tr>
+ * <th>Policy</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>{@link BoundedTaskRunner#POLICY_REJECT}</td>
+ * <td>The returned {@link Task} fails immediately with a {@link TaskRejectedException}.</td>
+ * </tr>
+ * <tr>
+ * <td>{@link BoundedTaskRunner#POLICY_DROP_OLDEST}</td>
+ * <td>The oldest waiting {@link Task} is canceled to make room for the new one.</td>
+ * </tr>
+ * <tr>
+ * <td>{@link BoundedTaskRunner#POLICY_CALLER_RUNS}</td>
+ * <td>The new {@link Task} is executed on the thread which queued it.</td>
+ * </tr>
+ * <tr>
+ * <td>{@link BoundedTaskRunner#POLICY_BLOCK}</td>
+ * <td>
+ * The thread which queued the {@link Task} waits until there is room in the queue. If the
+ * block timeout is reached first the returned {@link Task} fails with a {@link TaskRejectedException}.
+ * </td>
+ * </tr>
+ * </table>
+ * While the {@link BoundedTaskRunner} is stopped {@link BoundedTaskRunner#POLICY_CALLER_RUNS} behaves
+ * like {@link BoundedTaskRunner#POLICY_REJECT}, since no {@link Task} may be executed.
+ * <p>
+ * A waiting {@link Task} which is canceled or times out is removed from the queue right away and
+ * frees its place for the next one.
+ */
+public class BoundedTaskRunner implements TaskRunner {
+
+    public static final int POLICY_REJECT = 0x01;
+    public static final int POLICY_DROP_OLDEST = 0x02;
+    public static final int POLICY_CALLER_RUNS = 0x04;
+    public static final int POLICY_BLOCK = 0x08;
+
+    private final Queue<QueuedTask> mQueue = new ArrayDeque<>();
+    private final Runnable mWorker = this::work;
+
+    private final Executor mExecutor;
+    private final int mMaxConcurrency;
+    private final int mMaxQueued;
+    private final int mPolicy;
+    private final long mBlockTimeoutNanos;
+
+    private int mActiveWorkers;
+    private int mInFlight;
+    private int mBlockedSubmitters;
+    private volatile int mState = STATE_RUNNING;
+    private volatile RunnerInstrumentation mInstrumentation;
+
+    public BoundedTaskRunner(Executor executor, int maxConcurrency, int maxQueued, int policy) {
+        this(executor, maxConcurrency, maxQueued, policy, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new {@link BoundedTaskRunner}.
+     *
+     * @param executor       The {@link Executor} on which the {@link Task Tasks} are executed.
+     * @param maxConcurrency The maximum number of {@link Task Tasks} executed at the same time.
+     * @param maxQueued      The maximum number of {@link Task Tasks} waiting for execution.
+     * @param policy         What happens when the queue is full, one of the {@code POLICY_*} constants.
+     * @param blockTimeout   How long {@link BoundedTaskRunner#POLICY_BLOCK} waits for room in the queue.
+     * @param unit           The {@link TimeUnit} of the block timeout.
+     */
+    public BoundedTaskRunner(Executor executor, int maxConcurrency, int maxQueued, int policy, long blockTimeout, TimeUnit unit) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1 but was " + maxConcurrency);
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("Max queued must not be negative but was " + maxQueued);
+        }
+        if (policy != POLICY_REJECT && policy != POLICY_DROP_OLDEST && policy != POLICY_CALLER_RUNS && policy != POLICY_BLOCK) {
+            throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+        mExecutor = executor;
+        mMaxConcurrency = maxConcurrency;
+        mMaxQueued = maxQueued;
+        mPolicy = policy;
+        mBlockTimeoutNanos = unit.toNanos(blockTimeout);
+    }
+
+    @Override
+    public <T> Task<T> queue(Callable<T> callable) {
+        final Task<T> task = Task.from(callable);
+        final QueuedTask queuedTask;
+        QueuedTask dropped = null;
+        boolean startWorker = false;
+        boolean runOnCaller = false;
+        synchronized (mQueue) {
+            if (mQueue.size() >= mMaxQueued && !hasIdleWorker()) {
+                switch (mPolicy) {
+
+                    case POLICY_DROP_OLDEST:
+                        dropped = mQueue.poll();
+                        break;
+
+                    case POLICY_CALLER_RUNS:
+                        if (mState != STATE_RUNNING) {
+                            return rejected();
+                        }
+                        runOnCaller = true;
+                        mInFlight++;
+                        break;
+
+                    case POLICY_BLOCK:
+                        if (!awaitRoom()) {
+                            return rejected();
+                        }
+                        break;
+
+                    default:
+                        return rejected();
+                }
+            }
+
+            if (runOnCaller) {
+                queuedTask = QueuedTask.create(task, mInstrumentation);
+            } else {
+                if (dropped != null || mQueue.size() < mMaxQueued || hasIdleWorker()) {
+                    queuedTask = QueuedTask.create(task, mInstrumentation);
+                    mQueue.add(queuedTask);
+                    startWorker = tryReserveWorker();
+                } else {
+                    // Only possible with POLICY_DROP_OLDEST and a queue capacity of zero.
+                    return rejected();
+                }
+            }
+        }
+
+        if (dropped != null) {
+            dropped.discard();
+        }
+
+        if (runOnCaller) {
+            try {
+                queuedTask.run();
+            } finally {
+                synchronized (mQueue) {
+                    mInFlight--;
+                }
+            }
+        } else {
+            // Registered after the Task was added, a Task canceled in the meantime is removed here.
+            TaskHooks.whenStopped(task, () -> remove(queuedTask));
+            if (startWorker) {
+                startWorker();
+            }
+        }
+        return task;
+    }
+
+    private void remove(QueuedTask queuedTask) {
+        synchronized (mQueue) {
+            if (!mQueue.remove(queuedTask)) {
+                return;
+            }
+            if (mBlockedSubmitters > 0) {
+                mQueue.notifyAll();
+            }
+        }
+        queuedTask.discard();
+    }
+
+    /**
+     * Returns the number of {@link Task Tasks} which are currently executing.
+     *
+     * @return Returns the number of executing {@link Task Tasks}.
+     */
+    public int getInFlightCount() {
+        synchronized (mQueue) {
+            return mInFlight;
+        }
+    }
+
+    /**
+     * Returns the number of {@link Task Tasks} waiting for execution.
+     *
+     * @return Returns the number of queued {@link Task Tasks}.
+     */
+    public int getQueuedCount() {
+        synchronized (mQueue) {
+            return mQueue.size();
+        }
+    }
+
+    @Override
+    public void setInstrumentation(RunnerInstrumentation instrumentation) {
+        mInstrumentation = instrumentation;
+    }
+
+    @Override
+    public int getState() {
+        return mState;
+    }
+
+    @Override
+    public void start() {
+        int workers = 0;
+        synchronized (mQueue) {
+            mState = STATE_RUNNING;
+            while (workers < mQueue.size() && tryReserveWorker()) {
+                workers++;
+            }
+        }
+
+        for (int i = 0; i < workers; i++) {
+            startWorker();
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (mQueue) {
+            mState = STATE_STOPPED;
+        }
+    }
+
+    private static <T> Task<T> rejected() {
+        return Task.withError(new TaskRejectedException("Task was rejected because the queue of the TaskRunner is full."));
+    }
+
+    private boolean hasIdleWorker() {
+        // A task queued now is picked up right away by a new worker, so it never has to wait.
+        return mState == STATE_RUNNING && mActiveWorkers < mMaxConcurrency && mQueue.isEmpty();
+    }
+
+    private boolean awaitRoom() {
+        final long deadline = System.nanoTime() + mBlockTimeoutNanos;
+        mBlockedSubmitters++;
+        try {
+            while (mQueue.size() >= mMaxQueued && !hasIdleWorker()) {
+                final long remaining = mBlockTimeoutNanos == Long.MAX_VALUE
+                        ? Long.MAX_VALUE
+                        : deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(mQueue, remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            mBlockedSubmitters--;
+        }
+    }
+
+    private boolean tryReserveWorker() {
+        if (mState == STATE_RUNNING && mActiveWorkers < mMaxConcurrency) {
+            mActiveWorkers++;
+            return true;
+        }
+        return false;
+    }
+
+    private void startWorker() {
+        try {
+            mExecutor.execute(mWorker);
+        } catch (RuntimeException e) {
+            synchronized (mQueue) {
+                mActiveWorkers--;
+            }
+            throw e;
+        }
+    }
+
+    private void work() {
+        while (true) {
+            final QueuedTask queuedTask;
+            synchronized (mQueue) {
+                if (mState != STATE_RUNNING || mQueue.isEmpty()) {
+                    mActiveWorkers--;
+                    if (mBlockedSubmitters > 0) {
+                        mQueue.notifyAll();
+                    }
+                    return;
+                }
+                queuedTask = mQueue.poll();
+                mInFlight++;
+                if (mBlockedSubmitters > 0) {
+                    mQueue.notifyAll();
+                }
+            }
+
+            try {
+                queuedTask.run();
+            } finally {
+                synchronized (mQueue) {
+                    mInFlight--;
+                }
+            }
+        }
+    }
+}
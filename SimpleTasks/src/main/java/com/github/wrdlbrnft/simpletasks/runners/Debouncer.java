@@ -0,0 +1,90 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.StubTask;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues a {@link Callable} on a {@link TaskRunner} once calls to {@link Debouncer#trigger()} have
+ * stopped for the configured delay. Every call to {@link Debouncer#trigger()} restarts the delay.
+ * All calls during one burst return the same {@link Task}, which completes with the result of the
+ * single execution at the end of the burst. Create instances with
+ * {@link TaskRunner#debounce(Callable, long, TimeUnit)}.
+ * <p>
+ * The delay is tracked by {@link TaskTimer}, so no thread or {@link android.os.Looper} is required.
+ *
+ * @param <T> The type of the result of the {@link Callable}.
+ */
+public final class Debouncer<T> {
+
+    private final TaskRunner mRunner;
+    private final Callable<T> mCallable;
+    private final long mDelayNanos;
+
+    private StubTask<T> mPendingTask;
+    private TaskTimer.Timeout mTimeout;
+    private long mGeneration;
+
+    Debouncer(TaskRunner runner, Callable<T> callable, long delay, TimeUnit unit) {
+        if (delay < 0L) {
+            throw new IllegalArgumentException("Delay must not be negative but was " + delay);
+        }
+        mRunner = runner;
+        mCallable = callable;
+        mDelayNanos = unit.toNanos(delay);
+    }
+
+    /**
+     * Restarts the delay and returns the {@link Task} of the execution at the end of the current
+     * burst. Canceling the returned {@link Task} cancels the execution for all callers of the
+     * current burst, the next call to this method starts a new burst.
+     *
+     * @return Returns the {@link Task} of the pending execution.
+     */
+    public synchronized Task<T> trigger() {
+        if (mTimeout != null) {
+            mTimeout.cancel();
+        }
+        if (mPendingTask == null || mPendingTask.isDone()) {
+            mPendingTask = StubTask.create();
+        }
+
+        final StubTask<T> task = mPendingTask;
+        final long generation = ++mGeneration;
+        mTimeout = TaskTimer.schedule(() -> execute(task, generation), mDelayNanos, TimeUnit.NANOSECONDS);
+        return task;
+    }
+
+    /**
+     * Cancels the pending execution, if any.
+     */
+    public synchronized void cancel() {
+        mGeneration++;
+        if (mTimeout != null) {
+            mTimeout.cancel();
+            mTimeout = null;
+        }
+        if (mPendingTask != null) {
+            mPendingTask.cancel();
+            mPendingTask = null;
+        }
+    }
+
+    private void execute(StubTask<T> task, long generation) {
+        synchronized (this) {
+            // A trigger() which raced with the timer has already scheduled a later execution.
+            if (generation != mGeneration) {
+                return;
+            }
+            mPendingTask = null;
+            mTimeout = null;
+        }
+
+        if (!task.isDone()) {
+            task.notifyFrom(mRunner.queue(mCallable));
+        }
+    }
+}
@@ -0,0 +1,695 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import android.util.Log;
+
+import com.github.wrdlbrnft.simpletasks.caches.Serializer;
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+import com.github.wrdlbrnft.simpletasks.tasks.StubTask;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Executes work which has to survive the death of the process, like uploads or synchronization.
+ * Instead of {@link java.util.concurrent.Callable Callables} the {@link DurableTaskRunner} queues
+ * descriptors: the id of a registered {@link Worker} and a key which is converted to bytes with a
+ * {@link Serializer}. Example:
+ * <pre>
+ *     DurableTaskRunner runner = DurableTaskRunner.builder(new File(dir, "uploads.journal"), taskRunner)
+ *             .register("upload", Serializer.ofStrings(), path -&gt; uploadFile(path))
+ *             .build();
+ *     runner.enqueue("upload", "/photos/1.jpg");
+ * </pre>
+ * Every queued descriptor is appended to a journal file. Descriptors queued within the commit
+ * window are written and flushed to the storage device together, only then are they executed on
+ * the supplied {@link TaskRunner}. When a {@link Worker} completes or its {@link Task} is canceled
+ * a completion record is appended. When the {@link DurableTaskRunner} is opened again, all
+ * descriptors without a completion record are executed again in the order in which they were
+ * queued. Work is therefore executed at least once, a {@link Worker} which fails stays in the
+ * journal until the next restart, so permanent failures should be handled in the {@link Worker}.
+ * <p>
+ * Like the {@link com.github.wrdlbrnft.simpletasks.caches.DiskCache} every record carries a
+ * checksum and everything after the first incomplete or corrupt record is cut off during recovery.
+ * Once the journal grows beyond the compaction threshold and most of it describes completed work
+ * it is rewritten with only the pending records and atomically replaces the old file. Only
+ * opening the file happens on the thread which calls {@link Builder#build()}. Recovering and
+ * replaying the journal and all other file I/O happen on a single background thread. Work queued
+ * before the recovery has finished is committed after it.
+ * <p>
+ * After {@link DurableTaskRunner#close()} no more work can be queued, {@link Task Tasks} returned
+ * by {@link DurableTaskRunner#enqueue(String, Object)} fail with an {@link IllegalStateException}.
+ */
+public final class DurableTaskRunner {
+
+    /**
+     * Performs the work described by a key. Registered with a {@link DurableTaskRunner} under
+     * a worker id.
+     *
+     * @param <K> The type of the keys passed to the {@link Worker}.
+     */
+    public interface Worker<K> {
+        void perform(K key) throws Exception;
+    }
+
+    private static final String TAG = "DurableTaskRunner";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final int TYPE_ENQUEUE = 0x01;
+    private static final int TYPE_COMPLETE = 0x02;
+
+    private static final int HEADER_SIZE = 20;
+    private static final int CHECKSUM_SIZE = 4;
+
+    private static final long DEFAULT_COMMIT_WINDOW_MILLIS = 5L;
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 1024L * 1024L;
+
+    private final Map<String, Registration<?>> mRegistrations;
+    private final TaskRunner mTaskRunner;
+    private final File mFile;
+    private final File mCompactionFile;
+    private final long mCommitWindowNanos;
+    private final long mCompactionThreshold;
+    private final ExecutorService mJournalExecutor;
+    private final AtomicInteger mPendingCount = new AtomicInteger();
+
+    private final Object mLock = new Object();
+    private List<Record> mPendingRecords = new ArrayList<>();
+    private boolean mCommitScheduled;
+    private boolean mClosed;
+
+    // Only accessed by the journal thread once the DurableTaskRunner is opened.
+    private final LinkedHashMap<Long, Location> mLocations = new LinkedHashMap<>();
+    private RandomAccessFile mRandomAccessFile;
+    private FileChannel mChannel;
+    private long mFileSize;
+    private long mLiveSize;
+    private long mNextSequence;
+    private IOException mRecoveryError;
+
+    private DurableTaskRunner(Builder builder) throws IOException {
+        mRegistrations = Collections.unmodifiableMap(new HashMap<>(builder.mRegistrations));
+        mTaskRunner = builder.mTaskRunner;
+        mFile = builder.mFile;
+        mCompactionFile = new File(mFile.getPath() + ".compact");
+        mCommitWindowNanos = builder.mCommitWindowNanos;
+        mCompactionThreshold = builder.mCompactionThreshold;
+        mJournalExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "SimpleTasks-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        open();
+        mJournalExecutor.execute(this::recoverAndReplay);
+    }
+
+    /**
+     * Creates a {@link Builder} used to open a {@link DurableTaskRunner}.
+     *
+     * @param journal The file in which the journal is stored.
+     * @param runner  The {@link TaskRunner} which executes the {@link Worker Workers}.
+     * @return Returns a new {@link Builder} instance.
+     */
+    public static Builder builder(File journal, TaskRunner runner) {
+        return new Builder(journal, runner);
+    }
+
+    /**
+     * Queues the work described by the supplied key for the {@link Worker} registered under the
+     * supplied id. The returned {@link Task} completes when the {@link Worker} has completed.
+     * It fails if the descriptor could not be written to the journal or if this
+     * {@link DurableTaskRunner} was closed, in that case the {@link Worker} is not executed. Canceling the {@link Task} removes the work from the journal.
+     *
+     * @param workerId The id under which the {@link Worker} was registered.
+     * @param key      The key passed to the {@link Worker}.
+     * @param <K>      The type of the key.
+     * @return Returns a {@link Task} representing the queued work.
+     */
+    public <K> Task<Void> enqueue(String workerId, K key) {
+        final Registration<K> registration = getRegistration(workerId);
+        if (registration == null) {
+            throw new IllegalArgumentException("No Worker is registered with id " + workerId);
+        }
+
+        final byte[] payload;
+        try {
+            payload = registration.mSerializer.serialize(key);
+        } catch (IOException e) {
+            return Task.withError(e);
+        }
+
+        final StubTask<Void> task = StubTask.create();
+        synchronized (mLock) {
+            if (mClosed) {
+                return Task.withError(new IllegalStateException("DurableTaskRunner is closed."));
+            }
+
+            // The sequence is assigned when the record is committed, after the recovery has
+            // found the last sequence in the journal.
+            final Job<K> job = new Job<>(registration, key, task);
+            mPendingRecords.add(new Record(TYPE_ENQUEUE, -1L, workerId.getBytes(UTF_8), payload, job));
+            mPendingCount.incrementAndGet();
+            scheduleCommit();
+        }
+        return task;
+    }
+
+    /**
+     * Returns the number of descriptors in the journal which have not completed yet, including
+     * work which failed and will be executed again after the next restart.
+     *
+     * @return Returns the number of pending descriptors.
+     */
+    public int getPendingCount() {
+        return mPendingCount.get();
+    }
+
+    /**
+     * Writes all records which have not been committed yet and closes the journal. Work which is
+     * still running afterwards is executed again the next time the journal is opened.
+     *
+     * @throws IOException If the journal cannot be flushed or closed.
+     */
+    public void close() throws IOException {
+        synchronized (mLock) {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+        }
+
+        try {
+            mJournalExecutor.submit(() -> {
+                commit();
+                mRandomAccessFile.close();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the journal.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            mJournalExecutor.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K> Registration<K> getRegistration(String workerId) {
+        return (Registration<K>) mRegistrations.get(workerId);
+    }
+
+    private void complete(long sequence) {
+        synchronized (mLock) {
+            // Work which completes after close() is executed again the next time the journal
+            // is opened.
+            if (!mClosed) {
+                mPendingRecords.add(new Record(TYPE_COMPLETE, sequence, EMPTY, EMPTY, null));
+                scheduleCommit();
+            }
+        }
+        mPendingCount.decrementAndGet();
+    }
+
+    private void scheduleCommit() {
+        if (mCommitScheduled) {
+            return;
+        }
+
+        mCommitScheduled = true;
+        if (mCommitWindowNanos == 0L) {
+            executeCommit();
+        } else {
+            TaskTimer.schedule(this::executeCommit, mCommitWindowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void executeCommit() {
+        try {
+            mJournalExecutor.execute(this::commit);
+        } catch (RejectedExecutionException e) {
+            // The journal was closed in the meantime, close() already committed these records.
+        }
+    }
+
+    private void commit() {
+        final List<Record> records;
+        synchronized (mLock) {
+            records = mPendingRecords;
+            mPendingRecords = new ArrayList<>();
+            mCommitScheduled = false;
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        if (mRecoveryError != null) {
+            failJobs(records, mRecoveryError);
+            return;
+        }
+
+        final List<Record> written = new ArrayList<>(records.size());
+        int size = 0;
+        for (Record record : records) {
+            // Work canceled before it reached the journal does not have to be written at all.
+            if (record.mJob != null && record.mJob.mTask.isDone()) {
+                mPendingCount.decrementAndGet();
+                continue;
+            }
+            if (record.mType == TYPE_ENQUEUE) {
+                record.setSequence(mNextSequence++);
+            }
+            written.add(record);
+            size += record.getSize();
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (Record record : written) {
+            record.writeTo(buffer);
+        }
+        buffer.flip();
+
+        final long offset = mFileSize;
+        try {
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += mChannel.write(buffer, position);
+            }
+            mChannel.force(false);
+            mFileSize = position;
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write to the journal.", e);
+            truncateQuietly(offset);
+            failJobs(written, e);
+            return;
+        }
+
+        long position = offset;
+        for (Record record : written) {
+            final int recordSize = record.getSize();
+            if (record.mType == TYPE_ENQUEUE) {
+                mLocations.put(record.mSequence, new Location(position, recordSize));
+                mLiveSize += recordSize;
+            } else {
+                final Location location = mLocations.remove(record.mSequence);
+                if (location != null) {
+                    mLiveSize -= location.mSize;
+                }
+            }
+            position += recordSize;
+        }
+
+        for (Record record : written) {
+            if (record.mJob != null) {
+                execute(record.mJob);
+            }
+        }
+        tryCompact();
+    }
+
+    private void failJobs(List<Record> records, IOException exception) {
+        for (Record record : records) {
+            if (record.mJob != null) {
+                mPendingCount.decrementAndGet();
+                record.mJob.mTask.notifyError(exception);
+            }
+        }
+    }
+
+    private <K> void execute(Job<K> job) {
+        final Task<Void> workerTask = mTaskRunner.queue(() -> {
+            job.mRegistration.mWorker.perform(job.mKey);
+            return (Void) null;
+        }).deliverCallbacksOn(CallbackExecutors.direct())
+                .onResult(result -> complete(job.mSequence))
+                .onCanceled(() -> complete(job.mSequence));
+        job.mTask.notifyFrom(workerTask);
+    }
+
+    private void recoverAndReplay() {
+        try {
+            // A leftover from a compaction which did not finish, the journal is still intact.
+            if (mCompactionFile.exists() && !mCompactionFile.delete()) {
+                throw new IOException("Could not delete " + mCompactionFile);
+            }
+            replay(recover());
+        } catch (IOException e) {
+            // Nothing is written to a journal which could not be recovered, queued work fails instead.
+            Log.e(TAG, "Could not recover the journal.", e);
+            mRecoveryError = e;
+        }
+    }
+
+    private void open() throws IOException {
+        mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+        mChannel = mRandomAccessFile.getChannel();
+        mFileSize = mChannel.size();
+    }
+
+    private List<Record> recover() throws IOException {
+        final LinkedHashMap<Long, Record> pending = new LinkedHashMap<>();
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long offset = 0L;
+        while (true) {
+            header.clear();
+            if (offset + HEADER_SIZE + CHECKSUM_SIZE > mFileSize || !readFully(header, offset)) {
+                break;
+            }
+            header.flip();
+            final int type = header.getInt();
+            final long sequence = header.getLong();
+            final int idLength = header.getInt();
+            final int payloadLength = header.getInt();
+            if ((type != TYPE_ENQUEUE && type != TYPE_COMPLETE) || idLength < 0 || payloadLength < 0) {
+                break;
+            }
+
+            final long recordSize = recordSize(idLength, payloadLength);
+            if (recordSize > Integer.MAX_VALUE || offset + recordSize > mFileSize) {
+                break;
+            }
+
+            final ByteBuffer data = ByteBuffer.allocate((int) recordSize);
+            if (!readFully(data, offset)) {
+                break;
+            }
+            data.flip();
+            if (!isValid(data)) {
+                break;
+            }
+
+            if (type == TYPE_ENQUEUE) {
+                final byte[] id = new byte[idLength];
+                final byte[] payload = new byte[payloadLength];
+                data.position(HEADER_SIZE);
+                data.get(id);
+                data.get(payload);
+                pending.put(sequence, new Record(type, sequence, id, payload, null));
+                mLocations.put(sequence, new Location(offset, (int) recordSize));
+                mLiveSize += recordSize;
+            } else {
+                pending.remove(sequence);
+                final Location location = mLocations.remove(sequence);
+                if (location != null) {
+                    mLiveSize -= location.mSize;
+                }
+            }
+            mNextSequence = Math.max(mNextSequence, sequence + 1L);
+            offset += recordSize;
+        }
+
+        if (offset < mFileSize) {
+            mChannel.truncate(offset);
+            mChannel.force(true);
+            mFileSize = offset;
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    private void replay(List<Record> records) {
+        for (Record record : records) {
+            final String workerId = new String(record.mId, UTF_8);
+            final Registration<Object> registration = getRegistration(workerId);
+            if (registration == null) {
+                // Keep the record, the Worker may be registered again by a later version.
+                Log.e(TAG, "No Worker is registered with id " + workerId + ", skipping journal entry " + record.mSequence + ".");
+                continue;
+            }
+
+            final Object key;
+            try {
+                key = registration.mSerializer.deserialize(record.mPayload);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not read key of journal entry " + record.mSequence + ".", e);
+                continue;
+            }
+            mPendingCount.incrementAndGet();
+            final Job<Object> job = new Job<>(registration, key, StubTask.create());
+            job.mSequence = record.mSequence;
+            execute(job);
+        }
+    }
+
+    private void tryCompact() {
+        if (mFileSize <= mCompactionThreshold || mLiveSize > mFileSize / 2L) {
+            return;
+        }
+
+        try {
+            compact();
+        } catch (IOException e) {
+            // The journal is only replaced once the compacted file is complete, so it is still
+            // intact. Compaction is attempted again with the next commit.
+            Log.e(TAG, "Could not compact the journal.", e);
+        }
+    }
+
+    private void compact() throws IOException {
+        final LinkedHashMap<Long, Location> locations = new LinkedHashMap<>();
+        final RandomAccessFile compactionFile = new RandomAccessFile(mCompactionFile, "rw");
+        try {
+            final FileChannel target = compactionFile.getChannel();
+            target.truncate(0L);
+            long position = 0L;
+            for (Map.Entry<Long, Location> entry : mLocations.entrySet()) {
+                final Location location = entry.getValue();
+                final ByteBuffer data = ByteBuffer.allocate(location.mSize);
+                if (!readFully(data, location.mOffset)) {
+                    throw new IOException("Unexpected end of journal.");
+                }
+                data.flip();
+                locations.put(entry.getKey(), new Location(position, location.mSize));
+                while (data.hasRemaining()) {
+                    position += target.write(data, position);
+                }
+            }
+            target.force(true);
+        } finally {
+            compactionFile.close();
+        }
+
+        mRandomAccessFile.close();
+        if (!mCompactionFile.renameTo(mFile)) {
+            open();
+            throw new IOException("Could not replace " + mFile + " with " + mCompactionFile);
+        }
+        open();
+        mLocations.clear();
+        mLocations.putAll(locations);
+    }
+
+    private void truncateQuietly(long size) {
+        try {
+            mChannel.truncate(size);
+        } catch (IOException e) {
+            // A partially written batch is cut off by the recovery at the latest.
+        }
+    }
+
+    private boolean readFully(ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            final int read = mChannel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private static boolean isValid(ByteBuffer record) {
+        final int checksumOffset = record.limit() - CHECKSUM_SIZE;
+        return checksum(record.array(), checksumOffset) == record.getInt(checksumOffset);
+    }
+
+    private static int checksum(byte[] data, int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static long recordSize(int idLength, int payloadLength) {
+        return (long) HEADER_SIZE + idLength + payloadLength + CHECKSUM_SIZE;
+    }
+
+    /**
+     * Used to open a {@link DurableTaskRunner}.
+     */
+    public static final class Builder {
+
+        private final Map<String, Registration<?>> mRegistrations = new HashMap<>();
+        private final File mFile;
+        private final TaskRunner mTaskRunner;
+        private long mCommitWindowNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_COMMIT_WINDOW_MILLIS);
+        private long mCompactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+        private Builder(File file, TaskRunner taskRunner) {
+            mFile = file;
+            mTaskRunner = taskRunner;
+        }
+
+        /**
+         * Registers a {@link Worker} under the supplied id. The id is written to the journal
+         * with every descriptor, so it must not change between versions of the app. Work in the
+         * journal whose id is not registered is kept, but not executed.
+         *
+         * @param workerId   The id of the {@link Worker}.
+         * @param serializer The {@link Serializer} used to write the keys to the journal.
+         * @param worker     The {@link Worker} which performs the work.
+         * @param <K>        The type of the keys passed to the {@link Worker}.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public <K> Builder register(String workerId, Serializer<K> serializer, Worker<K> worker) {
+            if (mRegistrations.containsKey(workerId)) {
+                throw new IllegalStateException("A Worker is already registered with id " + workerId);
+            }
+            mRegistrations.put(workerId, new Registration<>(serializer, worker));
+            return this;
+        }
+
+        /**
+         * Sets how long descriptors are collected before they are written and flushed to the
+         * storage device together. A longer window means fewer flushes but a longer delay
+         * before work is started. Defaults to 5 milliseconds.
+         *
+         * @param window The commit window or {@code 0} to commit right away.
+         * @param unit   The {@link TimeUnit} of the window.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder commitWindow(long window, TimeUnit unit) {
+            if (window < 0L) {
+                throw new IllegalArgumentException("Commit window must not be negative but was " + window);
+            }
+            mCommitWindowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Sets the size in bytes the journal may reach before it is compacted. Defaults to 1 MB.
+         *
+         * @param threshold The size of the journal which triggers compaction.
+         * @return Returns the same {@link Builder} instance to enable call chaining.
+         */
+        public Builder compactionThreshold(long threshold) {
+            if (threshold <= 0L) {
+                throw new IllegalArgumentException("Compaction threshold must be positive but was " + threshold);
+            }
+            mCompactionThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Opens the journal. Recovering it and executing all pending work found in it happens
+         * in the background. If the journal cannot be recovered all work queued afterwards fails
+         * with the {@link IOException}.
+         *
+         * @return Returns a new {@link DurableTaskRunner}.
+         * @throws IOException If the journal cannot be opened.
+         */
+        public DurableTaskRunner build() throws IOException {
+            return new DurableTaskRunner(this);
+        }
+    }
+
+    private static class Registration<K> {
+
+        private final Serializer<K> mSerializer;
+        private final Worker<K> mWorker;
+
+        private Registration(Serializer<K> serializer, Worker<K> worker) {
+            mSerializer = serializer;
+            mWorker = worker;
+        }
+    }
+
+    private static class Job<K> {
+
+        private final Registration<K> mRegistration;
+        private final K mKey;
+        private final StubTask<Void> mTask;
+
+        // Assigned on the journal thread before the Job is executed.
+        private long mSequence;
+
+        private Job(Registration<K> registration, K key, StubTask<Void> task) {
+            mRegistration = registration;
+            mKey = key;
+            mTask = task;
+        }
+    }
+
+    private static class Record {
+
+        private final int mType;
+        private long mSequence;
+        private final byte[] mId;
+        private final byte[] mPayload;
+        private final Job<?> mJob;
+
+        private Record(int type, long sequence, byte[] id, byte[] payload, Job<?> job) {
+            mType = type;
+            mSequence = sequence;
+            mId = id;
+            mPayload = payload;
+            mJob = job;
+        }
+
+        private void setSequence(long sequence) {
+            mSequence = sequence;
+            if (mJob != null) {
+                mJob.mSequence = sequence;
+            }
+        }
+
+        private int getSize() {
+            return (int) recordSize(mId.length, mPayload.length);
+        }
+
+        private void writeTo(ByteBuffer buffer) {
+            final int start = buffer.position();
+            buffer.putInt(mType);
+            buffer.putLong(mSequence);
+            buffer.putInt(mId.length);
+            buffer.putInt(mPayload.length);
+            buffer.put(mId);
+            buffer.put(mPayload);
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.array(), start, buffer.position() - start);
+            buffer.putInt((int) crc.getValue());
+        }
+    }
+
+    private static class Location {
+
+        private final long mOffset;
+        private final int mSize;
+
+        private Location(long offset, int size) {
+            mOffset = offset;
+            mSize = size;
+        }
+    }
+}
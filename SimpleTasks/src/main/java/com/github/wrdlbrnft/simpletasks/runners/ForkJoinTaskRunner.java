@@ -0,0 +1,196 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import android.os.Build;
+import android.support.annotation.RequiresApi;
+
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskCanceledException;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A {@link TaskRunner} implementation which executes {@link Task Tasks} on a {@link ForkJoinPool}.
+ * Besides ordinary {@link java.util.concurrent.Callable Callables} it accepts
+ * {@link SplittableCallable SplittableCallables}, which can split their work into smaller pieces
+ * with {@link Context#fork(SplittableCallable)}. Forked pieces are pushed onto the work queue of the
+ * current worker thread, idle workers steal them, and {@link Fork#join()} executes pending pieces
+ * instead of blocking the worker thread while it waits.
+ * <p>
+ * Canceling the {@link Task} returned by {@link ForkJoinTaskRunner#queue(SplittableCallable)} stops
+ * all pieces which have not started yet. Running pieces can check {@link Context#isCanceled()}.
+ */
+@RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
+public class ForkJoinTaskRunner extends SimpleTaskRunner {
+
+    /**
+     * A unit of work which can split itself into smaller units of work.
+     *
+     * @param <T> The type of the result.
+     */
+    public interface SplittableCallable<T> {
+
+        /**
+         * Computes the result, possibly by forking and joining smaller pieces of work with the
+         * supplied {@link Context}.
+         *
+         * @param context The {@link Context} used to fork smaller pieces of work.
+         * @return Returns the result.
+         * @throws Exception Any exception thrown here fails the {@link Task}.
+         */
+        T call(Context context) throws Exception;
+    }
+
+    /**
+     * Passed to every {@link SplittableCallable} to fork additional work.
+     */
+    public interface Context {
+
+        /**
+         * Schedules the supplied {@link SplittableCallable} for asynchronous execution in the
+         * {@link ForkJoinPool}.
+         *
+         * @param callable The piece of work to fork.
+         * @param <R>      The type of the result of the piece of work.
+         * @return Returns a {@link Fork} which can be used to join the result.
+         */
+        <R> Fork<R> fork(SplittableCallable<R> callable);
+
+        /**
+         * Returns whether the {@link Task} this work belongs to was canceled. Long running
+         * pieces of work should check this regularly and stop early.
+         *
+         * @return Returns {@code true} if the {@link Task} was canceled.
+         */
+        boolean isCanceled();
+    }
+
+    /**
+     * Represents a forked piece of work.
+     *
+     * @param <R> The type of the result of the piece of work.
+     */
+    public interface Fork<R> {
+
+        /**
+         * Returns the result of the forked piece of work once it is completed. While waiting the
+         * calling worker thread executes other pending pieces of work instead of blocking.
+         *
+         * @return Returns the result of the forked piece of work.
+         * @throws Exception The exception thrown by the forked piece of work.
+         */
+        R join() throws Exception;
+    }
+
+    private final ForkJoinPool mPool;
+
+    public ForkJoinTaskRunner() {
+        this(new ForkJoinPool());
+    }
+
+    public ForkJoinTaskRunner(int parallelism) {
+        this(new ForkJoinPool(parallelism));
+    }
+
+    public ForkJoinTaskRunner(ForkJoinPool pool) {
+        super(pool::execute);
+        mPool = pool;
+    }
+
+    /**
+     * Queues a {@link SplittableCallable} to be executed as a {@link Task} in the
+     * {@link ForkJoinPool}.
+     *
+     * @param callable The {@link SplittableCallable} to be executed.
+     * @param <T>      The result of the {@link SplittableCallable} and {@link Task}
+     * @return Returns a {@link Task} instance representing the {@link SplittableCallable}.
+     */
+    public <T> Task<T> queue(SplittableCallable<T> callable) {
+        final ContextImpl context = new ContextImpl();
+        final Task<T> task = queue(() -> callable.call(context));
+        context.mTask = task;
+        return task;
+    }
+
+    public ForkJoinPool getPool() {
+        return mPool;
+    }
+
+    private static class ContextImpl implements Context {
+
+        private volatile Task<?> mTask;
+
+        @Override
+        public <R> Fork<R> fork(SplittableCallable<R> callable) {
+            final ForkImpl<R> fork = new ForkImpl<>(this, callable);
+            fork.fork();
+            return fork;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            final Task<?> task = mTask;
+            return task != null && task.isCanceled();
+        }
+    }
+
+    private static class ForkImpl<R> implements Fork<R> {
+
+        private final SubTask<R> mSubTask;
+
+        private ForkImpl(ContextImpl context, SplittableCallable<R> callable) {
+            mSubTask = new SubTask<>(context, callable);
+        }
+
+        private void fork() {
+            mSubTask.fork();
+        }
+
+        @Override
+        public R join() throws Exception {
+            try {
+                return mSubTask.join();
+            } catch (CheckedExceptionWrapper e) {
+                // The ForkJoinPool may rethrow a copy of the wrapper which wraps the original one.
+                Throwable cause = e;
+                while (cause instanceof CheckedExceptionWrapper) {
+                    cause = cause.getCause();
+                }
+                throw (Exception) cause;
+            }
+        }
+    }
+
+    private static class SubTask<R> extends RecursiveTask<R> {
+
+        private final ContextImpl mContext;
+        private final SplittableCallable<R> mCallable;
+
+        private SubTask(ContextImpl context, SplittableCallable<R> callable) {
+            mContext = context;
+            mCallable = callable;
+        }
+
+        @Override
+        protected R compute() {
+            if (mContext.isCanceled()) {
+                throw new TaskCanceledException("Task was canceled.");
+            }
+
+            try {
+                return mCallable.call(mContext);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CheckedExceptionWrapper(e);
+            }
+        }
+    }
+
+    private static class CheckedExceptionWrapper extends RuntimeException {
+
+        public CheckedExceptionWrapper(Throwable cause) {
+            super(cause);
+        }
+    }
+}
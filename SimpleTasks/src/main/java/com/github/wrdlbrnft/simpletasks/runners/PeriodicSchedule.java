@@ -0,0 +1,69 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+import com.github.wrdlbrnft.simpletasks.tasks.StubTask;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues a {@link Callable} on a {@link TaskRunner} at a fixed rate, see
+ * {@link TaskRunner#scheduleAtFixedRate(Callable, long, long, TimeUnit)}. The next execution is
+ * only scheduled once the previous one has completed, so executions never overlap. An execution
+ * which takes longer than the period delays the next one, which then starts right away.
+ */
+final class PeriodicSchedule {
+
+    private final TaskRunner mRunner;
+    private final Callable<?> mCallable;
+    private final long mPeriodNanos;
+    private final StubTask<Void> mHandle = StubTask.create();
+
+    private long mNextRunTime;
+
+    private PeriodicSchedule(TaskRunner runner, Callable<?> callable, long periodNanos) {
+        mRunner = runner;
+        mCallable = callable;
+        mPeriodNanos = periodNanos;
+    }
+
+    static Task<Void> start(TaskRunner runner, Callable<?> callable, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0L) {
+            throw new IllegalArgumentException("Period must be positive but was " + period);
+        }
+
+        final PeriodicSchedule schedule = new PeriodicSchedule(runner, callable, unit.toNanos(period));
+        final long initialDelayNanos = Math.max(0L, unit.toNanos(initialDelay));
+        schedule.mNextRunTime = System.nanoTime() + initialDelayNanos;
+        TaskTimer.schedule(schedule::run, initialDelayNanos, TimeUnit.NANOSECONDS);
+        return schedule.mHandle;
+    }
+
+    private void run() {
+        if (mHandle.isDone()) {
+            return;
+        }
+
+        final Task<?> task = mRunner.queue(mCallable).deliverCallbacksOn(CallbackExecutors.direct());
+        task.onResult(result -> scheduleNext())
+                .onError(mHandle::notifyError)
+                .onCanceled(mHandle::cancel);
+    }
+
+    private void scheduleNext() {
+        if (mHandle.isDone()) {
+            return;
+        }
+
+        // Fixed rate: the next run is due one period after the previous one was due, not after
+        // it completed. Runs which were missed because of a slow execution are skipped.
+        final long now = System.nanoTime();
+        mNextRunTime += mPeriodNanos;
+        if (mNextRunTime < now) {
+            mNextRunTime = now;
+        }
+        TaskTimer.schedule(this::run, mNextRunTime - now, TimeUnit.NANOSECONDS);
+    }
+}
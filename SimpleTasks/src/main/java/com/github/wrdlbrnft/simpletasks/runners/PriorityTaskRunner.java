@@ -0,0 +1,241 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.tasks.TaskHooks;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TaskRunner} implementation which keeps its own queue of pending {@link Task Tasks} and
+ * always executes the pending {@link Task} with the highest priority next. At most
+ * {@code parallelism} {@link Task Tasks} are executed at the same time on the supplied
+ * {@link Executor}.
+ * <p>
+ * To prevent starvation of low priority {@link Task Tasks} waiting entries age: every time an
+ * entry has waited for the aging interval it is treated as if its priority was one higher.
+ * Because of that the order of two entries never changes while they wait, which lets the queue
+ * stay a simple sorted set.
+ * <p>
+ * The priority of a queued {@link Task} can be changed with
+ * {@link PriorityTaskRunner#setPriority(Task, int)} as long as its execution has not started yet.
+ * A queued {@link Task} which is canceled or times out is removed from the queue right away.
+ */
+public class PriorityTaskRunner implements TaskRunner {
+
+    /**
+     * The default aging interval of one second.
+     */
+    public static final long DEFAULT_AGING_INTERVAL_MILLIS = 1000L;
+
+    private static final Comparator<Entry> ENTRY_COMPARATOR = (a, b) -> {
+        if (a.mSortKey != b.mSortKey) {
+            return a.mSortKey < b.mSortKey ? -1 : 1;
+        }
+        return a.mSequence < b.mSequence ? -1 : a.mSequence == b.mSequence ? 0 : 1;
+    };
+
+    private final TreeSet<Entry> mQueue = new TreeSet<>(ENTRY_COMPARATOR);
+    private final Map<Task<?>, Entry> mEntries = new IdentityHashMap<>();
+    private final Runnable mWorker = this::work;
+
+    private final Executor mExecutor;
+    private final int mParallelism;
+    private final long mAgingIntervalNanos;
+
+    private long mSequence;
+    private int mActiveWorkers;
+    private volatile int mState = STATE_RUNNING;
+    private volatile RunnerInstrumentation mInstrumentation;
+
+    public PriorityTaskRunner(Executor executor, int parallelism) {
+        this(executor, parallelism, DEFAULT_AGING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new {@link PriorityTaskRunner}.
+     *
+     * @param executor      The {@link Executor} on which the {@link Task Tasks} are executed.
+     * @param parallelism   The maximum number of {@link Task Tasks} executed at the same time.
+     * @param agingInterval The time an entry has to wait to be treated as if its priority was one higher.
+     * @param unit          The {@link TimeUnit} of the aging interval.
+     */
+    public PriorityTaskRunner(Executor executor, int parallelism, long agingInterval, TimeUnit unit) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1 but was " + parallelism);
+        }
+        if (agingInterval <= 0L) {
+            throw new IllegalArgumentException("Aging interval must be positive but was " + agingInterval);
+        }
+        mExecutor = executor;
+        mParallelism = parallelism;
+        mAgingIntervalNanos = unit.toNanos(agingInterval);
+    }
+
+    @Override
+    public <T> Task<T> queue(Callable<T> callable) {
+        return queue(callable, PRIORITY_DEFAULT);
+    }
+
+    @Override
+    public <T> Task<T> queue(Callable<T> callable, int priority) {
+        final Task<T> task = Task.from(callable);
+        final QueuedTask queuedTask = QueuedTask.create(task, mInstrumentation);
+        final boolean startWorker;
+        synchronized (mQueue) {
+            final Entry entry = new Entry(queuedTask, System.nanoTime(), mSequence++);
+            entry.setPriority(priority, mAgingIntervalNanos);
+            mQueue.add(entry);
+            mEntries.put(task, entry);
+            startWorker = tryReserveWorker();
+        }
+
+        // Registered after the entry was added, a Task canceled in the meantime is removed here.
+        TaskHooks.whenStopped(task, () -> remove(task));
+
+        if (startWorker) {
+            startWorker();
+        }
+        return task;
+    }
+
+    private void remove(Task<?> task) {
+        final Entry entry;
+        synchronized (mQueue) {
+            entry = mEntries.remove(task);
+            if (entry == null) {
+                return;
+            }
+            mQueue.remove(entry);
+        }
+        entry.mQueuedTask.discard();
+    }
+
+    /**
+     * Changes the priority of a {@link Task} queued in this {@link PriorityTaskRunner}. The time
+     * the {@link Task} has already waited still counts towards its aging.
+     *
+     * @param task     The {@link Task} whose priority should be changed.
+     * @param priority The new priority of the {@link Task}.
+     * @return Returns {@code true} if the priority was changed or {@code false} if the {@link Task}
+     * is not waiting in this {@link PriorityTaskRunner} - for example because it is already running.
+     */
+    public boolean setPriority(Task<?> task, int priority) {
+        synchronized (mQueue) {
+            final Entry entry = mEntries.get(task);
+            if (entry == null) {
+                return false;
+            }
+
+            mQueue.remove(entry);
+            entry.setPriority(priority, mAgingIntervalNanos);
+            mQueue.add(entry);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of {@link Task Tasks} waiting for execution.
+     *
+     * @return Returns the number of queued {@link Task Tasks}.
+     */
+    public int getQueuedCount() {
+        synchronized (mQueue) {
+            return mQueue.size();
+        }
+    }
+
+    @Override
+    public void setInstrumentation(RunnerInstrumentation instrumentation) {
+        mInstrumentation = instrumentation;
+    }
+
+    @Override
+    public int getState() {
+        return mState;
+    }
+
+    @Override
+    public void start() {
+        int workers = 0;
+        synchronized (mQueue) {
+            mState = STATE_RUNNING;
+            while (workers < mQueue.size() && tryReserveWorker()) {
+                workers++;
+            }
+        }
+
+        for (int i = 0; i < workers; i++) {
+            startWorker();
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (mQueue) {
+            mState = STATE_STOPPED;
+        }
+    }
+
+    private boolean tryReserveWorker() {
+        if (mState == STATE_RUNNING && mActiveWorkers < mParallelism) {
+            mActiveWorkers++;
+            return true;
+        }
+        return false;
+    }
+
+    private void startWorker() {
+        try {
+            mExecutor.execute(mWorker);
+        } catch (RuntimeException e) {
+            synchronized (mQueue) {
+                mActiveWorkers--;
+            }
+            throw e;
+        }
+    }
+
+    private void work() {
+        while (true) {
+            final Entry entry;
+            synchronized (mQueue) {
+                if (mState != STATE_RUNNING || mQueue.isEmpty()) {
+                    mActiveWorkers--;
+                    return;
+                }
+                entry = mQueue.pollFirst();
+                mEntries.remove(entry.mQueuedTask.mTask);
+            }
+
+            entry.mQueuedTask.run();
+        }
+    }
+
+    private static class Entry {
+
+        private final QueuedTask mQueuedTask;
+        private final long mEnqueueTime;
+        private final long mSequence;
+        private long mSortKey;
+
+        private Entry(QueuedTask queuedTask, long enqueueTime, long sequence) {
+            mQueuedTask = queuedTask;
+            mEnqueueTime = enqueueTime;
+            mSequence = sequence;
+        }
+
+        private void setPriority(int priority, long agingIntervalNanos) {
+            // An entry enqueued one aging interval earlier is equivalent to one priority level higher.
+            // Clamp the priority so extreme values cannot overflow the key.
+            final long limit = (Long.MAX_VALUE / 4) / agingIntervalNanos;
+            final long levels = Math.max(-limit, Math.min(limit, priority));
+            mSortKey = mEnqueueTime - levels * agingIntervalNanos;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+/**
+ * A {@link Task} waiting in the queue of a {@link TaskRunner}, together with the
+ * {@link RunnerInstrumentation} which was set when it was queued.
+ */
+final class QueuedTask implements Runnable {
+
+    final Task<?> mTask;
+    private final RunnerInstrumentation mInstrumentation;
+    private final long mQueueTime;
+
+    private QueuedTask(Task<?> task, RunnerInstrumentation instrumentation, long queueTime) {
+        mTask = task;
+        mInstrumentation = instrumentation;
+        mQueueTime = queueTime;
+    }
+
+    static QueuedTask create(Task<?> task, RunnerInstrumentation instrumentation) {
+        if (instrumentation == null) {
+            return new QueuedTask(task, null, 0L);
+        }
+
+        instrumentation.onTaskQueued();
+        return new QueuedTask(task, instrumentation, System.nanoTime());
+    }
+
+    @Override
+    public void run() {
+        final Runnable runnable = mTask.asRunnable();
+        if (mInstrumentation == null) {
+            runnable.run();
+            return;
+        }
+
+        // Tasks which were canceled while they were waiting are not executed, reporting them as
+        // started and finished would skew the wait and run times.
+        if (mTask.isDone()) {
+            mInstrumentation.onTaskDiscarded(System.nanoTime() - mQueueTime);
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+        mInstrumentation.onTaskStarted(startTime - mQueueTime);
+        try {
+            runnable.run();
+        } finally {
+            mInstrumentation.onTaskFinished(System.nanoTime() - startTime);
+        }
+    }
+
+    void discard() {
+        if (mInstrumentation != null) {
+            mInstrumentation.onTaskDiscarded(System.nanoTime() - mQueueTime);
+        }
+        mTask.cancel();
+    }
+}
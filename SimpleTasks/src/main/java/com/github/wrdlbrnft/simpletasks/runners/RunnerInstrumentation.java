@@ -0,0 +1,42 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+/**
+ * Receives events about the {@link Task Tasks} executed by a {@link TaskRunner}. Set it with
+ * {@link TaskRunner#setInstrumentation(RunnerInstrumentation)}. Every queued {@link Task} is
+ * either started and finished or discarded. {@link RunnerMetrics} is an implementation which
+ * records these events in histograms.
+ * <p>
+ * The methods are called on the threads which queue and execute the {@link Task Tasks}, so they
+ * have to be thread safe and fast.
+ */
+public interface RunnerInstrumentation {
+
+    /**
+     * Called when a {@link Task} was queued.
+     */
+    void onTaskQueued();
+
+    /**
+     * Called right before the execution of a {@link Task} starts.
+     *
+     * @param waitNanos The time in nanoseconds between queueing and starting the {@link Task}.
+     */
+    void onTaskStarted(long waitNanos);
+
+    /**
+     * Called right after the execution of a {@link Task} ended, regardless of its result.
+     *
+     * @param runNanos The time in nanoseconds the {@link Task} was executing.
+     */
+    void onTaskFinished(long runNanos);
+
+    /**
+     * Called when a queued {@link Task} was removed without being executed, for example because
+     * {@link BoundedTaskRunner#POLICY_DROP_OLDEST} dropped it.
+     *
+     * @param waitNanos The time in nanoseconds between queueing and discarding the {@link Task}.
+     */
+    void onTaskDiscarded(long waitNanos);
+}
@@ -0,0 +1,229 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.utils.LatencyHistogram;
+import com.github.wrdlbrnft.simpletasks.utils.StripedCounter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link RunnerInstrumentation} which records how long {@link Task Tasks} wait for execution
+ * and how long they execute in {@link LatencyHistogram LatencyHistograms}, counts completed
+ * {@link Task Tasks} to calculate the throughput and tracks how many {@link Task Tasks} are
+ * waiting or executing. Example:
+ * <pre>
+ *     RunnerMetrics metrics = new RunnerMetrics();
+ *     taskRunner.setInstrumentation(metrics);
+ *     ...
+ *     RunnerMetrics.Snapshot snapshot = metrics.snapshotAndReset();
+ *     long p99 = snapshot.getWaitTime().getPercentile(0.99, TimeUnit.MILLISECONDS);
+ * </pre>
+ * One instance may be shared by several {@link TaskRunner TaskRunners} to record their combined
+ * numbers.
+ */
+public final class RunnerMetrics implements RunnerInstrumentation {
+
+    private final LatencyHistogram mWaitTime = new LatencyHistogram();
+    private final LatencyHistogram mRunTime = new LatencyHistogram();
+    private final StripedCounter mDiscardedCount = new StripedCounter();
+    private final AtomicInteger mQueueDepth = new AtomicInteger();
+    private final AtomicInteger mMaxQueueDepth = new AtomicInteger();
+    private final AtomicInteger mRunningCount = new AtomicInteger();
+    private final AtomicLong mIntervalStart = new AtomicLong(System.nanoTime());
+
+    @Override
+    public void onTaskQueued() {
+        final int depth = mQueueDepth.incrementAndGet();
+        int max = mMaxQueueDepth.get();
+        while (depth > max && !mMaxQueueDepth.compareAndSet(max, depth)) {
+            max = mMaxQueueDepth.get();
+        }
+    }
+
+    @Override
+    public void onTaskStarted(long waitNanos) {
+        mQueueDepth.decrementAndGet();
+        mRunningCount.incrementAndGet();
+        mWaitTime.recordNanos(waitNanos);
+    }
+
+    @Override
+    public void onTaskFinished(long runNanos) {
+        mRunningCount.decrementAndGet();
+        mRunTime.recordNanos(runNanos);
+    }
+
+    @Override
+    public void onTaskDiscarded(long waitNanos) {
+        mQueueDepth.decrementAndGet();
+        mDiscardedCount.increment();
+    }
+
+    /**
+     * Returns a {@link Snapshot} of the recorded numbers.
+     *
+     * @return Returns a {@link Snapshot} of the recorded numbers.
+     */
+    public Snapshot snapshot() {
+        final long now = System.nanoTime();
+        return new Snapshot(
+                mWaitTime.snapshot(),
+                mRunTime.snapshot(),
+                mDiscardedCount.sum(),
+                mQueueDepth.get(),
+                mMaxQueueDepth.get(),
+                mRunningCount.get(),
+                now - mIntervalStart.get()
+        );
+    }
+
+    /**
+     * Returns a {@link Snapshot} of the recorded numbers and starts a new interval. The histograms,
+     * the discarded count and the maximum queue depth are reset, the current queue depth and the
+     * number of executing {@link Task Tasks} are not since they describe the current state. The
+     * values are reset one after another, so a {@link Task} which starts or finishes concurrently
+     * may be counted partly in the returned {@link Snapshot} and partly in the next one.
+     *
+     * @return Returns a {@link Snapshot} of the numbers recorded before the reset.
+     */
+    public Snapshot snapshotAndReset() {
+        final long now = System.nanoTime();
+        final int queueDepth = mQueueDepth.get();
+        return new Snapshot(
+                mWaitTime.snapshotAndReset(),
+                mRunTime.snapshotAndReset(),
+                mDiscardedCount.sumThenReset(),
+                queueDepth,
+                mMaxQueueDepth.getAndSet(queueDepth),
+                mRunningCount.get(),
+                now - mIntervalStart.getAndSet(now)
+        );
+    }
+
+    /**
+     * An immutable copy of the numbers recorded by a {@link RunnerMetrics} instance.
+     */
+    public static final class Snapshot {
+
+        private final LatencyHistogram.Snapshot mWaitTime;
+        private final LatencyHistogram.Snapshot mRunTime;
+        private final long mDiscardedCount;
+        private final int mQueueDepth;
+        private final int mMaxQueueDepth;
+        private final int mRunningCount;
+        private final long mIntervalNanos;
+
+        private Snapshot(LatencyHistogram.Snapshot waitTime, LatencyHistogram.Snapshot runTime, long discardedCount, int queueDepth, int maxQueueDepth, int runningCount, long intervalNanos) {
+            mWaitTime = waitTime;
+            mRunTime = runTime;
+            mDiscardedCount = discardedCount;
+            mQueueDepth = queueDepth;
+            mMaxQueueDepth = maxQueueDepth;
+            mRunningCount = runningCount;
+            mIntervalNanos = intervalNanos;
+        }
+
+        /**
+         * Returns the times {@link Task Tasks} waited between being queued and being started.
+         *
+         * @return Returns a {@link LatencyHistogram.Snapshot} of the wait times.
+         */
+        public LatencyHistogram.Snapshot getWaitTime() {
+            return mWaitTime;
+        }
+
+        /**
+         * Returns the times {@link Task Tasks} were executing.
+         *
+         * @return Returns a {@link LatencyHistogram.Snapshot} of the run times.
+         */
+        public LatencyHistogram.Snapshot getRunTime() {
+            return mRunTime;
+        }
+
+        /**
+         * Returns the number of {@link Task Tasks} which finished executing in this interval.
+         *
+         * @return Returns the number of completed {@link Task Tasks}.
+         */
+        public long getCompletedCount() {
+            return mRunTime.getCount();
+        }
+
+        /**
+         * Returns the number of queued {@link Task Tasks} which were discarded in this interval.
+         *
+         * @return Returns the number of discarded {@link Task Tasks}.
+         */
+        public long getDiscardedCount() {
+            return mDiscardedCount;
+        }
+
+        /**
+         * Returns the number of {@link Task Tasks} which were waiting for execution when this
+         * {@link Snapshot} was taken.
+         *
+         * @return Returns the current queue depth.
+         */
+        public int getQueueDepth() {
+            return mQueueDepth;
+        }
+
+        /**
+         * Returns the highest number of {@link Task Tasks} waiting for execution at the same
+         * time in this interval.
+         *
+         * @return Returns the maximum queue depth.
+         */
+        public int getMaxQueueDepth() {
+            return mMaxQueueDepth;
+        }
+
+        /**
+         * Returns the number of {@link Task Tasks} which were executing when this {@link Snapshot}
+         * was taken.
+         *
+         * @return Returns the number of executing {@link Task Tasks}.
+         */
+        public int getRunningCount() {
+            return mRunningCount;
+        }
+
+        /**
+         * Returns the length of the interval covered by this {@link Snapshot}, which starts when
+         * the {@link RunnerMetrics} was created or last reset.
+         *
+         * @param unit The {@link TimeUnit} of the returned value.
+         * @return Returns the length of the interval.
+         */
+        public long getInterval(TimeUnit unit) {
+            return unit.convert(mIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the number of {@link Task Tasks} completed per second in this interval.
+         *
+         * @return Returns the throughput in {@link Task Tasks} per second.
+         */
+        public double getThroughput() {
+            if (mIntervalNanos <= 0L) {
+                return 0.0;
+            }
+            return getCompletedCount() * (double) TimeUnit.SECONDS.toNanos(1L) / mIntervalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "RunnerMetrics.Snapshot{" +
+                    "completedCount=" + getCompletedCount() +
+                    ", discardedCount=" + mDiscardedCount +
+                    ", queueDepth=" + mQueueDepth +
+                    ", maxQueueDepth=" + mMaxQueueDepth +
+                    ", runningCount=" + mRunningCount +
+                    ", throughput=" + getThroughput() +
+                    '}';
+        }
+    }
+}
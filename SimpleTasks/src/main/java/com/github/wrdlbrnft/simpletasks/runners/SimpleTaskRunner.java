@@ -2,9 +2,11 @@ package com.github.wrdlbrnft.simpletasks.runners;
 
 import com.github.wrdlbrnft.simpletasks.tasks.Task;
 
-import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Created with Android Studio<br>
@@ -14,6 +16,19 @@ import java.util.concurrent.Callable;
  * A {@link TaskRunner} implementation meant to facilitate easy implementation of new
  * {@link TaskRunner TaskRunners.}. Takes care of state and queue management as well as
  * implementation specific threading concerns.
+ * <p>
+ * Nothing in this class takes a lock. While the {@link TaskRunner} is running and nothing is
+ * waiting in its queue, queued {@link Task Tasks} are handed to the {@link RunnableExecutor} right
+ * away. Otherwise they are added to a lock-free queue. {@link #start()} drains that queue without
+ * blocking submissions, but only one thread drains at a time and submissions made while the queue
+ * is drained are added to its end, so {@link Task Tasks} are handed to the
+ * {@link RunnableExecutor} in the order they were queued. A submission which races with
+ * {@link #start()} re-checks the state after adding its {@link Task} and helps draining, so no
+ * {@link Task} is left behind in the queue.
+ * <p>
+ * {@link #stop()} does not wait for submissions which are in progress. A {@link Task} which was
+ * queued concurrently with a call to {@link #stop()} may still be handed to the
+ * {@link RunnableExecutor} after {@link #stop()} returned.
  */
 public class SimpleTaskRunner implements TaskRunner {
 
@@ -21,44 +36,93 @@ public class SimpleTaskRunner implements TaskRunner {
         void run(Runnable runnable);
     }
 
-    private final Queue<Runnable> mTaskQueue = new ArrayDeque<>();
+    private final Queue<Runnable> mTaskQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Thread> mDrainingThread = new AtomicReference<>();
     private final RunnableExecutor mRunnableExecutor;
+    private final Executor mCallbackExecutor;
 
     private volatile int mState = STATE_RUNNING;
+    private volatile RunnerInstrumentation mInstrumentation;
 
     public SimpleTaskRunner(RunnableExecutor consumer) {
+        this(consumer, null);
+    }
+
+    /**
+     * Creates a new {@link SimpleTaskRunner} whose {@link Task Tasks} deliver their callbacks
+     * on the supplied {@link Executor}.
+     *
+     * @param consumer         Executes the {@link Runnable Runnables} of the queued {@link Task Tasks}.
+     * @param callbackExecutor The {@link Executor} used for callbacks or {@code null} to use the main thread.
+     */
+    public SimpleTaskRunner(RunnableExecutor consumer, Executor callbackExecutor) {
         mRunnableExecutor = consumer;
+        mCallbackExecutor = callbackExecutor;
     }
 
     @Override
-    public final synchronized <T> Task<T> queue(Callable<T> callable) {
+    public final <T> Task<T> queue(Callable<T> callable) {
         final Task<T> task = Task.from(callable);
-        final Runnable runnable = task.asRunnable();
-        if (mState == STATE_RUNNING) {
+        if (mCallbackExecutor != null) {
+            task.deliverCallbacksOn(mCallbackExecutor);
+        }
+        final RunnerInstrumentation instrumentation = mInstrumentation;
+        final Runnable runnable = instrumentation != null
+                ? QueuedTask.create(task, instrumentation)
+                : task.asRunnable();
+        // The queue has to be checked before the draining thread. A Runnable is only polled while
+        // a thread drains, so an empty queue and no draining thread mean everything queued before
+        // was already handed to the RunnableExecutor. A Task which runs on the draining thread
+        // itself and queues more work cannot wait for the queue, it would never be drained.
+        if (mState == STATE_RUNNING && (mDrainingThread.get() == Thread.currentThread()
+                || mTaskQueue.isEmpty() && mDrainingThread.get() == null)) {
             mRunnableExecutor.run(runnable);
-        } else {
-            mTaskQueue.add(runnable);
+            return task;
+        }
+
+        mTaskQueue.add(runnable);
+
+        // start() or another submission may have drained the queue before the add above.
+        if (mState == STATE_RUNNING) {
+            drain();
         }
         return task;
     }
 
     @Override
-    public final synchronized int getState() {
+    public void setInstrumentation(RunnerInstrumentation instrumentation) {
+        mInstrumentation = instrumentation;
+    }
+
+    @Override
+    public final int getState() {
         return mState;
     }
 
     @Override
-    public final synchronized void start() {
+    public final void start() {
         mState = STATE_RUNNING;
-
-        Runnable runnable;
-        while ((runnable = mTaskQueue.poll()) != null) {
-            mRunnableExecutor.run(runnable);
-        }
+        drain();
     }
 
     @Override
-    public final synchronized void stop() {
+    public final void stop() {
         mState = STATE_STOPPED;
     }
+
+    private void drain() {
+        // Only one thread drains at a time to keep the Runnables in order. Whoever stops draining
+        // checks the queue again, so a Runnable added in the meantime is not left behind.
+        // Draining stops as soon as the TaskRunner is stopped again.
+        while (mState == STATE_RUNNING && !mTaskQueue.isEmpty() && mDrainingThread.compareAndSet(null, Thread.currentThread())) {
+            try {
+                Runnable runnable;
+                while (mState == STATE_RUNNING && (runnable = mTaskQueue.poll()) != null) {
+                    mRunnableExecutor.run(runnable);
+                }
+            } finally {
+                mDrainingThread.set(null);
+            }
+        }
+    }
 }
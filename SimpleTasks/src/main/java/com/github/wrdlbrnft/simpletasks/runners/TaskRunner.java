@@ -2,10 +2,14 @@ package com.github.wrdlbrnft.simpletasks.runners;
 
 import android.os.Handler;
 
+import com.github.wrdlbrnft.simpletasks.tasks.DoubleTask;
+import com.github.wrdlbrnft.simpletasks.tasks.IntTask;
+import com.github.wrdlbrnft.simpletasks.tasks.LongTask;
 import com.github.wrdlbrnft.simpletasks.tasks.Task;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created with Android Studio<br>
@@ -36,6 +40,11 @@ public interface TaskRunner {
      */
     int STATE_STOPPED = 0x02;
 
+    /**
+     * The priority used for {@link Task Tasks} queued without an explicit priority.
+     */
+    int PRIORITY_DEFAULT = 0;
+
     /**
      * Queues a {@link Callable} to be executed as a {@link Task}. When and how execution of the
      * {@link Callable} takes places is defined by the implementation of the {@link TaskRunner}.
@@ -51,6 +60,152 @@ public interface TaskRunner {
      */
     <T> Task<T> queue(Callable<T> callable);
 
+    /**
+     * Queues a {@link IntTask.IntCallable} like {@link TaskRunner#queue(Callable)}. The result is
+     * stored and delivered to {@link com.github.wrdlbrnft.simpletasks.tasks.IntResultCallback IntResultCallbacks}
+     * as a {@code int} instead of a boxed {@link Integer}.
+     *
+     * @param callable The {@link IntTask.IntCallable} to be executed.
+     * @return Returns a {@link IntTask} instance representing the {@link IntTask.IntCallable}.
+     */
+    default IntTask queueInt(IntTask.IntCallable callable) {
+        return IntTask.queueOn(this, callable);
+    }
+
+    /**
+     * Queues a {@link LongTask.LongCallable} like {@link TaskRunner#queue(Callable)}. The result is
+     * stored and delivered to {@link com.github.wrdlbrnft.simpletasks.tasks.LongResultCallback LongResultCallbacks}
+     * as a {@code long} instead of a boxed {@link Long}.
+     *
+     * @param callable The {@link LongTask.LongCallable} to be executed.
+     * @return Returns a {@link LongTask} instance representing the {@link LongTask.LongCallable}.
+     */
+    default LongTask queueLong(LongTask.LongCallable callable) {
+        return LongTask.queueOn(this, callable);
+    }
+
+    /**
+     * Queues a {@link DoubleTask.DoubleCallable} like {@link TaskRunner#queue(Callable)}. The result is
+     * stored and delivered to {@link com.github.wrdlbrnft.simpletasks.tasks.DoubleResultCallback DoubleResultCallbacks}
+     * as a {@code double} instead of a boxed {@link Double}.
+     *
+     * @param callable The {@link DoubleTask.DoubleCallable} to be executed.
+     * @return Returns a {@link DoubleTask} instance representing the {@link DoubleTask.DoubleCallable}.
+     */
+    default DoubleTask queueDouble(DoubleTask.DoubleCallable callable) {
+        return DoubleTask.queueOn(this, callable);
+    }
+
+    /**
+     * Queues a {@link Callable} with a specific priority. {@link Task Tasks} with a higher
+     * priority are executed before {@link Task Tasks} with a lower priority if the implementation
+     * of the {@link TaskRunner} supports priorities, like the {@link PriorityTaskRunner}. All other
+     * implementations ignore the priority and behave exactly like {@link TaskRunner#queue(Callable)}.
+     *
+     * @param callable The {@link Callable} to be executed.
+     * @param priority The priority of the {@link Task}, higher values are executed first.
+     * @param <T>      The result of the {@link Callable} and {@link Task}
+     * @return Returns a {@link Task} instance representing the {@link Callable}.
+     */
+    default <T> Task<T> queue(Callable<T> callable, int priority) {
+        return queue(callable);
+    }
+
+    /**
+     * Queues a {@link Callable} with a deadline. The deadline starts when the {@link Callable} is
+     * queued, so time spent waiting for execution counts towards it. If the {@link Task} has not
+     * completed when the deadline elapses it is stopped and fails with a
+     * {@link com.github.wrdlbrnft.simpletasks.exceptions.TaskTimeoutException}, see
+     * {@link Task#withTimeout(long, TimeUnit)}.
+     *
+     * @param callable The {@link Callable} to be executed.
+     * @param timeout  The time after which the {@link Task} times out.
+     * @param unit     The {@link TimeUnit} of the timeout.
+     * @param <T>      The result of the {@link Callable} and {@link Task}
+     * @return Returns a {@link Task} instance representing the {@link Callable}.
+     */
+    default <T> Task<T> queue(Callable<T> callable, long timeout, TimeUnit unit) {
+        return queue(callable).withTimeout(timeout, unit);
+    }
+
+    /**
+     * Queues a {@link Callable} after the supplied delay. The returned {@link Task} represents the
+     * delayed execution, canceling it before the delay has elapsed prevents the {@link Callable}
+     * from being queued at all. The delay is tracked by a timer shared by all
+     * {@link TaskRunner TaskRunners}, no thread or {@link Handler} message is used per call.
+     *
+     * @param callable The {@link Callable} to be executed.
+     * @param delay    The delay after which the {@link Callable} is queued.
+     * @param unit     The {@link TimeUnit} of the delay.
+     * @param <T>      The result of the {@link Callable} and {@link Task}
+     * @return Returns a {@link Task} instance representing the delayed {@link Callable}.
+     */
+    default <T> Task<T> schedule(Callable<T> callable, long delay, TimeUnit unit) {
+        return Task.delay(delay, unit).flatMap(null, ignored -> queue(callable));
+    }
+
+    /**
+     * Queues a {@link Callable} repeatedly, first after the initial delay and then once per
+     * period. Executions never overlap: if one takes longer than the period the next one is
+     * queued as soon as it has completed.
+     * <p>
+     * The returned {@link Task} is a handle for the schedule and never completes successfully.
+     * Canceling it stops the schedule. If an execution fails the schedule stops and the returned
+     * {@link Task} fails with the same exception.
+     *
+     * @param callable     The {@link Callable} to be executed.
+     * @param initialDelay The delay before the first execution.
+     * @param period       The time between the starts of two executions.
+     * @param unit         The {@link TimeUnit} of the initial delay and the period.
+     * @return Returns a {@link Task} which represents the schedule.
+     */
+    default Task<Void> scheduleAtFixedRate(Callable<?> callable, long initialDelay, long period, TimeUnit unit) {
+        return PeriodicSchedule.start(this, callable, initialDelay, period, unit);
+    }
+
+    /**
+     * Creates a {@link Debouncer} which queues the supplied {@link Callable} on this
+     * {@link TaskRunner} once {@link Debouncer#trigger()} has not been called for the supplied delay.
+     *
+     * @param callable The {@link Callable} to be executed.
+     * @param delay    The quiet time after the last trigger before the {@link Callable} is queued.
+     * @param unit     The {@link TimeUnit} of the delay.
+     * @param <T>      The result of the {@link Callable}.
+     * @return Returns the newly created {@link Debouncer}.
+     */
+    default <T> Debouncer<T> debounce(Callable<T> callable, long delay, TimeUnit unit) {
+        return new Debouncer<>(this, callable, delay, unit);
+    }
+
+    /**
+     * Creates a {@link Throttler} which queues the supplied {@link Callable} on this
+     * {@link TaskRunner} at most once per interval when {@link Throttler#trigger()} is called.
+     *
+     * @param callable The {@link Callable} to be executed.
+     * @param interval The minimum time between two executions.
+     * @param unit     The {@link TimeUnit} of the interval.
+     * @param <T>      The result of the {@link Callable}.
+     * @return Returns the newly created {@link Throttler}.
+     */
+    default <T> Throttler<T> throttle(Callable<T> callable, long interval, TimeUnit unit) {
+        return new Throttler<>(this, callable, interval, unit);
+    }
+
+    /**
+     * Sets a {@link RunnerInstrumentation} which is notified when {@link Task Tasks} are queued,
+     * started and finished, for example a {@link RunnerMetrics} instance. Only {@link Task Tasks}
+     * queued after this call are reported. Pass {@code null} to disable instrumentation, which
+     * is the default and costs close to nothing.
+     * <p>
+     * All {@link TaskRunner} implementations in this library support instrumentation. The default
+     * implementation of this method does nothing, so custom implementations which do not
+     * override it simply report no events.
+     *
+     * @param instrumentation The {@link RunnerInstrumentation} or {@code null}.
+     */
+    default void setInstrumentation(RunnerInstrumentation instrumentation) {
+    }
+
     /**
      * Returns the current state of the {@link TaskRunner}.
      * The returned states may be:
@@ -109,4 +264,57 @@ public interface TaskRunner {
     static TaskRunner runOn(Handler handler) {
         return new SimpleTaskRunner(handler::post);
     }
+
+    /**
+     * Creates a {@link TaskRunner} which executes tasks on an Executor and delivers the callbacks
+     * of those tasks on a second Executor instead of the main thread.
+     *
+     * @param executor         The Executor used to run the tasks.
+     * @param callbackExecutor The Executor used to execute the callbacks of the tasks.
+     * @return Returns the newly created {@link TaskRunner}.
+     * @see Task#deliverCallbacksOn(Executor)
+     */
+    static TaskRunner runOn(Executor executor, Executor callbackExecutor) {
+        return new SimpleTaskRunner(executor::execute, callbackExecutor);
+    }
+
+    /**
+     * Creates a {@link TaskRunner} which executes tasks on a {@link Handler} and delivers the
+     * callbacks of those tasks on an Executor instead of the main thread.
+     *
+     * @param handler          A {@link Handler} used to run the tasks.
+     * @param callbackExecutor The Executor used to execute the callbacks of the tasks.
+     * @return Returns the newly created {@link TaskRunner}.
+     * @see Task#deliverCallbacksOn(Executor)
+     */
+    static TaskRunner runOn(Handler handler, Executor callbackExecutor) {
+        return new SimpleTaskRunner(handler::post, callbackExecutor);
+    }
+
+    /**
+     * Creates a {@link PriorityTaskRunner} which executes tasks on an Executor ordered by their
+     * priority. At most {@code parallelism} tasks are executed at the same time.
+     *
+     * @param executor    The Executor used to run the tasks.
+     * @param parallelism The maximum number of tasks executed at the same time.
+     * @return Returns the newly created {@link PriorityTaskRunner}.
+     */
+    static PriorityTaskRunner runWithPriorities(Executor executor, int parallelism) {
+        return new PriorityTaskRunner(executor, parallelism);
+    }
+
+    /**
+     * Creates a {@link BoundedTaskRunner} which executes at most {@code maxConcurrency} tasks at
+     * the same time on an Executor and lets at most {@code maxQueued} tasks wait for execution.
+     *
+     * @param executor       The Executor used to run the tasks.
+     * @param maxConcurrency The maximum number of tasks executed at the same time.
+     * @param maxQueued      The maximum number of tasks waiting for execution.
+     * @param policy         What happens when the queue is full, one of the
+     *                       {@code BoundedTaskRunner.POLICY_*} constants.
+     * @return Returns the newly created {@link BoundedTaskRunner}.
+     */
+    static BoundedTaskRunner runBounded(Executor executor, int maxConcurrency, int maxQueued, int policy) {
+        return new BoundedTaskRunner(executor, maxConcurrency, maxQueued, policy);
+    }
 }
@@ -0,0 +1,106 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.StubTask;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues a {@link Callable} on a {@link TaskRunner} at most once per interval. The first call to
+ * {@link Throttler#trigger()} queues the {@link Callable} right away. Calls during the following
+ * interval are combined into a single trailing execution at the end of the interval, and they all
+ * return the {@link Task} of that execution. Create instances with
+ * {@link TaskRunner#throttle(Callable, long, TimeUnit)}.
+ * <p>
+ * The interval is tracked by {@link TaskTimer}, so no thread or {@link android.os.Looper} is required.
+ *
+ * @param <T> The type of the result of the {@link Callable}.
+ */
+public final class Throttler<T> {
+
+    private final TaskRunner mRunner;
+    private final Callable<T> mCallable;
+    private final long mIntervalNanos;
+
+    private StubTask<T> mTrailingTask;
+    private TaskTimer.Timeout mTimeout;
+    private long mGeneration;
+    private long mNextExecutionTime;
+    private boolean mExecuted;
+
+    Throttler(TaskRunner runner, Callable<T> callable, long interval, TimeUnit unit) {
+        if (interval <= 0L) {
+            throw new IllegalArgumentException("Interval must be positive but was " + interval);
+        }
+        mRunner = runner;
+        mCallable = callable;
+        mIntervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Queues the {@link Callable} now if it was not queued during the last interval, otherwise
+     * schedules a trailing execution at the end of the interval.
+     *
+     * @return Returns the {@link Task} of the execution which covers this call.
+     */
+    public Task<T> trigger() {
+        final StubTask<T> trailingTask;
+        synchronized (this) {
+            if (mTrailingTask != null && !mTrailingTask.isDone()) {
+                return mTrailingTask;
+            }
+
+            final long now = System.nanoTime();
+            if (!mExecuted || now - mNextExecutionTime >= 0L) {
+                mExecuted = true;
+                mNextExecutionTime = now + mIntervalNanos;
+                trailingTask = null;
+            } else {
+                if (mTimeout != null) {
+                    mTimeout.cancel();
+                }
+                trailingTask = StubTask.create();
+                mTrailingTask = trailingTask;
+                final long generation = ++mGeneration;
+                mTimeout = TaskTimer.schedule(() -> executeTrailing(trailingTask, generation), mNextExecutionTime - now, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (trailingTask != null) {
+            return trailingTask;
+        }
+        return mRunner.queue(mCallable);
+    }
+
+    /**
+     * Cancels the pending trailing execution, if any.
+     */
+    public synchronized void cancel() {
+        mGeneration++;
+        if (mTimeout != null) {
+            mTimeout.cancel();
+            mTimeout = null;
+        }
+        if (mTrailingTask != null) {
+            mTrailingTask.cancel();
+            mTrailingTask = null;
+        }
+    }
+
+    private void executeTrailing(StubTask<T> task, long generation) {
+        synchronized (this) {
+            if (generation != mGeneration) {
+                return;
+            }
+            mTrailingTask = null;
+            mTimeout = null;
+            mNextExecutionTime = System.nanoTime() + mIntervalNanos;
+        }
+
+        if (!task.isDone()) {
+            task.notifyFrom(mRunner.queue(mCallable));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskExecutionException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable {@link Task} which is completed from the start, returned by
+ * {@link Task#withResult(Object)} and {@link Task#withError(Throwable)}. It consists of a single
+ * object and its {@link TaskResult} without any synchronization, {@code null} and {@link Boolean}
+ * results share instances.
+ * <p>
+ * Callbacks are called right away on the calling thread, just like callbacks attached to any
+ * other {@link Task} after it has completed. Lifecycle aware callbacks are skipped if their
+ * {@link Lifecycle} has already been destroyed, like they are by every other {@link Task}. Since
+ * there is nothing to deliver later the callback {@link Executor} is only passed on to
+ * {@link Task Tasks} derived from this one.
+ */
+final class CompletedTask<T> implements Task<T> {
+
+    private static final CompletedTask<?> NULL = new CompletedTask<>(new TaskResult<>(TaskResult.STATE_RESULT, null, null), null);
+    private static final CompletedTask<Boolean> TRUE = new CompletedTask<>(new TaskResult<>(TaskResult.STATE_RESULT, Boolean.TRUE, null), null);
+    private static final CompletedTask<Boolean> FALSE = new CompletedTask<>(new TaskResult<>(TaskResult.STATE_RESULT, Boolean.FALSE, null), null);
+
+    private static final Runnable NO_OP = () -> {
+    };
+
+    private final TaskResult<T> mResult;
+    private final Executor mCallbackExecutor;
+
+    private CompletedTask(TaskResult<T> result, Executor callbackExecutor) {
+        mResult = result;
+        mCallbackExecutor = callbackExecutor;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> CompletedTask<T> withResult(T result) {
+        if (result == null) {
+            return (CompletedTask<T>) NULL;
+        }
+        if (result == Boolean.TRUE) {
+            return (CompletedTask<T>) TRUE;
+        }
+        if (result == Boolean.FALSE) {
+            return (CompletedTask<T>) FALSE;
+        }
+        return new CompletedTask<>(new TaskResult<>(TaskResult.STATE_RESULT, result, null), null);
+    }
+
+    static <T> CompletedTask<T> withResult(T result, Executor callbackExecutor) {
+        if (callbackExecutor == null) {
+            return withResult(result);
+        }
+        return new CompletedTask<>(new TaskResult<>(TaskResult.STATE_RESULT, result, null), callbackExecutor);
+    }
+
+    static <T> CompletedTask<T> withError(Throwable error) {
+        if (error == null) {
+            throw new NullPointerException("The error of a failed Task must not be null.");
+        }
+        return new CompletedTask<>(new TaskResult<>(TaskResult.STATE_ERROR, null, error), null);
+    }
+
+    @Override
+    public Task<T> onResult(ResultCallback<T> callback) {
+        if (mResult.getState() == TaskResult.STATE_RESULT) {
+            callback.onResult(mResult.getResult());
+        }
+        return this;
+    }
+
+    @Override
+    public Task<T> onResult(Lifecycle lifecycle, ResultCallback<T> callback) {
+        if (isAlive(lifecycle)) {
+            onResult(callback);
+        }
+        return this;
+    }
+
+    @Override
+    public Task<T> onError(ErrorCallback callback) {
+        if (mResult.getState() == TaskResult.STATE_ERROR) {
+            callback.onError(mResult.getException());
+        }
+        return this;
+    }
+
+    @Override
+    public Task<T> onError(Lifecycle lifecycle, ErrorCallback callback) {
+        if (isAlive(lifecycle)) {
+            onError(callback);
+        }
+        return this;
+    }
+
+    @Override
+    public Task<T> onCanceled(CancelCallback callback) {
+        return this;
+    }
+
+    @Override
+    public Task<T> onCanceled(Lifecycle lifecycle, CancelCallback callback) {
+        return this;
+    }
+
+    @Override
+    public Task<T> deliverCallbacksOn(Executor executor) {
+        if (executor == mCallbackExecutor) {
+            return this;
+        }
+        return new CompletedTask<>(mResult, executor);
+    }
+
+    @Override
+    public Task<T> cancelWhenOrphaned() {
+        return this;
+    }
+
+    @Override
+    public T await() {
+        if (mResult.getState() == TaskResult.STATE_ERROR) {
+            throw new TaskExecutionException("Task could not be completed.", mResult.getException());
+        }
+        return mResult.getResult();
+    }
+
+    @Override
+    public T await(long timeout) {
+        return await();
+    }
+
+    @Override
+    public T await(long timeout, TimeUnit unit) {
+        return await();
+    }
+
+    @Override
+    public void cancel() {
+    }
+
+    @Override
+    public Task<T> withTimeout(long timeout, TimeUnit unit) {
+        return this;
+    }
+
+    @Override
+    public boolean isDone() {
+        return true;
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return false;
+    }
+
+    @Override
+    public Runnable asRunnable() {
+        return NO_OP;
+    }
+
+    TaskResult<T> getResult() {
+        return mResult;
+    }
+
+    Executor getCallbackExecutorOrNull() {
+        return mCallbackExecutor;
+    }
+
+    private static boolean isAlive(Lifecycle lifecycle) {
+        return lifecycle.getCurrentState() != Lifecycle.State.DESTROYED;
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+/**
+ * Receives the result of a {@link DoubleTask} without boxing it.
+ */
+public interface DoubleResultCallback {
+
+    /**
+     * Called when the {@link DoubleTask} is completed successfully.
+     *
+     * @param result The result of the {@link DoubleTask}.
+     */
+    void onResult(double result);
+}
@@ -0,0 +1,205 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskCanceledException;
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskExecutionException;
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskTimeoutException;
+import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Task} which produces a {@code double}, for example a measurement. The result is stored
+ * and delivered to {@link DoubleResultCallback DoubleResultCallbacks} without boxing. Apart from that
+ * it behaves exactly like a {@link Task}, use {@link DoubleTask#boxed()} and
+ * {@link DoubleTask#unbox(Task)} to convert between the two.
+ */
+public interface DoubleTask {
+
+    /**
+     * A {@link java.util.concurrent.Callable} which returns a {@code double}. Used with
+     * {@link TaskRunner#queueDouble(DoubleCallable)}.
+     */
+    interface DoubleCallable {
+        double call() throws Exception;
+    }
+
+    /**
+     * Adds a {@link DoubleResultCallback} which is called when the {@link DoubleTask} completes
+     * successfully, see {@link Task#onResult(ResultCallback)}.
+     *
+     * @param callback The {@link DoubleResultCallback} that will be attached to the {@link DoubleTask}.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask onResult(DoubleResultCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link DoubleResultCallback}, see
+     * {@link Task#onResult(Lifecycle, ResultCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link DoubleResultCallback} that will be attached to the {@link DoubleTask}.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask onResult(Lifecycle lifecycle, DoubleResultCallback callback);
+
+    /**
+     * Adds an {@link ErrorCallback}, see {@link Task#onError(ErrorCallback)}.
+     *
+     * @param callback The {@link ErrorCallback} that will be attached to the {@link DoubleTask}.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask onError(ErrorCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link ErrorCallback}, see
+     * {@link Task#onError(Lifecycle, ErrorCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link ErrorCallback} that will be attached to the {@link DoubleTask}.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask onError(Lifecycle lifecycle, ErrorCallback callback);
+
+    /**
+     * Adds a {@link CancelCallback}, see {@link Task#onCanceled(CancelCallback)}.
+     *
+     * @param callback The {@link CancelCallback} that will be attached to the {@link DoubleTask}.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask onCanceled(CancelCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link CancelCallback}, see
+     * {@link Task#onCanceled(Lifecycle, CancelCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link CancelCallback} that will be attached to the {@link DoubleTask}.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask onCanceled(Lifecycle lifecycle, CancelCallback callback);
+
+    /**
+     * Sets the {@link Executor} on which callbacks are executed, see
+     * {@link Task#deliverCallbacksOn(Executor)}.
+     *
+     * @param executor The {@link Executor} used to execute callbacks.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask deliverCallbacksOn(Executor executor);
+
+    /**
+     * Cancels this {@link DoubleTask} once nobody is interested in its result anymore, see
+     * {@link Task#cancelWhenOrphaned()}.
+     *
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask cancelWhenOrphaned();
+
+    /**
+     * Waits for the {@link DoubleTask} to complete, see {@link Task#await()}.
+     *
+     * @return Returns the result of the {@link DoubleTask}.
+     * @throws TaskExecutionException Thrown if the {@link DoubleTask} throws an
+     *                                {@link Exception} while executing.
+     * @throws TaskCanceledException  Thrown if the {@link DoubleTask} is canceled.
+     */
+    double await() throws TaskExecutionException, TaskCanceledException;
+
+    /**
+     * Waits for the {@link DoubleTask} to complete for the supplied amount of time, see
+     * {@link Task#await(long, TimeUnit)}.
+     *
+     * @param timeout The amount of time which should be waited for the {@link DoubleTask} to be
+     *                completed.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the result of the {@link DoubleTask}.
+     * @throws TaskExecutionException Thrown if the {@link DoubleTask} throws an
+     *                                {@link Exception} while executing.
+     * @throws TaskCanceledException  Thrown if the {@link DoubleTask} is canceled.
+     * @throws TaskTimeoutException   Thrown if the timeout is reached before the
+     *                                {@link DoubleTask} is completed.
+     */
+    double await(long timeout, TimeUnit unit) throws TaskExecutionException, TaskCanceledException, TaskTimeoutException;
+
+    /**
+     * Cancels the {@link DoubleTask}.
+     */
+    void cancel();
+
+    /**
+     * Gives this {@link DoubleTask} a deadline, see {@link Task#withTimeout(long, TimeUnit)}.
+     *
+     * @param timeout The amount of time after which the {@link DoubleTask} is stopped.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the same {@link DoubleTask} instance to enable call chaining.
+     */
+    DoubleTask withTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * Returns whether this {@link DoubleTask} has completed - either successfully, with an error or
+     * because it was canceled.
+     *
+     * @return Returns {@code true} if this {@link DoubleTask} has completed.
+     */
+    boolean isDone();
+
+    /**
+     * Returns whether this {@link DoubleTask} was canceled.
+     *
+     * @return Returns {@code true} if this {@link DoubleTask} was canceled.
+     */
+    boolean isCanceled();
+
+    /**
+     * Returns a {@link Runnable} which encapsulates this {@link DoubleTask}.
+     *
+     * @return Returns this {@link DoubleTask} as a {@link Runnable}.
+     */
+    Runnable asRunnable();
+
+    /**
+     * Returns a {@link Task} which completes with the boxed result of this {@link DoubleTask}.
+     * Canceling the returned {@link Task} also cancels this {@link DoubleTask}.
+     *
+     * @return Returns a new {@link Task} which yields the boxed result.
+     */
+    Task<Double> boxed();
+
+    /**
+     * Creates a new {@link DoubleTask} from a {@link DoubleCallable}, like {@link Task#from(java.util.concurrent.Callable)}.
+     *
+     * @param callable The {@link DoubleCallable} which contains the work to be executed.
+     * @return Returns a new {@link DoubleTask} instance which will run the supplied {@link DoubleCallable} when executed.
+     */
+    static DoubleTask from(DoubleCallable callable) {
+        return new DoubleTaskImpl(PrimitiveTaskImpl.from(() -> Double.doubleToRawLongBits(callable.call())));
+    }
+
+    /**
+     * Queues a {@link DoubleCallable} on the supplied {@link TaskRunner}. Usually called through
+     * {@link TaskRunner#queueDouble(DoubleCallable)}.
+     *
+     * @param runner   The {@link TaskRunner} which executes the {@link DoubleCallable}.
+     * @param callable The {@link DoubleCallable} to be executed.
+     * @return Returns a {@link DoubleTask} instance representing the {@link DoubleCallable}.
+     */
+    static DoubleTask queueOn(TaskRunner runner, DoubleCallable callable) {
+        return new DoubleTaskImpl(PrimitiveTaskImpl.queueOn(runner, () -> Double.doubleToRawLongBits(callable.call())));
+    }
+
+    /**
+     * Returns a {@link DoubleTask} which completes with the unboxed result of the supplied
+     * {@link Task}. If the {@link Task} yields {@code null} the {@link DoubleTask} fails with a
+     * {@link NullPointerException}. Canceling the returned {@link DoubleTask} also cancels the
+     * supplied {@link Task}.
+     *
+     * @param task The {@link Task} whose result is unboxed.
+     * @return Returns a new {@link DoubleTask} which yields the unboxed result.
+     */
+    static DoubleTask unbox(Task<Double> task) {
+        return new DoubleTaskImpl(PrimitiveTaskImpl.unbox(task, value -> Double.doubleToRawLongBits(value)));
+    }
+}
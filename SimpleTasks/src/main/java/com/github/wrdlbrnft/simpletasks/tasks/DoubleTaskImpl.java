@@ -0,0 +1,93 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link DoubleTask} implementation, backed by a {@link PrimitiveTaskImpl}.
+ */
+final class DoubleTaskImpl extends PrimitiveTaskImpl implements DoubleTask {
+
+    DoubleTaskImpl(CoreFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    public DoubleTask onResult(DoubleResultCallback callback) {
+        mTask.onResult(ignored -> callback.onResult(getResult()));
+        return this;
+    }
+
+    @Override
+    public DoubleTask onResult(Lifecycle lifecycle, DoubleResultCallback callback) {
+        mTask.onResult(lifecycle, ignored -> callback.onResult(getResult()));
+        return this;
+    }
+
+    @Override
+    public DoubleTask onError(ErrorCallback callback) {
+        mTask.onError(callback);
+        return this;
+    }
+
+    @Override
+    public DoubleTask onError(Lifecycle lifecycle, ErrorCallback callback) {
+        mTask.onError(lifecycle, callback);
+        return this;
+    }
+
+    @Override
+    public DoubleTask onCanceled(CancelCallback callback) {
+        mTask.onCanceled(callback);
+        return this;
+    }
+
+    @Override
+    public DoubleTask onCanceled(Lifecycle lifecycle, CancelCallback callback) {
+        mTask.onCanceled(lifecycle, callback);
+        return this;
+    }
+
+    @Override
+    public DoubleTask deliverCallbacksOn(Executor executor) {
+        setCallbackExecutor(executor);
+        return this;
+    }
+
+    @Override
+    public DoubleTask cancelWhenOrphaned() {
+        mTask.cancelWhenOrphaned();
+        return this;
+    }
+
+    @Override
+    public double await() {
+        return fromBits(awaitBits());
+    }
+
+    @Override
+    public double await(long timeout, TimeUnit unit) {
+        return fromBits(awaitBits(timeout, unit));
+    }
+
+    @Override
+    public DoubleTask withTimeout(long timeout, TimeUnit unit) {
+        mTask.withTimeout(timeout, unit);
+        return this;
+    }
+
+    @Override
+    public Task<Double> boxed() {
+        return box(DoubleTaskImpl::fromBits);
+    }
+
+    private double getResult() {
+        return fromBits(getBits());
+    }
+
+    private static double fromBits(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+}
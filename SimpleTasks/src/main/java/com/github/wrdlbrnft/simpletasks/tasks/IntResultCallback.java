@@ -0,0 +1,14 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+/**
+ * Receives the result of an {@link IntTask} without boxing it.
+ */
+public interface IntResultCallback {
+
+    /**
+     * Called when the {@link IntTask} is completed successfully.
+     *
+     * @param result The result of the {@link IntTask}.
+     */
+    void onResult(int result);
+}
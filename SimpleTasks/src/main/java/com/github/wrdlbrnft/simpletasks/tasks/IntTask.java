@@ -0,0 +1,205 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskCanceledException;
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskExecutionException;
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskTimeoutException;
+import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Task} which produces a {@code int}, for example a count. The result is stored
+ * and delivered to {@link IntResultCallback IntResultCallbacks} without boxing. Apart from that
+ * it behaves exactly like a {@link Task}, use {@link IntTask#boxed()} and
+ * {@link IntTask#unbox(Task)} to convert between the two.
+ */
+public interface IntTask {
+
+    /**
+     * A {@link java.util.concurrent.Callable} which returns a {@code int}. Used with
+     * {@link TaskRunner#queueInt(IntCallable)}.
+     */
+    interface IntCallable {
+        int call() throws Exception;
+    }
+
+    /**
+     * Adds a {@link IntResultCallback} which is called when the {@link IntTask} completes
+     * successfully, see {@link Task#onResult(ResultCallback)}.
+     *
+     * @param callback The {@link IntResultCallback} that will be attached to the {@link IntTask}.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask onResult(IntResultCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link IntResultCallback}, see
+     * {@link Task#onResult(Lifecycle, ResultCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link IntResultCallback} that will be attached to the {@link IntTask}.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask onResult(Lifecycle lifecycle, IntResultCallback callback);
+
+    /**
+     * Adds an {@link ErrorCallback}, see {@link Task#onError(ErrorCallback)}.
+     *
+     * @param callback The {@link ErrorCallback} that will be attached to the {@link IntTask}.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask onError(ErrorCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link ErrorCallback}, see
+     * {@link Task#onError(Lifecycle, ErrorCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link ErrorCallback} that will be attached to the {@link IntTask}.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask onError(Lifecycle lifecycle, ErrorCallback callback);
+
+    /**
+     * Adds a {@link CancelCallback}, see {@link Task#onCanceled(CancelCallback)}.
+     *
+     * @param callback The {@link CancelCallback} that will be attached to the {@link IntTask}.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask onCanceled(CancelCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link CancelCallback}, see
+     * {@link Task#onCanceled(Lifecycle, CancelCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link CancelCallback} that will be attached to the {@link IntTask}.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask onCanceled(Lifecycle lifecycle, CancelCallback callback);
+
+    /**
+     * Sets the {@link Executor} on which callbacks are executed, see
+     * {@link Task#deliverCallbacksOn(Executor)}.
+     *
+     * @param executor The {@link Executor} used to execute callbacks.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask deliverCallbacksOn(Executor executor);
+
+    /**
+     * Cancels this {@link IntTask} once nobody is interested in its result anymore, see
+     * {@link Task#cancelWhenOrphaned()}.
+     *
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask cancelWhenOrphaned();
+
+    /**
+     * Waits for the {@link IntTask} to complete, see {@link Task#await()}.
+     *
+     * @return Returns the result of the {@link IntTask}.
+     * @throws TaskExecutionException Thrown if the {@link IntTask} throws an
+     *                                {@link Exception} while executing.
+     * @throws TaskCanceledException  Thrown if the {@link IntTask} is canceled.
+     */
+    int await() throws TaskExecutionException, TaskCanceledException;
+
+    /**
+     * Waits for the {@link IntTask} to complete for the supplied amount of time, see
+     * {@link Task#await(long, TimeUnit)}.
+     *
+     * @param timeout The amount of time which should be waited for the {@link IntTask} to be
+     *                completed.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the result of the {@link IntTask}.
+     * @throws TaskExecutionException Thrown if the {@link IntTask} throws an
+     *                                {@link Exception} while executing.
+     * @throws TaskCanceledException  Thrown if the {@link IntTask} is canceled.
+     * @throws TaskTimeoutException   Thrown if the timeout is reached before the
+     *                                {@link IntTask} is completed.
+     */
+    int await(long timeout, TimeUnit unit) throws TaskExecutionException, TaskCanceledException, TaskTimeoutException;
+
+    /**
+     * Cancels the {@link IntTask}.
+     */
+    void cancel();
+
+    /**
+     * Gives this {@link IntTask} a deadline, see {@link Task#withTimeout(long, TimeUnit)}.
+     *
+     * @param timeout The amount of time after which the {@link IntTask} is stopped.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the same {@link IntTask} instance to enable call chaining.
+     */
+    IntTask withTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * Returns whether this {@link IntTask} has completed - either successfully, with an error or
+     * because it was canceled.
+     *
+     * @return Returns {@code true} if this {@link IntTask} has completed.
+     */
+    boolean isDone();
+
+    /**
+     * Returns whether this {@link IntTask} was canceled.
+     *
+     * @return Returns {@code true} if this {@link IntTask} was canceled.
+     */
+    boolean isCanceled();
+
+    /**
+     * Returns a {@link Runnable} which encapsulates this {@link IntTask}.
+     *
+     * @return Returns this {@link IntTask} as a {@link Runnable}.
+     */
+    Runnable asRunnable();
+
+    /**
+     * Returns a {@link Task} which completes with the boxed result of this {@link IntTask}.
+     * Canceling the returned {@link Task} also cancels this {@link IntTask}.
+     *
+     * @return Returns a new {@link Task} which yields the boxed result.
+     */
+    Task<Integer> boxed();
+
+    /**
+     * Creates a new {@link IntTask} from a {@link IntCallable}, like {@link Task#from(java.util.concurrent.Callable)}.
+     *
+     * @param callable The {@link IntCallable} which contains the work to be executed.
+     * @return Returns a new {@link IntTask} instance which will run the supplied {@link IntCallable} when executed.
+     */
+    static IntTask from(IntCallable callable) {
+        return new IntTaskImpl(PrimitiveTaskImpl.from(() -> callable.call()));
+    }
+
+    /**
+     * Queues a {@link IntCallable} on the supplied {@link TaskRunner}. Usually called through
+     * {@link TaskRunner#queueInt(IntCallable)}.
+     *
+     * @param runner   The {@link TaskRunner} which executes the {@link IntCallable}.
+     * @param callable The {@link IntCallable} to be executed.
+     * @return Returns a {@link IntTask} instance representing the {@link IntCallable}.
+     */
+    static IntTask queueOn(TaskRunner runner, IntCallable callable) {
+        return new IntTaskImpl(PrimitiveTaskImpl.queueOn(runner, () -> callable.call()));
+    }
+
+    /**
+     * Returns a {@link IntTask} which completes with the unboxed result of the supplied
+     * {@link Task}. If the {@link Task} yields {@code null} the {@link IntTask} fails with a
+     * {@link NullPointerException}. Canceling the returned {@link IntTask} also cancels the
+     * supplied {@link Task}.
+     *
+     * @param task The {@link Task} whose result is unboxed.
+     * @return Returns a new {@link IntTask} which yields the unboxed result.
+     */
+    static IntTask unbox(Task<Integer> task) {
+        return new IntTaskImpl(PrimitiveTaskImpl.unbox(task, value -> value.longValue()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link IntTask} implementation, backed by a {@link PrimitiveTaskImpl}.
+ */
+final class IntTaskImpl extends PrimitiveTaskImpl implements IntTask {
+
+    IntTaskImpl(CoreFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    public IntTask onResult(IntResultCallback callback) {
+        mTask.onResult(ignored -> callback.onResult(getResult()));
+        return this;
+    }
+
+    @Override
+    public IntTask onResult(Lifecycle lifecycle, IntResultCallback callback) {
+        mTask.onResult(lifecycle, ignored -> callback.onResult(getResult()));
+        return this;
+    }
+
+    @Override
+    public IntTask onError(ErrorCallback callback) {
+        mTask.onError(callback);
+        return this;
+    }
+
+    @Override
+    public IntTask onError(Lifecycle lifecycle, ErrorCallback callback) {
+        mTask.onError(lifecycle, callback);
+        return this;
+    }
+
+    @Override
+    public IntTask onCanceled(CancelCallback callback) {
+        mTask.onCanceled(callback);
+        return this;
+    }
+
+    @Override
+    public IntTask onCanceled(Lifecycle lifecycle, CancelCallback callback) {
+        mTask.onCanceled(lifecycle, callback);
+        return this;
+    }
+
+    @Override
+    public IntTask deliverCallbacksOn(Executor executor) {
+        setCallbackExecutor(executor);
+        return this;
+    }
+
+    @Override
+    public IntTask cancelWhenOrphaned() {
+        mTask.cancelWhenOrphaned();
+        return this;
+    }
+
+    @Override
+    public int await() {
+        return fromBits(awaitBits());
+    }
+
+    @Override
+    public int await(long timeout, TimeUnit unit) {
+        return fromBits(awaitBits(timeout, unit));
+    }
+
+    @Override
+    public IntTask withTimeout(long timeout, TimeUnit unit) {
+        mTask.withTimeout(timeout, unit);
+        return this;
+    }
+
+    @Override
+    public Task<Integer> boxed() {
+        return box(IntTaskImpl::fromBits);
+    }
+
+    private int getResult() {
+        return fromBits(getBits());
+    }
+
+    private static int fromBits(long bits) {
+        return (int) bits;
+    }
+}
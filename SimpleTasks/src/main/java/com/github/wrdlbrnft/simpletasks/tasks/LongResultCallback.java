@@ -0,0 +1,14 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+/**
+ * Receives the result of a {@link LongTask} without boxing it.
+ */
+public interface LongResultCallback {
+
+    /**
+     * Called when the {@link LongTask} is completed successfully.
+     *
+     * @param result The result of the {@link LongTask}.
+     */
+    void onResult(long result);
+}
@@ -0,0 +1,205 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskCanceledException;
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskExecutionException;
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskTimeoutException;
+import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Task} which produces a {@code long}, for example an id or a size. The result is stored
+ * and delivered to {@link LongResultCallback LongResultCallbacks} without boxing. Apart from that
+ * it behaves exactly like a {@link Task}, use {@link LongTask#boxed()} and
+ * {@link LongTask#unbox(Task)} to convert between the two.
+ */
+public interface LongTask {
+
+    /**
+     * A {@link java.util.concurrent.Callable} which returns a {@code long}. Used with
+     * {@link TaskRunner#queueLong(LongCallable)}.
+     */
+    interface LongCallable {
+        long call() throws Exception;
+    }
+
+    /**
+     * Adds a {@link LongResultCallback} which is called when the {@link LongTask} completes
+     * successfully, see {@link Task#onResult(ResultCallback)}.
+     *
+     * @param callback The {@link LongResultCallback} that will be attached to the {@link LongTask}.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask onResult(LongResultCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link LongResultCallback}, see
+     * {@link Task#onResult(Lifecycle, ResultCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link LongResultCallback} that will be attached to the {@link LongTask}.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask onResult(Lifecycle lifecycle, LongResultCallback callback);
+
+    /**
+     * Adds an {@link ErrorCallback}, see {@link Task#onError(ErrorCallback)}.
+     *
+     * @param callback The {@link ErrorCallback} that will be attached to the {@link LongTask}.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask onError(ErrorCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link ErrorCallback}, see
+     * {@link Task#onError(Lifecycle, ErrorCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link ErrorCallback} that will be attached to the {@link LongTask}.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask onError(Lifecycle lifecycle, ErrorCallback callback);
+
+    /**
+     * Adds a {@link CancelCallback}, see {@link Task#onCanceled(CancelCallback)}.
+     *
+     * @param callback The {@link CancelCallback} that will be attached to the {@link LongTask}.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask onCanceled(CancelCallback callback);
+
+    /**
+     * Adds a lifecycle aware {@link CancelCallback}, see
+     * {@link Task#onCanceled(Lifecycle, CancelCallback)}.
+     *
+     * @param lifecycle The {@link Lifecycle} which limits when the callback is called.
+     * @param callback  The {@link CancelCallback} that will be attached to the {@link LongTask}.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask onCanceled(Lifecycle lifecycle, CancelCallback callback);
+
+    /**
+     * Sets the {@link Executor} on which callbacks are executed, see
+     * {@link Task#deliverCallbacksOn(Executor)}.
+     *
+     * @param executor The {@link Executor} used to execute callbacks.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask deliverCallbacksOn(Executor executor);
+
+    /**
+     * Cancels this {@link LongTask} once nobody is interested in its result anymore, see
+     * {@link Task#cancelWhenOrphaned()}.
+     *
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask cancelWhenOrphaned();
+
+    /**
+     * Waits for the {@link LongTask} to complete, see {@link Task#await()}.
+     *
+     * @return Returns the result of the {@link LongTask}.
+     * @throws TaskExecutionException Thrown if the {@link LongTask} throws an
+     *                                {@link Exception} while executing.
+     * @throws TaskCanceledException  Thrown if the {@link LongTask} is canceled.
+     */
+    long await() throws TaskExecutionException, TaskCanceledException;
+
+    /**
+     * Waits for the {@link LongTask} to complete for the supplied amount of time, see
+     * {@link Task#await(long, TimeUnit)}.
+     *
+     * @param timeout The amount of time which should be waited for the {@link LongTask} to be
+     *                completed.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the result of the {@link LongTask}.
+     * @throws TaskExecutionException Thrown if the {@link LongTask} throws an
+     *                                {@link Exception} while executing.
+     * @throws TaskCanceledException  Thrown if the {@link LongTask} is canceled.
+     * @throws TaskTimeoutException   Thrown if the timeout is reached before the
+     *                                {@link LongTask} is completed.
+     */
+    long await(long timeout, TimeUnit unit) throws TaskExecutionException, TaskCanceledException, TaskTimeoutException;
+
+    /**
+     * Cancels the {@link LongTask}.
+     */
+    void cancel();
+
+    /**
+     * Gives this {@link LongTask} a deadline, see {@link Task#withTimeout(long, TimeUnit)}.
+     *
+     * @param timeout The amount of time after which the {@link LongTask} is stopped.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the same {@link LongTask} instance to enable call chaining.
+     */
+    LongTask withTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * Returns whether this {@link LongTask} has completed - either successfully, with an error or
+     * because it was canceled.
+     *
+     * @return Returns {@code true} if this {@link LongTask} has completed.
+     */
+    boolean isDone();
+
+    /**
+     * Returns whether this {@link LongTask} was canceled.
+     *
+     * @return Returns {@code true} if this {@link LongTask} was canceled.
+     */
+    boolean isCanceled();
+
+    /**
+     * Returns a {@link Runnable} which encapsulates this {@link LongTask}.
+     *
+     * @return Returns this {@link LongTask} as a {@link Runnable}.
+     */
+    Runnable asRunnable();
+
+    /**
+     * Returns a {@link Task} which completes with the boxed result of this {@link LongTask}.
+     * Canceling the returned {@link Task} also cancels this {@link LongTask}.
+     *
+     * @return Returns a new {@link Task} which yields the boxed result.
+     */
+    Task<Long> boxed();
+
+    /**
+     * Creates a new {@link LongTask} from a {@link LongCallable}, like {@link Task#from(java.util.concurrent.Callable)}.
+     *
+     * @param callable The {@link LongCallable} which contains the work to be executed.
+     * @return Returns a new {@link LongTask} instance which will run the supplied {@link LongCallable} when executed.
+     */
+    static LongTask from(LongCallable callable) {
+        return new LongTaskImpl(PrimitiveTaskImpl.from(() -> callable.call()));
+    }
+
+    /**
+     * Queues a {@link LongCallable} on the supplied {@link TaskRunner}. Usually called through
+     * {@link TaskRunner#queueLong(LongCallable)}.
+     *
+     * @param runner   The {@link TaskRunner} which executes the {@link LongCallable}.
+     * @param callable The {@link LongCallable} to be executed.
+     * @return Returns a {@link LongTask} instance representing the {@link LongCallable}.
+     */
+    static LongTask queueOn(TaskRunner runner, LongCallable callable) {
+        return new LongTaskImpl(PrimitiveTaskImpl.queueOn(runner, () -> callable.call()));
+    }
+
+    /**
+     * Returns a {@link LongTask} which completes with the unboxed result of the supplied
+     * {@link Task}. If the {@link Task} yields {@code null} the {@link LongTask} fails with a
+     * {@link NullPointerException}. Canceling the returned {@link LongTask} also cancels the
+     * supplied {@link Task}.
+     *
+     * @param task The {@link Task} whose result is unboxed.
+     * @return Returns a new {@link LongTask} which yields the unboxed result.
+     */
+    static LongTask unbox(Task<Long> task) {
+        return new LongTaskImpl(PrimitiveTaskImpl.unbox(task, value -> value));
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link LongTask} implementation, backed by a {@link PrimitiveTaskImpl}.
+ */
+final class LongTaskImpl extends PrimitiveTaskImpl implements LongTask {
+
+    LongTaskImpl(CoreFactory factory) {
+        super(factory);
+    }
+
+    @Override
+    public LongTask onResult(LongResultCallback callback) {
+        mTask.onResult(ignored -> callback.onResult(getResult()));
+        return this;
+    }
+
+    @Override
+    public LongTask onResult(Lifecycle lifecycle, LongResultCallback callback) {
+        mTask.onResult(lifecycle, ignored -> callback.onResult(getResult()));
+        return this;
+    }
+
+    @Override
+    public LongTask onError(ErrorCallback callback) {
+        mTask.onError(callback);
+        return this;
+    }
+
+    @Override
+    public LongTask onError(Lifecycle lifecycle, ErrorCallback callback) {
+        mTask.onError(lifecycle, callback);
+        return this;
+    }
+
+    @Override
+    public LongTask onCanceled(CancelCallback callback) {
+        mTask.onCanceled(callback);
+        return this;
+    }
+
+    @Override
+    public LongTask onCanceled(Lifecycle lifecycle, CancelCallback callback) {
+        mTask.onCanceled(lifecycle, callback);
+        return this;
+    }
+
+    @Override
+    public LongTask deliverCallbacksOn(Executor executor) {
+        setCallbackExecutor(executor);
+        return this;
+    }
+
+    @Override
+    public LongTask cancelWhenOrphaned() {
+        mTask.cancelWhenOrphaned();
+        return this;
+    }
+
+    @Override
+    public long await() {
+        return fromBits(awaitBits());
+    }
+
+    @Override
+    public long await(long timeout, TimeUnit unit) {
+        return fromBits(awaitBits(timeout, unit));
+    }
+
+    @Override
+    public LongTask withTimeout(long timeout, TimeUnit unit) {
+        mTask.withTimeout(timeout, unit);
+        return this;
+    }
+
+    @Override
+    public Task<Long> boxed() {
+        return box(LongTaskImpl::fromBits);
+    }
+
+    private long getResult() {
+        return fromBits(getBits());
+    }
+
+    private static long fromBits(long bits) {
+        return bits;
+    }
+}
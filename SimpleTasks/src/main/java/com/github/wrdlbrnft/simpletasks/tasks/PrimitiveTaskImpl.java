@@ -0,0 +1,123 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of {@link IntTask}, {@link LongTask} and {@link DoubleTask}. The state, callbacks,
+ * cancellation and deadlines are handled by a {@link Task Task&lt;Void&gt;} core. The primitive
+ * result is stored as raw bits in a plain field which is written before the core completes, so
+ * everyone who observes the completed core also sees the result without it ever being boxed.
+ */
+abstract class PrimitiveTaskImpl {
+
+    interface CoreFactory {
+        Task<Void> create(PrimitiveTaskImpl target);
+    }
+
+    interface BitsCallable {
+        long call() throws Exception;
+    }
+
+    interface Unboxer<B> {
+        long toBits(B value);
+    }
+
+    interface Boxer<B> {
+        B fromBits(long bits);
+    }
+
+    volatile Task<Void> mTask;
+
+    private long mBits;
+
+    PrimitiveTaskImpl(CoreFactory factory) {
+        mTask = factory.create(this);
+    }
+
+    static CoreFactory queueOn(TaskRunner runner, BitsCallable callable) {
+        return target -> runner.queue(target.storing(callable));
+    }
+
+    static CoreFactory from(BitsCallable callable) {
+        return target -> new TaskImpl<>(target.storing(callable));
+    }
+
+    static <B> CoreFactory unbox(Task<B> source, Unboxer<B> unboxer) {
+        return target -> {
+            final TaskImpl<Void> core = TaskOperators.derive(source);
+            TaskOperators.whenComplete(source, result -> {
+                if (result.getState() != TaskResult.STATE_RESULT) {
+                    TaskOperators.forward(result, core);
+                    return;
+                }
+
+                final B value = result.getResult();
+                if (value == null) {
+                    core.complete(new TaskResult<>(TaskResult.STATE_ERROR, null, new NullPointerException("Task returned null instead of a primitive result.")));
+                    return;
+                }
+                target.mBits = unboxer.toBits(value);
+                core.complete(new TaskResult<>(TaskResult.STATE_RESULT, null, null));
+            });
+            return core;
+        };
+    }
+
+    private Callable<Void> storing(BitsCallable callable) {
+        return () -> {
+            mBits = callable.call();
+            return null;
+        };
+    }
+
+    void setCallbackExecutor(Executor executor) {
+        // An immutable core, for example the Task of a rejected submission, returns a copy.
+        mTask = mTask.deliverCallbacksOn(executor);
+    }
+
+    long getBits() {
+        return mBits;
+    }
+
+    long awaitBits() {
+        mTask.await();
+        return mBits;
+    }
+
+    long awaitBits(long timeout, TimeUnit unit) {
+        mTask.await(timeout, unit);
+        return mBits;
+    }
+
+    <B> Task<B> box(Boxer<B> boxer) {
+        final TaskImpl<B> target = TaskOperators.derive(mTask);
+        TaskOperators.whenComplete(mTask, result -> {
+            if (result.getState() == TaskResult.STATE_RESULT) {
+                target.complete(new TaskResult<>(TaskResult.STATE_RESULT, boxer.fromBits(mBits), null));
+            } else {
+                TaskOperators.forward(result, target);
+            }
+        });
+        return target;
+    }
+
+    public void cancel() {
+        mTask.cancel();
+    }
+
+    public boolean isDone() {
+        return mTask.isDone();
+    }
+
+    public boolean isCanceled() {
+        return mTask.isCanceled();
+    }
+
+    public Runnable asRunnable() {
+        return mTask.asRunnable();
+    }
+}
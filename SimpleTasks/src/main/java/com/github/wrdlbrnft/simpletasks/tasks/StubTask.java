@@ -10,6 +10,15 @@ public interface StubTask<T> extends Task<T> {
     void notifyResult(T result);
     void notifyError(Throwable throwable);
 
+    /**
+     * Completes this {@link StubTask} with the outcome of the supplied {@link Task} as soon as it
+     * completes. If this {@link StubTask} is canceled first then the supplied {@link Task} is
+     * canceled as well.
+     *
+     * @param task The {@link Task} whose outcome should be forwarded to this {@link StubTask}.
+     */
+    void notifyFrom(Task<T> task);
+
     static <T> StubTask<T> create() {
         return StubTaskImpl.newInstance();
     }
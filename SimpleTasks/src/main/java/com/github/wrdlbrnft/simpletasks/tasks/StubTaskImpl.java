@@ -1,10 +1,5 @@
 package com.github.wrdlbrnft.simpletasks.tasks;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-
 /**
  * Created with Android Studio<br>
  * User: Xaver<br>
@@ -14,84 +9,25 @@ import java.util.concurrent.ExecutionException;
 class StubTaskImpl<T> extends TaskImpl<T> implements StubTask<T> {
 
     static <T> StubTaskImpl<T> newInstance() {
-        return new StubTaskImpl<>(new ResultCallable<>());
+        return new StubTaskImpl<>();
     }
 
-    private final ResultCallable<T> mCallable;
-
-    private StubTaskImpl(ResultCallable<T> callable) {
-        super(callable);
-        mCallable = callable;
+    private StubTaskImpl() {
+        super(null);
     }
 
     @Override
     public void notifyResult(T result) {
-        mCallable.notifyResult(result);
-        if (!mCallable.isInProgressOrDone()) {
-            run();
-        }
+        complete(new TaskResult<>(TaskResult.STATE_RESULT, result, null));
     }
 
     @Override
     public void notifyError(Throwable throwable) {
-        mCallable.notifyError(throwable);
-        if (!mCallable.isInProgressOrDone()) {
-            run();
-        }
+        complete(new TaskResult<>(TaskResult.STATE_ERROR, null, throwable));
     }
 
-    private static class ResultCallable<T> implements Callable<T> {
-
-        private final BlockingQueue<ResultWrapper<T>> mQueue = new ArrayBlockingQueue<>(1);
-
-        private volatile boolean mInProgressOrDone = false;
-
-        @Override
-        public T call() throws Exception {
-            mInProgressOrDone = true;
-            final ResultWrapper<T> result = mQueue.take();
-            if (result.isSuccess()) {
-                return result.getResult();
-            }
-
-            throw new ExecutionException(result.getThrowable());
-        }
-
-        public boolean isInProgressOrDone() {
-            return mInProgressOrDone;
-        }
-
-        public void notifyResult(T result) {
-            mQueue.add(new ResultWrapper<>(result, null, true));
-        }
-
-        public void notifyError(Throwable throwable) {
-            mQueue.add(new ResultWrapper<>(null, throwable, false));
-        }
-    }
-
-    private static class ResultWrapper<T> {
-
-        private final T mResult;
-        private final Throwable mThrowable;
-        private final boolean mSuccess;
-
-        private ResultWrapper(T result, Throwable throwable, boolean success) {
-            mResult = result;
-            mThrowable = throwable;
-            mSuccess = success;
-        }
-
-        public boolean isSuccess() {
-            return mSuccess;
-        }
-
-        public T getResult() {
-            return mResult;
-        }
-
-        public Throwable getThrowable() {
-            return mThrowable;
-        }
+    @Override
+    public void notifyFrom(Task<T> task) {
+        TaskOperators.pipe(task, this);
     }
 }
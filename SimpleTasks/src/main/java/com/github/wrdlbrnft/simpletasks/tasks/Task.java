@@ -6,8 +6,13 @@ import com.github.wrdlbrnft.simpletasks.exceptions.TaskCanceledException;
 import com.github.wrdlbrnft.simpletasks.exceptions.TaskExecutionException;
 import com.github.wrdlbrnft.simpletasks.exceptions.TaskTimeoutException;
 import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created with Android Studio<br>
@@ -18,11 +23,55 @@ import java.util.concurrent.Callable;
  */
 public interface Task<T> {
 
+    /**
+     * Transforms the result of a {@link Task}. Used with {@link Task#map(TaskRunner, Mapper)}.
+     *
+     * @param <T> The type of the result of the source {@link Task}.
+     * @param <R> The type of the transformed result.
+     */
+    interface Mapper<T, R> {
+        R map(T value) throws Exception;
+    }
+
+    /**
+     * Transforms the result of a {@link Task} into another {@link Task}. Used with
+     * {@link Task#flatMap(TaskRunner, FlatMapper)}.
+     *
+     * @param <T> The type of the result of the source {@link Task}.
+     * @param <R> The type of the result of the returned {@link Task}.
+     */
+    interface FlatMapper<T, R> {
+        Task<R> flatMap(T value) throws Exception;
+    }
+
+    /**
+     * Combines the results of two {@link Task Tasks}. Used with
+     * {@link Task#thenCombine(Task, TaskRunner, Combiner)}.
+     *
+     * @param <A> The type of the result of the first {@link Task}.
+     * @param <B> The type of the result of the second {@link Task}.
+     * @param <R> The type of the combined result.
+     */
+    interface Combiner<A, B, R> {
+        R combine(A first, B second) throws Exception;
+    }
+
+    /**
+     * Produces a replacement result when a {@link Task} fails. Used with
+     * {@link Task#recover(TaskRunner, Recovery)}.
+     *
+     * @param <T> The type of the result of the {@link Task}.
+     */
+    interface Recovery<T> {
+        T recover(Throwable error) throws Exception;
+    }
+
     /**
      * Adds a {@link ResultCallback} to this {@link Task} which is called when the {@link Task}
      * completes successfully.
      * <p>
-     * The {@link ResultCallback} is executed on the applications main thread.
+     * The {@link ResultCallback} is executed on the callback {@link Executor} of this {@link Task},
+     * by default on the applications main thread.
      *
      * @param callback The {@link ResultCallback} that will be attached to the {@link Task}.
      * @return Returns the same {@link Task} instance to enable call chaining.
@@ -32,9 +81,11 @@ public interface Task<T> {
     /**
      * Adds a lifecycle aware {@link ResultCallback} to this {@link Task} which is called when the {@link Task}
      * completes successfully. If the owner of the supplied lifecycle is destroyed the callback is
-     * detached automatically.
+     * detached automatically. The callback is never called if the {@link Lifecycle} has already
+     * been destroyed, even if the {@link Task} has already completed.
      * <p>
-     * The {@link ResultCallback} is executed on the applications main thread.
+     * The {@link ResultCallback} is executed on the callback {@link Executor} of this {@link Task},
+     * by default on the applications main thread.
      *
      * @param lifecycle The {@link Lifecycle} which should be observed for this callback.
      * @param callback  The {@link ResultCallback} that will be attached to the {@link Task}.
@@ -46,7 +97,8 @@ public interface Task<T> {
      * Adds an {@link ErrorCallback} to this {@link Task} which is called when the {@link Task}
      * throws an {@link Exception}.
      * <p>
-     * The {@link ErrorCallback} is executed on the applications main thread.
+     * The {@link ErrorCallback} is executed on the callback {@link Executor} of this {@link Task},
+     * by default on the applications main thread.
      *
      * @param callback The {@link ErrorCallback} that will be attached to the {@link Task}.
      * @return Returns the same {@link Task} instance to enable call chaining.
@@ -56,9 +108,11 @@ public interface Task<T> {
     /**
      * Adds a lifecycle aware {@link ErrorCallback} to this {@link Task} which is called when the {@link Task}
      * throws an {@link Exception}. If the owner of the supplied lifecycle is destroyed the callback is
-     * detached automatically.
+     * detached automatically. The callback is never called if the {@link Lifecycle} has already
+     * been destroyed, even if the {@link Task} has already completed.
      * <p>
-     * The {@link ErrorCallback} is executed on the applications main thread.
+     * The {@link ErrorCallback} is executed on the callback {@link Executor} of this {@link Task},
+     * by default on the applications main thread.
      *
      * @param lifecycle The {@link Lifecycle} which should be observed for this callback.
      * @param callback  The {@link ErrorCallback} that will be attached to the {@link Task}.
@@ -70,7 +124,8 @@ public interface Task<T> {
      * Adds a {@link CancelCallback} to this {@link Task} which is called when the {@link Task}
      * is canceled.
      * <p>
-     * The {@link CancelCallback} is executed on the applications main thread.
+     * The {@link CancelCallback} is executed on the callback {@link Executor} of this {@link Task},
+     * by default on the applications main thread.
      *
      * @param callback The {@link CancelCallback} that will be attached to the {@link Task}.
      * @return Returns the same {@link Task} instance to enable call chaining.
@@ -80,9 +135,11 @@ public interface Task<T> {
     /**
      * Adds a lifecycle aware {@link CancelCallback} to this {@link Task} which is called when the {@link Task}
      * is canceled. If the owner of the supplied lifecycle is destroyed the callback is
-     * detached automatically.
+     * detached automatically. The callback is never called if the {@link Lifecycle} has already
+     * been destroyed, even if the {@link Task} has already completed.
      * <p>
-     * The {@link CancelCallback} is executed on the applications main thread.
+     * The {@link CancelCallback} is executed on the callback {@link Executor} of this {@link Task},
+     * by default on the applications main thread.
      *
      * @param lifecycle The {@link Lifecycle} which should be observed for this callback.
      * @param callback  The {@link CancelCallback} that will be attached to the {@link Task}.
@@ -90,6 +147,50 @@ public interface Task<T> {
      */
     Task<T> onCanceled(Lifecycle lifecycle, CancelCallback callback);
 
+    /**
+     * Sets the {@link Executor} on which the callbacks of this {@link Task} are executed when it
+     * completes. By default callbacks are executed on the applications main thread. Use
+     * {@link com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors#direct()} to execute them
+     * directly on the thread which completed the {@link Task}.
+     * <p>
+     * Callbacks attached to a {@link Task} which is already completed are always executed
+     * immediately on the calling thread.
+     * <p>
+     * The {@link Task Tasks} returned by {@link #withResult(Object)} and {@link #withError(Throwable)}
+     * are immutable, for them this method returns a new {@link Task} with the supplied
+     * {@link Executor}. Callers must always continue with the returned {@link Task}.
+     * <p>
+     * The default implementation ignores the {@link Executor} and returns this {@link Task}.
+     *
+     * @param executor The {@link Executor} used to execute the callbacks of this {@link Task}.
+     * @return Returns the {@link Task} to use from now on, which may not be this instance.
+     */
+    default Task<T> deliverCallbacksOn(Executor executor) {
+        return this;
+    }
+
+    /**
+     * Cancels this {@link Task} automatically once nobody is interested in its result anymore.
+     * Every callback attached with a {@link Lifecycle} counts as interest until the
+     * {@link Lifecycle} is destroyed. When the last of them is destroyed and neither a callback
+     * without a {@link Lifecycle} was attached nor a thread is waiting in {@link Task#await()},
+     * the {@link Task} is canceled just like with {@link Task#cancel()} and stops executing.
+     * {@link Task Tasks} derived from this one, for example with {@link Task#map(TaskRunner, Mapper)}
+     * or {@link Task#allOf(Collection)}, count as interest without a {@link Lifecycle}, so this
+     * {@link Task} is not canceled while they may still need its result.
+     * <p>
+     * {@link com.github.wrdlbrnft.simpletasks.managers.TaskManager TaskManagers} do this for
+     * their shared {@link Task Tasks} by default.
+     *
+     * <p>
+     * The default implementation does not track interest and never cancels this {@link Task}.
+     *
+     * @return Returns the same {@link Task} instance to enable call chaining.
+     */
+    default Task<T> cancelWhenOrphaned() {
+        return this;
+    }
+
     /**
      * Waits for the {@link Task} to complete and then returns the result.
      * <p>
@@ -135,11 +236,92 @@ public interface Task<T> {
      */
     T await(long timeout) throws TaskExecutionException, TaskCanceledException, TaskTimeoutException;
 
+    /**
+     * Waits for the {@link Task} to complete for the supplied amount of time, like
+     * {@link Task#await(long)}. Any number of threads can wait for the same {@link Task} at the
+     * same time. Reaching the timeout only affects the calling thread, the {@link Task} itself
+     * keeps running and later calls to {@link Task#await()} still return its result.
+     *
+     * @param timeout The amount of time which should be waited for the {@link Task} to be
+     *                completed.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the result of the {@link Task}.
+     * @throws TaskExecutionException Thrown if the {@link Task} throws an
+     *                                {@link Exception} while executing.
+     * @throws TaskCanceledException  Thrown if the {@link Task} is canceled.
+     * @throws TaskTimeoutException   Thrown if the timeout is reached before the
+     *                                {@link Task} is completed.
+     */
+    default T await(long timeout, TimeUnit unit) throws TaskExecutionException, TaskCanceledException, TaskTimeoutException {
+        return await(unit.toMillis(timeout));
+    }
+
     /**
      * Cancels the {@link Task}.
      */
     void cancel();
 
+    /**
+     * Gives this {@link Task} a deadline. If the {@link Task} has not completed when the timeout
+     * elapses its execution is stopped like with {@link Task#cancel()}: the thread executing it is
+     * interrupted and a {@link Task} which has not started yet never runs. Instead of being
+     * canceled the {@link Task} then fails with a {@link TaskTimeoutException}, which is passed
+     * to its {@link ErrorCallback ErrorCallbacks} and thrown by {@link Task#await()}.
+     * <p>
+     * No thread waits for the deadline, it is tracked by
+     * {@link com.github.wrdlbrnft.simpletasks.utils.TaskTimer} and may elapse up to one timer tick
+     * late. If the {@link Task} is already completed this method has no effect.
+     * <p>
+     * The default implementation cannot fail the {@link Task}, it calls {@link Task#cancel()}
+     * when the timeout elapses instead.
+     *
+     * @param timeout The time after which this {@link Task} times out.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return Returns the same {@link Task} instance to enable call chaining.
+     */
+    default Task<T> withTimeout(long timeout, TimeUnit unit) {
+        TaskTimer.schedule(this::cancel, timeout, unit);
+        return this;
+    }
+
+    /**
+     * Returns whether this {@link Task} has completed - either successfully, with an error or
+     * because it was canceled.
+     *
+     * <p>
+     * The default implementation checks with {@link Task#await(long)} and a timeout of zero.
+     *
+     * @return Returns {@code true} if this {@link Task} has completed.
+     */
+    default boolean isDone() {
+        try {
+            await(0L);
+            return true;
+        } catch (TaskTimeoutException e) {
+            return false;
+        } catch (TaskExecutionException | TaskCanceledException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns whether this {@link Task} was canceled.
+     * <p>
+     * The default implementation checks with {@link Task#await(long)} and a timeout of zero.
+     *
+     * @return Returns {@code true} if this {@link Task} was canceled.
+     */
+    default boolean isCanceled() {
+        try {
+            await(0L);
+            return false;
+        } catch (TaskCanceledException e) {
+            return true;
+        } catch (TaskExecutionException | TaskTimeoutException e) {
+            return false;
+        }
+    }
+
     /**
      * Returns a {@link Runnable} which encapsulates this {@link Task}.
      *
@@ -147,6 +329,82 @@ public interface Task<T> {
      */
     Runnable asRunnable();
 
+    /**
+     * Returns a new {@link Task} which yields the result of this {@link Task} transformed by the
+     * supplied {@link Mapper}. The {@link Mapper} is queued on the supplied {@link TaskRunner} as
+     * soon as this {@link Task} completes successfully, no thread is blocked while waiting.
+     * <p>
+     * If this {@link Task} fails or is canceled then the returned {@link Task} fails or is canceled
+     * as well. Canceling the returned {@link Task} also cancels this {@link Task}.
+     *
+     * @param runner The {@link TaskRunner} used to run the {@link Mapper} or {@code null} to run it
+     *               directly on the thread which completes this {@link Task}.
+     * @param mapper The {@link Mapper} which transforms the result.
+     * @param <R>    The type of the transformed result.
+     * @return Returns a new {@link Task} which yields the transformed result.
+     */
+    default <R> Task<R> map(TaskRunner runner, Mapper<T, R> mapper) {
+        return TaskOperators.map(this, runner, mapper);
+    }
+
+    /**
+     * Returns a new {@link Task} which yields the result of the {@link Task} returned by the
+     * supplied {@link FlatMapper}. The {@link FlatMapper} is queued on the supplied
+     * {@link TaskRunner} as soon as this {@link Task} completes successfully, no thread is blocked
+     * while waiting for either {@link Task}.
+     * <p>
+     * If this {@link Task} or the {@link Task} returned by the {@link FlatMapper} fails or is
+     * canceled then the returned {@link Task} fails or is canceled as well. Canceling the returned
+     * {@link Task} also cancels this {@link Task} and the {@link Task} returned by the
+     * {@link FlatMapper}.
+     *
+     * @param runner The {@link TaskRunner} used to run the {@link FlatMapper} or {@code null} to run
+     *               it directly on the thread which completes this {@link Task}.
+     * @param mapper The {@link FlatMapper} which creates the next {@link Task}.
+     * @param <R>    The type of the result of the next {@link Task}.
+     * @return Returns a new {@link Task} which yields the result of the next {@link Task}.
+     */
+    default <R> Task<R> flatMap(TaskRunner runner, FlatMapper<T, R> mapper) {
+        return TaskOperators.flatMap(this, runner, mapper);
+    }
+
+    /**
+     * Returns a new {@link Task} which yields the results of this and another {@link Task}
+     * combined by the supplied {@link Combiner}. The {@link Combiner} is queued on the supplied
+     * {@link TaskRunner} as soon as both {@link Task Tasks} have completed successfully.
+     * <p>
+     * If either {@link Task} fails or is canceled then the returned {@link Task} fails or is
+     * canceled as well. Canceling the returned {@link Task} also cancels both source {@link Task Tasks}.
+     *
+     * @param other    The {@link Task} whose result is combined with the result of this {@link Task}.
+     * @param runner   The {@link TaskRunner} used to run the {@link Combiner} or {@code null} to run
+     *                 it directly on the thread which completes the second {@link Task}.
+     * @param combiner The {@link Combiner} which combines both results.
+     * @param <U>      The type of the result of the other {@link Task}.
+     * @param <R>      The type of the combined result.
+     * @return Returns a new {@link Task} which yields the combined result.
+     */
+    default <U, R> Task<R> thenCombine(Task<U> other, TaskRunner runner, Combiner<T, U, R> combiner) {
+        return TaskOperators.combine(this, other, runner, combiner);
+    }
+
+    /**
+     * Returns a new {@link Task} which yields the result of this {@link Task} or - if this
+     * {@link Task} fails - the result of the supplied {@link Recovery}. The {@link Recovery} is
+     * queued on the supplied {@link TaskRunner} as soon as this {@link Task} fails.
+     * <p>
+     * If this {@link Task} is canceled then the returned {@link Task} is canceled as well.
+     * Canceling the returned {@link Task} also cancels this {@link Task}.
+     *
+     * @param runner   The {@link TaskRunner} used to run the {@link Recovery} or {@code null} to run
+     *                 it directly on the thread which completes this {@link Task}.
+     * @param recovery The {@link Recovery} which produces a replacement result.
+     * @return Returns a new {@link Task} which yields the result of this {@link Task} or the replacement result.
+     */
+    default Task<T> recover(TaskRunner runner, Recovery<T> recovery) {
+        return TaskOperators.recover(this, runner, recovery);
+    }
+
     /**
      * Creates a new {@link Task} from a {@link Callable}.
      *
@@ -164,16 +422,30 @@ public interface Task<T> {
      * <p>
      * Aside from not needing to be executed this task supports all features of normal
      * {@link Task Tasks} - like lifecycle aware callbacks - and behaves exactly like a real
-     * {@link Task} created by a {@link TaskRunner}.
+     * {@link Task} created by a {@link TaskRunner}. The returned {@link Task} is immutable and
+     * cheap to create, {@code null} and {@link Boolean} results are shared instances.
      *
      * @param result The result of the {@link Task}.
      * @param <T>    The type of the result.
      * @return Returns a new - already completed - {@link Task} which yields the supplied result.
      */
     static <T> Task<T> withResult(T result) {
-        final StubTask<T> task = StubTask.create();
-        task.notifyResult(result);
-        return task;
+        return CompletedTask.withResult(result);
+    }
+
+    /**
+     * Creates a new - already completed - {@link Task} with a specific result whose callback
+     * {@link Executor} is already set to the supplied one. Equivalent to
+     * {@code Task.withResult(result).deliverCallbacksOn(callbackExecutor)}, but only creates a
+     * single object.
+     *
+     * @param result           The result of the {@link Task}.
+     * @param callbackExecutor The callback {@link Executor} or {@code null} to use the default.
+     * @param <T>              The type of the result.
+     * @return Returns a new - already completed - {@link Task} which yields the supplied result.
+     */
+    static <T> Task<T> withResult(T result, Executor callbackExecutor) {
+        return CompletedTask.withResult(result, callbackExecutor);
     }
 
     /**
@@ -189,8 +461,93 @@ public interface Task<T> {
      * @return Returns a new - already completed - {@link Task} which yields the supplied error.
      */
     static <T> Task<T> withError(Throwable throwable) {
-        final StubTask<T> task = StubTask.create();
-        task.notifyError(throwable);
-        return task;
+        return CompletedTask.withError(throwable);
+    }
+
+    /**
+     * Creates a new {@link Task} which completes with {@code null} once the supplied delay has
+     * elapsed. No thread waits for the delay, it is tracked by
+     * {@link com.github.wrdlbrnft.simpletasks.utils.TaskTimer}. Combined with
+     * {@link Task#flatMap(TaskRunner, FlatMapper)} this can be used to run work later, which is
+     * what {@link TaskRunner#schedule(Callable, long, TimeUnit)} does.
+     * <p>
+     * Canceling the returned {@link Task} releases the timer immediately.
+     *
+     * @param delay The delay after which the returned {@link Task} completes.
+     * @param unit  The {@link TimeUnit} of the delay.
+     * @return Returns a new {@link Task} which completes after the delay.
+     */
+    static Task<Void> delay(long delay, TimeUnit unit) {
+        return TaskOperators.delay(delay, unit);
+    }
+
+    /**
+     * Creates a new {@link Task} which completes once all of the supplied {@link Task Tasks} have
+     * completed. The returned {@link Task} yields a {@link List} with the results of all
+     * {@link Task Tasks} in the iteration order of the supplied {@link Collection}.
+     * <p>
+     * If any {@link Task} fails or is canceled the returned {@link Task} fails or is canceled as
+     * well, but only after all other {@link Task Tasks} have completed. Use
+     * {@link Task#allOf(Collection, boolean)} to fail immediately instead.
+     * <p>
+     * No thread is blocked while waiting, the {@link Task Tasks} are counted down as they complete.
+     * Canceling the returned {@link Task} cancels all supplied {@link Task Tasks}.
+     *
+     * @param tasks The {@link Task Tasks} which should be waited for.
+     * @param <T>   The type of the results of the {@link Task Tasks}.
+     * @return Returns a new {@link Task} which yields the results of all supplied {@link Task Tasks}.
+     */
+    static <T> Task<List<T>> allOf(Collection<? extends Task<T>> tasks) {
+        return TaskOperators.allOf(tasks, false);
+    }
+
+    /**
+     * Creates a new {@link Task} which completes once all of the supplied {@link Task Tasks} have
+     * completed. The returned {@link Task} yields a {@link List} with the results of all
+     * {@link Task Tasks} in the iteration order of the supplied {@link Collection}.
+     * <p>
+     * If {@code failFast} is {@code true} then the first {@link Task} which fails or is canceled
+     * immediately completes the returned {@link Task} and all other {@link Task Tasks} are canceled.
+     * Otherwise the first failure is reported after all {@link Task Tasks} have completed.
+     *
+     * @param tasks    The {@link Task Tasks} which should be waited for.
+     * @param failFast Whether the first failure should cancel all remaining {@link Task Tasks}.
+     * @param <T>      The type of the results of the {@link Task Tasks}.
+     * @return Returns a new {@link Task} which yields the results of all supplied {@link Task Tasks}.
+     */
+    static <T> Task<List<T>> allOf(Collection<? extends Task<T>> tasks, boolean failFast) {
+        return TaskOperators.allOf(tasks, failFast);
+    }
+
+    /**
+     * Creates a new {@link Task} which yields the result of the first of the supplied
+     * {@link Task Tasks} to complete successfully. The returned {@link Task} only fails if all
+     * supplied {@link Task Tasks} fail or are canceled. The other {@link Task Tasks} are not
+     * canceled once a result is available.
+     *
+     * @param tasks The {@link Task Tasks} which should be waited for.
+     * @param <T>   The type of the results of the {@link Task Tasks}.
+     * @return Returns a new {@link Task} which yields the first result of the supplied {@link Task Tasks}.
+     */
+    static <T> Task<T> anyOf(Collection<? extends Task<T>> tasks) {
+        return TaskOperators.anyOf(tasks, false);
+    }
+
+    /**
+     * Creates a new {@link Task} which yields the result of the first of the supplied
+     * {@link Task Tasks} to complete successfully.
+     * <p>
+     * If {@code failFast} is {@code true} then the first {@link Task} which fails or is canceled
+     * before any result is available immediately completes the returned {@link Task} and all other
+     * {@link Task Tasks} are canceled. Otherwise the returned {@link Task} only fails if all supplied
+     * {@link Task Tasks} fail or are canceled.
+     *
+     * @param tasks    The {@link Task Tasks} which should be waited for.
+     * @param failFast Whether the first failure should cancel all remaining {@link Task Tasks}.
+     * @param <T>      The type of the results of the {@link Task Tasks}.
+     * @return Returns a new {@link Task} which yields the first result of the supplied {@link Task Tasks}.
+     */
+    static <T> Task<T> anyOf(Collection<? extends Task<T>> tasks, boolean failFast) {
+        return TaskOperators.anyOf(tasks, failFast);
     }
 }
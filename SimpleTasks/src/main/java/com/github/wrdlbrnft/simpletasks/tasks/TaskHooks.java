@@ -0,0 +1,31 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+/**
+ * Hooks for {@link com.github.wrdlbrnft.simpletasks.runners.TaskRunner TaskRunners} and other
+ * code which manages {@link Task Tasks} on behalf of their consumers. Unlike the regular
+ * callbacks these hooks are called directly on the thread which completes the {@link Task},
+ * not on its callback {@link java.util.concurrent.Executor}.
+ */
+public final class TaskHooks {
+
+    private TaskHooks() {
+    }
+
+    /**
+     * Calls the supplied {@link Runnable} once the {@link Task} is canceled or times out, or right
+     * away if that has already happened. Nothing is called if the {@link Task} completes in any
+     * other way. The {@link Runnable} must be fast and thread safe. It does not count as interest
+     * in the result of the {@link Task}, see {@link Task#cancelWhenOrphaned()}.
+     *
+     * @param task     The {@link Task} which is observed.
+     * @param listener The {@link Runnable} which is called when the {@link Task} is stopped.
+     */
+    public static void whenStopped(Task<?> task, Runnable listener) {
+        TaskOperators.observe(task, result -> {
+            final int state = result.getState();
+            if (state == TaskResult.STATE_CANCELED || state == TaskResult.STATE_TIMEOUT) {
+                listener.run();
+            }
+        });
+    }
+}
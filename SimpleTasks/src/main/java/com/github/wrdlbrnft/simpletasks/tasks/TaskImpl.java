@@ -3,248 +3,506 @@ package com.github.wrdlbrnft.simpletasks.tasks;
 import android.arch.lifecycle.Lifecycle;
 import android.arch.lifecycle.LifecycleObserver;
 import android.arch.lifecycle.OnLifecycleEvent;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.util.Log;
 
 import com.github.wrdlbrnft.simpletasks.exceptions.TaskCanceledException;
 import com.github.wrdlbrnft.simpletasks.exceptions.TaskExecutionException;
 import com.github.wrdlbrnft.simpletasks.exceptions.TaskTimeoutException;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
 import com.github.wrdlbrnft.simpletasks.utils.TaskUtils;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Created with Android Studio<br>
  * User: Xaver<br>
  * Date: 19/11/2016
+ * <p>
+ * The completion state of a {@link TaskImpl} is a single {@link TaskResult} which is published
+ * exactly once with a CAS. Callbacks are kept in a lock-free stack which is swapped out for a
+ * sentinel when the result is published, so every callback is either drained by the completing
+ * thread or - if it arrives later - invoked directly with the published result. Lifecycle
+ * aware callbacks are unlinked from the stack as soon as their {@link Lifecycle} is destroyed and
+ * unregister themselves from the {@link Lifecycle} once they have been called, so a long running
+ * {@link TaskImpl} only holds on to consumers which are still alive.
+ * <p>
+ * Threads which await the result push a node onto a second lock-free stack and park on it. The
+ * completing thread swaps the stack out and unparks every waiter, so any number of threads wait
+ * independently. A waiter which times out or is interrupted unlinks its own node and leaves the
+ * state of the {@link TaskImpl} untouched.
+ * <p>
+ * Consumers are tracked to detect orphaned work. Lifecycle aware callbacks hold a reference
+ * count which is released when their {@link Lifecycle} is destroyed. All other callbacks and
+ * threads waiting in {@link #await()} are unscoped and keep the {@link TaskImpl} alive for good.
+ * A {@link TaskImpl} which was asked to {@link #cancelWhenOrphaned()} is canceled once the
+ * count drops to zero without any unscoped consumer.
  */
-
-class TaskImpl<T> extends FutureTask<T> implements Task<T> {
+class TaskImpl<T> implements Task<T>, Runnable {
 
     private static final String TAG = "TaskImpl";
 
-    private final List<ResultCallback<T>> mResultCallbacks = new Vector<>();
-    private final List<ErrorCallback> mErrorCallbacks = new Vector<>();
-    private final List<CancelCallback> mCancelCallbacks = new Vector<>();
-
-    private final Object mLock = new Object();
-
-    private TaskResult<T> mResult;
+    private static final int INTERRUPT_NONE = 0;
+    private static final int INTERRUPT_PENDING = 1;
+    private static final int INTERRUPT_DONE = 2;
+    private static final int INTERRUPT_DELIVERED = 3;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<TaskImpl, TaskResult> RESULT_UPDATER
+            = AtomicReferenceFieldUpdater.newUpdater(TaskImpl.class, TaskResult.class, "mResult");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<TaskImpl, CallbackNode> CALLBACKS_UPDATER
+            = AtomicReferenceFieldUpdater.newUpdater(TaskImpl.class, CallbackNode.class, "mCallbacks");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<TaskImpl, Thread> RUNNER_UPDATER
+            = AtomicReferenceFieldUpdater.newUpdater(TaskImpl.class, Thread.class, "mRunner");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<TaskImpl, WaitNode> WAITERS_UPDATER
+            = AtomicReferenceFieldUpdater.newUpdater(TaskImpl.class, WaitNode.class, "mWaiters");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<TaskImpl> INTEREST_UPDATER
+            = AtomicIntegerFieldUpdater.newUpdater(TaskImpl.class, "mLifecycleInterest");
+
+    @SuppressWarnings("rawtypes")
+    private static final CallbackNode DRAINED = new CallbackNode<>(null);
+
+    private volatile Callable<T> mCallable;
+    private volatile TaskResult<T> mResult;
+    private volatile CallbackNode<T> mCallbacks;
+    private volatile WaitNode mWaiters;
+    private volatile Thread mRunner;
+    private volatile Executor mCallbackExecutor;
+    private volatile int mInterruptState = INTERRUPT_NONE;
+    private volatile int mLifecycleInterest;
+    private volatile boolean mUnscopedInterest;
+    private volatile boolean mCancelWhenOrphaned;
 
     TaskImpl(Callable<T> callable) {
-        super(callable);
+        mCallable = callable;
     }
 
     @Override
     public Task<T> onResult(ResultCallback<T> callback) {
-        synchronized (mLock) {
-            if (isDone()) {
-                final TaskResult<T> result = getResult();
-                final T value = result.getResult();
-                if (result.getState() == TaskResult.STATE_RESULT) {
-                    callback.onResult(value);
-                }
-            } else {
-                mResultCallbacks.add(callback);
-            }
-        }
+        mUnscopedInterest = true;
+        addCallback(resultListener(callback));
         return this;
     }
 
     @Override
     public Task<T> onResult(Lifecycle lifecycle, ResultCallback<T> callback) {
-        synchronized (mLock) {
-            if (isDone()) {
-                final TaskResult<T> result = getResult();
-                final T value = result.getResult();
-                if (result.getState() == TaskResult.STATE_RESULT) {
-                    callback.onResult(value);
-                }
-            } else {
-                final LifecycleAwareResultCallback<T> lifecycleAwareResultCallback = new LifecycleAwareResultCallback<>(callback);
-                mResultCallbacks.add(lifecycleAwareResultCallback);
-                lifecycle.addObserver(lifecycleAwareResultCallback);
-            }
+        final LifecycleAwareResultCallback<T> lifecycleAwareResultCallback = new LifecycleAwareResultCallback<>(this, callback);
+        if (!addLifecycleCallback(lifecycle, lifecycleAwareResultCallback, resultListener(lifecycleAwareResultCallback)) && isAlive(lifecycle)) {
+            resultListener(callback).onCompleted(mResult);
         }
         return this;
     }
 
     @Override
     public Task<T> onError(ErrorCallback callback) {
-        synchronized (mLock) {
-            if (isDone()) {
-                final TaskResult<T> result = getResult();
-                if (result.getState() == TaskResult.STATE_ERROR) {
-                    callback.onError(result.getException());
-                }
-            } else {
-                mErrorCallbacks.add(callback);
-            }
-        }
+        mUnscopedInterest = true;
+        addCallback(errorListener(callback));
         return this;
     }
 
     @Override
     public Task<T> onError(Lifecycle lifecycle, ErrorCallback callback) {
-        synchronized (mLock) {
-            if (isDone()) {
-                final TaskResult<T> result = getResult();
-                if (result.getState() == TaskResult.STATE_ERROR) {
-                    callback.onError(result.getException());
-                }
-            } else {
-                final LifecycleAwareErrorCallback lifecycleAwareErrorCallback = new LifecycleAwareErrorCallback(callback);
-                lifecycle.addObserver(lifecycleAwareErrorCallback);
-                mErrorCallbacks.add(callback);
-            }
+        final LifecycleAwareErrorCallback lifecycleAwareErrorCallback = new LifecycleAwareErrorCallback(this, callback);
+        if (!addLifecycleCallback(lifecycle, lifecycleAwareErrorCallback, errorListener(lifecycleAwareErrorCallback)) && isAlive(lifecycle)) {
+            TaskImpl.<T>errorListener(callback).onCompleted(mResult);
         }
         return this;
     }
 
     @Override
     public Task<T> onCanceled(CancelCallback callback) {
-        synchronized (mLock) {
-            if (isDone()) {
-                if (isCancelled()) {
-                    callback.onCanceled();
-                }
-            } else {
-                mCancelCallbacks.add(callback);
-            }
-        }
+        mUnscopedInterest = true;
+        addCallback(cancelListener(callback));
         return this;
     }
 
     @Override
     public Task<T> onCanceled(Lifecycle lifecycle, CancelCallback callback) {
-        synchronized (mLock) {
-            if (isDone()) {
-                if (isCancelled()) {
-                    callback.onCanceled();
-                }
-            } else {
-                final LifecycleAwareCancelCallback lifecycleAwareCancelCallback = new LifecycleAwareCancelCallback(callback);
-                lifecycle.addObserver(lifecycleAwareCancelCallback);
-                mCancelCallbacks.add(callback);
-            }
+        final LifecycleAwareCancelCallback lifecycleAwareCancelCallback = new LifecycleAwareCancelCallback(this, callback);
+        if (!addLifecycleCallback(lifecycle, lifecycleAwareCancelCallback, cancelListener(lifecycleAwareCancelCallback)) && isAlive(lifecycle)) {
+            TaskImpl.<T>cancelListener(callback).onCompleted(mResult);
         }
         return this;
     }
 
     @Override
-    protected void done() {
-        super.done();
+    public Task<T> deliverCallbacksOn(Executor executor) {
+        mCallbackExecutor = executor;
+        return this;
+    }
 
-        synchronized (mLock) {
-            final TaskResult<T> result = getResult();
-            final int state = result.getState();
-            switch (state) {
+    @Override
+    public Task<T> cancelWhenOrphaned() {
+        mCancelWhenOrphaned = true;
+        return this;
+    }
 
-                case TaskResult.STATE_RESULT:
-                    final T value = result.getResult();
-                    notifyResultCallbacks(value);
-                    break;
+    private void retainInterest() {
+        INTEREST_UPDATER.incrementAndGet(this);
+    }
+
+    private void releaseInterest() {
+        if (INTEREST_UPDATER.decrementAndGet(this) == 0 && isOrphaned()) {
+            cancel();
+        }
+    }
 
-                case TaskResult.STATE_TIMEOUT:
-                case TaskResult.STATE_ERROR:
-                    final Throwable exception = result.getException();
-                    notifyErrorCallbacks(exception);
-                    break;
+    private boolean isOrphaned() {
+        return mCancelWhenOrphaned && !mUnscopedInterest && mWaiters == null && mResult == null;
+    }
 
-                case TaskResult.STATE_CANCELED:
-                    notifyCancelCallbacks();
-                    break;
+    @Override
+    public void run() {
+        if (mResult != null || !RUNNER_UPDATER.compareAndSet(this, null, Thread.currentThread())) {
+            return;
+        }
 
-                default:
-                    throw new IllegalStateException("Unknown result state: " + state);
+        try {
+            final Callable<T> callable = mCallable;
+            if (callable != null && mResult == null) {
+                TaskResult<T> result;
+                try {
+                    result = new TaskResult<>(TaskResult.STATE_RESULT, callable.call(), null);
+                } catch (Throwable e) {
+                    Log.v(TAG, "Exception while performing task.", e);
+                    result = new TaskResult<>(TaskResult.STATE_ERROR, null, e);
+                }
+                complete(result);
             }
+        } finally {
+            mRunner = null;
+
+            // A concurrent cancel() may be about to interrupt this thread. Wait until it is done
+            // and clear the interrupt if stop() delivered it, so it does not leak into whatever
+            // the thread runs next. stop() does not interrupt a thread which is already
+            // interrupted, so an interrupt delivered by the pool itself is never cleared here.
+            while (mInterruptState == INTERRUPT_PENDING) {
+                Thread.yield();
+            }
+            if (mInterruptState == INTERRUPT_DELIVERED) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Publishes the result of this {@link TaskImpl} and notifies all attached callbacks. Only the
+     * first call has any effect, all subsequent calls are ignored.
+     *
+     * @param result The final result of this {@link TaskImpl}.
+     * @return Returns {@code true} if the result was published, {@code false} if this
+     * {@link TaskImpl} was already completed.
+     */
+    boolean complete(TaskResult<T> result) {
+        if (!RESULT_UPDATER.compareAndSet(this, null, result)) {
+            return false;
         }
+
+        mCallable = null;
+        releaseWaiters();
+        notifyCallbacks(result);
+        return true;
     }
 
-    private void notifyResultCallbacks(final T value) {
-        TaskUtils.MAIN_HANDLER.post(() -> {
-            for (ResultCallback<T> callback : mResultCallbacks) {
-                callback.onResult(value);
+    @SuppressWarnings("unchecked")
+    private void notifyCallbacks(TaskResult<T> result) {
+        CallbackNode<T> node = CALLBACKS_UPDATER.getAndSet(this, DRAINED);
+        if (node == null) {
+            return;
+        }
+
+        // The nodes are collected instead of being relinked since removed callbacks may still be
+        // unlinked concurrently. The stack is LIFO, so the list is walked backwards to call the
+        // callbacks in the order they were attached. Internal listeners are called right away,
+        // everything else is dispatched in one go.
+        final List<CallbackNode<T>> nodes = new ArrayList<>();
+        boolean hasCallbacks = false;
+        for (; node != null; node = node.mNext) {
+            if (!node.mRemoved) {
+                nodes.add(node);
+                hasCallbacks |= !node.mInline;
+            }
+        }
+
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            final CallbackNode<T> listener = nodes.get(i);
+            if (listener.mInline) {
+                listener.mListener.onCompleted(result);
+            }
+        }
+
+        if (!hasCallbacks) {
+            return;
+        }
+
+        getCallbackExecutor().execute(() -> {
+            for (int i = nodes.size() - 1; i >= 0; i--) {
+                final CallbackNode<T> callback = nodes.get(i);
+                if (!callback.mInline && !callback.mRemoved) {
+                    callback.mListener.onCompleted(result);
+                }
             }
         });
     }
 
-    private void notifyErrorCallbacks(final Throwable exception) {
-        TaskUtils.MAIN_HANDLER.post(() -> {
-            for (ErrorCallback callback : mErrorCallbacks) {
-                callback.onError(exception);
+    private Executor getCallbackExecutor() {
+        final Executor executor = mCallbackExecutor;
+        if (executor != null) {
+            return executor;
+        }
+        return TaskUtils.getMainThreadExecutor();
+    }
+
+    /**
+     * Adds a listener which is called directly on the thread which completes this {@link TaskImpl},
+     * or immediately if it is already completed. Used internally to chain {@link Task Tasks}
+     * without going through the callback {@link Executor}. Like a callback without a
+     * {@link Lifecycle} the listener counts as interest in the result, so a {@link Task} with
+     * derived {@link Task Tasks} is never canceled as orphaned.
+     *
+     * @param listener The listener which is called with the result of this {@link TaskImpl}.
+     */
+    void addCompletionListener(CompletionListener<T> listener) {
+        mUnscopedInterest = true;
+        addInternalListener(listener);
+    }
+
+    /**
+     * Like {@link TaskImpl#addCompletionListener(CompletionListener)}, but the listener does not
+     * count as interest in the result. Used for bookkeeping like canceling timers or removing
+     * the {@link Task} from a queue.
+     *
+     * @param listener The listener which is called with the result of this {@link TaskImpl}.
+     */
+    void addInternalListener(CompletionListener<T> listener) {
+        if (!push(new CallbackNode<>(listener, true))) {
+            listener.onCompleted(mResult);
+        }
+    }
+
+    Executor getCallbackExecutorOrNull() {
+        return mCallbackExecutor;
+    }
+
+    private void addCallback(CompletionListener<T> listener) {
+        if (!push(new CallbackNode<>(listener))) {
+            listener.onCompleted(mResult);
+        }
+    }
+
+    private boolean push(CallbackNode<T> node) {
+        while (true) {
+            final CallbackNode<T> head = mCallbacks;
+            if (head == DRAINED) {
+                return false;
             }
-        });
+
+            node.mNext = head;
+            if (CALLBACKS_UPDATER.compareAndSet(this, head, node)) {
+                return true;
+            }
+        }
     }
 
-    private void notifyCancelCallbacks() {
-        TaskUtils.MAIN_HANDLER.post(() -> {
-            for (CancelCallback callback : mCancelCallbacks) {
-                callback.onCanceled();
+    private boolean addLifecycleCallback(Lifecycle lifecycle, LifecycleAwareDelegate<?> observer, CompletionListener<T> listener) {
+        final CallbackNode<T> node = new CallbackNode<>(result -> {
+            try {
+                listener.onCompleted(result);
+            } finally {
+                observer.unregister();
             }
         });
+        observer.mNode = node;
+        if (!push(node)) {
+            return false;
+        }
+        observer.observe(lifecycle);
+        return true;
+    }
+
+    private void removeCallbacks() {
+        while (!unlinkRemovedCallbacks()) {
+            Thread.yield();
+        }
+    }
+
+    private boolean unlinkRemovedCallbacks() {
+        CallbackNode<T> previous = null;
+        CallbackNode<T> node = mCallbacks;
+        while (node != null && node != DRAINED) {
+            final CallbackNode<T> next = node.mNext;
+            if (!node.mRemoved) {
+                previous = node;
+            } else if (previous != null) {
+                previous.mNext = next;
+                if (previous.mRemoved) {
+                    return false;
+                }
+            } else if (!CALLBACKS_UPDATER.compareAndSet(this, node, next)) {
+                return false;
+            }
+            node = next;
+        }
+        return true;
+    }
+
+    private static boolean isAlive(Lifecycle lifecycle) {
+        return lifecycle.getCurrentState() != Lifecycle.State.DESTROYED;
+    }
+
+    private static <T> CompletionListener<T> resultListener(ResultCallback<T> callback) {
+        return result -> {
+            if (result.getState() == TaskResult.STATE_RESULT) {
+                callback.onResult(result.getResult());
+            }
+        };
     }
 
-    public interface ResultResolver<T> {
-        T get() throws InterruptedException, ExecutionException, CancellationException, TimeoutException;
+    private static <T> CompletionListener<T> errorListener(ErrorCallback callback) {
+        return result -> {
+            final int state = result.getState();
+            if (state == TaskResult.STATE_ERROR || state == TaskResult.STATE_TIMEOUT) {
+                callback.onError(result.getException());
+            }
+        };
+    }
+
+    private static <T> CompletionListener<T> cancelListener(CancelCallback callback) {
+        return result -> {
+            if (result.getState() == TaskResult.STATE_CANCELED) {
+                callback.onCanceled();
+            }
+        };
     }
 
+    /**
+     * Waits until this {@link TaskImpl} is completed and returns its result.
+     *
+     * @param timed        {@code true} if the wait should time out.
+     * @param timeoutNanos The timeout in nanoseconds, ignored if the wait is not timed.
+     * @return Returns the result of this {@link TaskImpl}.
+     */
     @NonNull
-    private TaskResult<T> parseResult(ResultResolver<T> resolver) {
+    private TaskResult<T> awaitResult(boolean timed, long timeoutNanos) {
+        TaskResult<T> result = mResult;
+        if (result != null) {
+            return result;
+        }
+
+        final long deadline = timed ? System.nanoTime() + timeoutNanos : 0L;
+        final WaitNode node = new WaitNode(Thread.currentThread());
+        pushWaiter(node);
         try {
-            final T result = resolver.get();
-            return new TaskResult<>(TaskResult.STATE_RESULT, result, null);
-        } catch (InterruptedException e) {
-            Log.v(TAG, "Exception while performing task.", e);
-            return new TaskResult<>(TaskResult.STATE_ERROR, null, e);
-        } catch (ExecutionException e) {
-            Log.v(TAG, "Exception while performing task.", e);
-            return new TaskResult<>(TaskResult.STATE_ERROR, null, e.getCause());
-        } catch (CancellationException e) {
-            Log.v(TAG, "Task was canceled.", e);
-            return new TaskResult<>(TaskResult.STATE_CANCELED, null, e.getCause());
-        } catch (TimeoutException e) {
-            Log.v(TAG, "Exception while performing task.", e);
-            return new TaskResult<>(TaskResult.STATE_TIMEOUT, null, e);
+            // The result is published before the waiters are released, so checking it after
+            // pushing the node guarantees that the wake up cannot be missed.
+            while ((result = mResult) == null) {
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new TaskExecutionException("Interrupted while waiting for task to complete.", new InterruptedException());
+                }
+                if (timed) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        throw new TaskTimeoutException("Timeout waiting for task to complete.", new TimeoutException());
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            return result;
+        } finally {
+            if (result == null) {
+                removeWaiter(node);
+            }
+        }
+    }
+
+    private void pushWaiter(WaitNode node) {
+        while (true) {
+            final WaitNode head = mWaiters;
+            node.mNext = head;
+            if (WAITERS_UPDATER.compareAndSet(this, head, node)) {
+                return;
+            }
         }
     }
 
-    private synchronized TaskResult<T> getResult() {
-        if (mResult == null) {
-            mResult = parseResult(this::get);
+    private void releaseWaiters() {
+        WaitNode node = WAITERS_UPDATER.getAndSet(this, null);
+        while (node != null) {
+            final Thread thread = node.mThread;
+            if (thread != null) {
+                node.mThread = null;
+                LockSupport.unpark(thread);
+            }
+            node = node.mNext;
         }
-        return mResult;
     }
 
-    private synchronized TaskResult<T> getResult(long timeout) {
-        if (mResult == null) {
-            mResult = parseResult(() -> get(timeout, TimeUnit.MILLISECONDS));
+    private void removeWaiter(WaitNode node) {
+        node.mThread = null;
+
+        // Other waiters may unlink their nodes at the same time, start over until a full pass
+        // finds no conflicting change.
+        while (!unlinkRemovedWaiters()) {
+            Thread.yield();
+        }
+    }
+
+    private boolean unlinkRemovedWaiters() {
+        WaitNode previous = null;
+        WaitNode node = mWaiters;
+        while (node != null) {
+            final WaitNode next = node.mNext;
+            if (node.mThread != null) {
+                previous = node;
+            } else if (previous != null) {
+                previous.mNext = next;
+                if (previous.mThread == null) {
+                    return false;
+                }
+            } else if (!WAITERS_UPDATER.compareAndSet(this, node, next)) {
+                return false;
+            }
+            node = next;
         }
-        return mResult;
+        return true;
     }
 
     @Override
     public T await() {
-        final TaskResult<T> result = getResult();
-        if (result.getState() == TaskResult.STATE_RESULT) {
-            return result.getResult();
-        } else if (result.getState() == TaskResult.STATE_CANCELED) {
-            throw new TaskCanceledException("Task was canceled.");
-        } else {
-            throw new TaskExecutionException("Task could not be completed.", result.getException());
-        }
+        return unwrap(awaitResult(false, 0L));
     }
 
     @Override
     public T await(long timeout) {
-        final TaskResult<T> result = getResult(timeout);
+        return await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public T await(long timeout, TimeUnit unit) {
+        return unwrap(awaitResult(true, unit.toNanos(timeout)));
+    }
+
+    private T unwrap(TaskResult<T> result) {
         if (result.getState() == TaskResult.STATE_RESULT) {
             return result.getResult();
         } else if (result.getState() == TaskResult.STATE_TIMEOUT) {
@@ -258,7 +516,56 @@ class TaskImpl<T> extends FutureTask<T> implements Task<T> {
 
     @Override
     public void cancel() {
-        cancel(true);
+        stop(new TaskResult<>(TaskResult.STATE_CANCELED, null, null));
+    }
+
+    @Override
+    public Task<T> withTimeout(long timeout, TimeUnit unit) {
+        if (mResult != null) {
+            return this;
+        }
+
+        final TaskTimer.Timeout deadline = TaskTimer.schedule(this::expire, timeout, unit);
+        addInternalListener(result -> deadline.cancel());
+        return this;
+    }
+
+    private void expire() {
+        final TaskTimeoutException exception = new TaskTimeoutException("Task did not complete before its deadline.", new TimeoutException());
+        stop(new TaskResult<>(TaskResult.STATE_TIMEOUT, null, exception));
+    }
+
+    /**
+     * Completes this {@link TaskImpl} with the supplied result and interrupts the thread
+     * executing it, if any.
+     */
+    private void stop(TaskResult<T> result) {
+        if (!complete(result)) {
+            return;
+        }
+
+        boolean delivered = false;
+        mInterruptState = INTERRUPT_PENDING;
+        try {
+            final Thread runner = mRunner;
+            if (runner != null && !runner.isInterrupted()) {
+                runner.interrupt();
+                delivered = true;
+            }
+        } finally {
+            mInterruptState = delivered ? INTERRUPT_DELIVERED : INTERRUPT_DONE;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return mResult != null;
+    }
+
+    @Override
+    public boolean isCanceled() {
+        final TaskResult<T> result = mResult;
+        return result != null && result.getState() == TaskResult.STATE_CANCELED;
     }
 
     @Override
@@ -266,34 +573,118 @@ class TaskImpl<T> extends FutureTask<T> implements Task<T> {
         return this;
     }
 
+    interface CompletionListener<T> {
+        void onCompleted(TaskResult<T> result);
+    }
+
+    private static class CallbackNode<T> {
+
+        private final CompletionListener<T> mListener;
+        private final boolean mInline;
+        private volatile CallbackNode<T> mNext;
+        private volatile boolean mRemoved;
+
+        private CallbackNode(CompletionListener<T> listener) {
+            this(listener, false);
+        }
+
+        private CallbackNode(CompletionListener<T> listener, boolean inline) {
+            mListener = listener;
+            mInline = inline;
+        }
+    }
+
+    private static class WaitNode {
+
+        private volatile Thread mThread;
+        private volatile WaitNode mNext;
+
+        private WaitNode(Thread thread) {
+            mThread = thread;
+        }
+    }
+
     private static class LifecycleAwareDelegate<D> implements LifecycleObserver {
 
         public interface Receiver<R> {
             void onReceive(R receiver);
         }
 
-        private D mDelegate;
+        private final TaskImpl<?> mTask;
+        private volatile D mDelegate;
+        private volatile CallbackNode<?> mNode;
+        private volatile Lifecycle mLifecycle;
+        private boolean mRetained;
 
-        public LifecycleAwareDelegate(D delegate) {
+        public LifecycleAwareDelegate(TaskImpl<?> task, D delegate) {
+            mTask = task;
             mDelegate = delegate;
         }
 
+        void observe(Lifecycle lifecycle) {
+            // An observer added to a destroyed Lifecycle never sees ON_DESTROY, so the callback
+            // is dropped right away instead.
+            if (!isAlive(lifecycle)) {
+                remove();
+                return;
+            }
+
+            mRetained = true;
+            mTask.retainInterest();
+            mLifecycle = lifecycle;
+            lifecycle.addObserver(this);
+
+            // The Task may have completed before the observer was added.
+            if (mTask.isDone()) {
+                unregister();
+            }
+        }
+
+        void unregister() {
+            final Lifecycle lifecycle = mLifecycle;
+            if (lifecycle == null) {
+                return;
+            }
+
+            mLifecycle = null;
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                lifecycle.removeObserver(this);
+            } else {
+                TaskUtils.MAIN_HANDLER.post(() -> lifecycle.removeObserver(this));
+            }
+        }
+
         protected void withDelegate(@NonNull Receiver<D> receiver) {
-            if (mDelegate != null) {
-                receiver.onReceive(mDelegate);
+            final D delegate = mDelegate;
+            if (delegate != null) {
+                receiver.onReceive(delegate);
+            }
+        }
+
+        private void remove() {
+            mDelegate = null;
+            final CallbackNode<?> node = mNode;
+            if (node != null) {
+                node.mRemoved = true;
+                mTask.removeCallbacks();
             }
         }
 
         @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
         public void onDestroy() {
-            mDelegate = null;
+            remove();
+            unregister();
+            if (mRetained) {
+                mRetained = false;
+                mTask.releaseInterest();
+            }
         }
     }
 
     private static class LifecycleAwareCancelCallback extends LifecycleAwareDelegate<CancelCallback> implements CancelCallback {
 
-        public LifecycleAwareCancelCallback(CancelCallback delegate) {
-            super(delegate);
+        public LifecycleAwareCancelCallback(TaskImpl<?> task, CancelCallback delegate) {
+            super(task, delegate);
         }
 
         @Override
@@ -304,8 +695,8 @@ class TaskImpl<T> extends FutureTask<T> implements Task<T> {
 
     private static class LifecycleAwareResultCallback<R> extends LifecycleAwareDelegate<ResultCallback<R>> implements ResultCallback<R> {
 
-        public LifecycleAwareResultCallback(ResultCallback<R> delegate) {
-            super(delegate);
+        public LifecycleAwareResultCallback(TaskImpl<?> task, ResultCallback<R> delegate) {
+            super(task, delegate);
         }
 
         @Override
@@ -316,8 +707,8 @@ class TaskImpl<T> extends FutureTask<T> implements Task<T> {
 
     private static class LifecycleAwareErrorCallback extends LifecycleAwareDelegate<ErrorCallback> implements ErrorCallback {
 
-        public LifecycleAwareErrorCallback(ErrorCallback delegate) {
-            super(delegate);
+        public LifecycleAwareErrorCallback(TaskImpl<?> task, ErrorCallback delegate) {
+            super(task, delegate);
         }
 
         @Override
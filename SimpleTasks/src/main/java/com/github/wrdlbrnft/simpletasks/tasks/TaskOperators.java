@@ -0,0 +1,294 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+import com.github.wrdlbrnft.simpletasks.utils.TaskTimer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of the continuation operators defined in {@link Task}. Every operator returns
+ * a new {@link TaskImpl} which is completed from completion listeners of its sources, so no
+ * thread is ever blocked while waiting for an upstream {@link Task}. Canceling a derived
+ * {@link Task} cancels its sources and canceling a source cancels the derived {@link Task}.
+ */
+final class TaskOperators {
+
+    private TaskOperators() {
+    }
+
+    static <T, R> Task<R> map(Task<T> source, TaskRunner runner, Task.Mapper<T, R> mapper) {
+        final TaskImpl<R> target = derive(source);
+        whenComplete(source, result -> {
+            if (result.getState() == TaskResult.STATE_RESULT) {
+                final T value = result.getResult();
+                pipe(execute(runner, () -> mapper.map(value)), target);
+            } else {
+                forward(result, target);
+            }
+        });
+        return target;
+    }
+
+    static <T, R> Task<R> flatMap(Task<T> source, TaskRunner runner, Task.FlatMapper<T, R> mapper) {
+        final TaskImpl<R> target = derive(source);
+        whenComplete(source, result -> {
+            if (result.getState() == TaskResult.STATE_RESULT) {
+                final T value = result.getResult();
+                final Task<Task<R>> mapped = execute(runner, () -> mapper.flatMap(value));
+                cancelWithTarget(mapped, target);
+                whenComplete(mapped, mappedResult -> {
+                    if (mappedResult.getState() != TaskResult.STATE_RESULT) {
+                        forward(mappedResult, target);
+                    } else if (mappedResult.getResult() == null) {
+                        target.complete(new TaskResult<>(TaskResult.STATE_ERROR, null, new NullPointerException("FlatMapper returned null instead of a Task.")));
+                    } else {
+                        pipe(mappedResult.getResult(), target);
+                    }
+                });
+            } else {
+                forward(result, target);
+            }
+        });
+        return target;
+    }
+
+    static <A, B, R> Task<R> combine(Task<A> first, Task<B> second, TaskRunner runner, Task.Combiner<A, B, R> combiner) {
+        final TaskImpl<R> target = derive(first);
+        final AtomicInteger remaining = new AtomicInteger(2);
+        final Object[] values = new Object[2];
+        cancelWithTarget(second, target);
+        whenComplete(first, result -> {
+            if (result.getState() != TaskResult.STATE_RESULT) {
+                forward(result, target);
+                return;
+            }
+            values[0] = result.getResult();
+            if (remaining.decrementAndGet() == 0) {
+                pipe(execute(runner, () -> combineValues(combiner, values)), target);
+            }
+        });
+        whenComplete(second, result -> {
+            if (result.getState() != TaskResult.STATE_RESULT) {
+                forward(result, target);
+                return;
+            }
+            values[1] = result.getResult();
+            if (remaining.decrementAndGet() == 0) {
+                pipe(execute(runner, () -> combineValues(combiner, values)), target);
+            }
+        });
+        return target;
+    }
+
+    static <T> Task<T> recover(Task<T> source, TaskRunner runner, Task.Recovery<T> recovery) {
+        final TaskImpl<T> target = derive(source);
+        whenComplete(source, result -> {
+            final int state = result.getState();
+            if (state == TaskResult.STATE_ERROR || state == TaskResult.STATE_TIMEOUT) {
+                final Throwable error = result.getException();
+                pipe(execute(runner, () -> recovery.recover(error)), target);
+            } else {
+                target.complete(result);
+            }
+        });
+        return target;
+    }
+
+    static Task<Void> delay(long delay, TimeUnit unit) {
+        final TaskImpl<Void> task = new TaskImpl<>(null);
+        final TaskTimer.Timeout timeout = TaskTimer.schedule(
+                () -> task.complete(new TaskResult<>(TaskResult.STATE_RESULT, null, null)),
+                delay,
+                unit
+        );
+        task.addInternalListener(result -> timeout.cancel());
+        return task;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> Task<List<T>> allOf(Collection<? extends Task<T>> tasks, boolean failFast) {
+        final Task<T>[] sources = tasks.toArray(new Task[tasks.size()]);
+        final TaskImpl<List<T>> target = new TaskImpl<>(null);
+        if (sources.length == 0) {
+            target.complete(new TaskResult<>(TaskResult.STATE_RESULT, Collections.<T>emptyList(), null));
+            return target;
+        }
+
+        final Object[] values = new Object[sources.length];
+        final AtomicInteger remaining = new AtomicInteger(sources.length);
+        final AtomicReference<TaskResult<?>> failure = new AtomicReference<>();
+        for (int i = 0; i < sources.length; i++) {
+            final int index = i;
+            final Task<T> source = sources[i];
+            cancelWithTarget(source, target);
+            whenComplete(source, result -> {
+                if (result.getState() == TaskResult.STATE_RESULT) {
+                    values[index] = result.getResult();
+                } else if (failFast) {
+                    forward(result, target);
+                    cancelAll(sources);
+                } else {
+                    failure.compareAndSet(null, result);
+                }
+
+                if (remaining.decrementAndGet() == 0) {
+                    final TaskResult<?> firstFailure = failure.get();
+                    if (firstFailure != null) {
+                        forward(firstFailure, target);
+                    } else {
+                        final List<T> list = (List<T>) Arrays.asList(values);
+                        target.complete(new TaskResult<>(TaskResult.STATE_RESULT, Collections.unmodifiableList(list), null));
+                    }
+                }
+            });
+        }
+        return target;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> Task<T> anyOf(Collection<? extends Task<T>> tasks, boolean failFast) {
+        final Task<T>[] sources = tasks.toArray(new Task[tasks.size()]);
+        final TaskImpl<T> target = new TaskImpl<>(null);
+        if (sources.length == 0) {
+            target.complete(new TaskResult<>(TaskResult.STATE_ERROR, null, new IllegalArgumentException("anyOf() requires at least one Task.")));
+            return target;
+        }
+
+        final AtomicInteger remaining = new AtomicInteger(sources.length);
+        final AtomicReference<TaskResult<?>> failure = new AtomicReference<>();
+        for (Task<T> source : sources) {
+            cancelWithTarget(source, target);
+            whenComplete(source, result -> {
+                if (result.getState() == TaskResult.STATE_RESULT) {
+                    target.complete(result);
+                } else if (failFast) {
+                    forward(result, target);
+                    cancelAll(sources);
+                } else {
+                    failure.compareAndSet(null, result);
+                    if (remaining.decrementAndGet() == 0) {
+                        forward(failure.get(), target);
+                    }
+                }
+            });
+        }
+        return target;
+    }
+
+    /**
+     * Calls the supplied listener once the {@link Task} is completed. For {@link TaskImpl}
+     * instances the listener is called directly on the completing thread, a {@link CompletedTask}
+     * calls it right away and other implementations of {@link Task} are observed through their
+     * public callbacks. The listener counts as interest in the result, see
+     * {@link Task#cancelWhenOrphaned()}.
+     */
+    static <T> void whenComplete(Task<T> task, TaskImpl.CompletionListener<T> listener) {
+        if (task instanceof TaskImpl) {
+            ((TaskImpl<T>) task).addCompletionListener(listener);
+            return;
+        }
+        if (task instanceof CompletedTask) {
+            listener.onCompleted(((CompletedTask<T>) task).getResult());
+            return;
+        }
+
+        task.onResult(result -> listener.onCompleted(new TaskResult<>(TaskResult.STATE_RESULT, result, null)))
+                .onError(exception -> listener.onCompleted(new TaskResult<>(TaskResult.STATE_ERROR, null, exception)))
+                .onCanceled(() -> listener.onCompleted(new TaskResult<>(TaskResult.STATE_CANCELED, null, null)));
+    }
+
+    /**
+     * Like {@link TaskOperators#whenComplete(Task, TaskImpl.CompletionListener)}, but for
+     * {@link TaskImpl} instances the listener does not count as interest in the result.
+     */
+    static <T> void observe(Task<T> task, TaskImpl.CompletionListener<T> listener) {
+        if (task instanceof TaskImpl) {
+            ((TaskImpl<T>) task).addInternalListener(listener);
+            return;
+        }
+        whenComplete(task, listener);
+    }
+
+    /**
+     * Completes the target with the result of the source and cancels the source if the target
+     * is canceled or times out first.
+     */
+    static <T> void pipe(Task<T> source, TaskImpl<T> target) {
+        cancelWithTarget(source, target);
+        whenComplete(source, target::complete);
+    }
+
+    static void cancelWithTarget(Task<?> source, TaskImpl<?> target) {
+        target.addInternalListener(result -> {
+            // A target which timed out was stopped just like a canceled one.
+            final int state = result.getState();
+            if (state == TaskResult.STATE_CANCELED || state == TaskResult.STATE_TIMEOUT) {
+                source.cancel();
+            }
+        });
+    }
+
+    /**
+     * Creates a not yet completed {@link TaskImpl} which inherits the callback {@link Executor}
+     * of the source and cancels the source when it is canceled itself.
+     */
+    static <T, R> TaskImpl<R> derive(Task<T> source) {
+        final TaskImpl<R> target = new TaskImpl<>(null);
+        final Executor executor = getCallbackExecutorOrNull(source);
+        if (executor != null) {
+            target.deliverCallbacksOn(executor);
+        }
+        cancelWithTarget(source, target);
+        return target;
+    }
+
+    private static Executor getCallbackExecutorOrNull(Task<?> task) {
+        if (task instanceof TaskImpl) {
+            return ((TaskImpl<?>) task).getCallbackExecutorOrNull();
+        }
+        if (task instanceof CompletedTask) {
+            return ((CompletedTask<?>) task).getCallbackExecutorOrNull();
+        }
+        return null;
+    }
+
+    private static void cancelAll(Task<?>[] tasks) {
+        for (Task<?> task : tasks) {
+            task.cancel();
+        }
+    }
+
+    private static <T> Task<T> execute(TaskRunner runner, Callable<T> callable) {
+        if (runner != null) {
+            return runner.queue(callable);
+        }
+
+        final TaskImpl<T> task = new TaskImpl<>(callable);
+        task.run();
+        return task;
+    }
+
+    /**
+     * Completes the target with a failed or canceled result of another {@link Task}.
+     */
+    static <R> void forward(TaskResult<?> result, TaskImpl<R> target) {
+        if (result.getState() == TaskResult.STATE_CANCELED) {
+            target.cancel();
+        } else {
+            target.complete(new TaskResult<>(result.getState(), null, result.getException()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A, B, R> R combineValues(Task.Combiner<A, B, R> combiner, Object[] values) throws Exception {
+        return combiner.combine((A) values[0], (B) values[1]);
+    }
+}
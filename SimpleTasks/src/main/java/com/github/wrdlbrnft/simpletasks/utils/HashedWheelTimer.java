@@ -0,0 +1,237 @@
+package com.github.wrdlbrnft.simpletasks.utils;
+
+import android.util.Log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer which keeps its timeouts in a hashed timing wheel. The wheel is a ring of buckets, one
+ * per tick. A timeout is put into the bucket of the tick in which it expires and carries the
+ * number of full revolutions left until then. Every tick the worker thread visits a single bucket,
+ * so scheduling, canceling and expiring a timeout cost O(1) no matter how many are pending.
+ * In exchange timeouts expire up to one tick late.
+ * <p>
+ * Scheduling and canceling are lock-free, new and canceled timeouts are handed to the worker
+ * thread through queues. While no timeouts are pending the worker thread sleeps until the next one
+ * is scheduled instead of ticking.
+ */
+final class HashedWheelTimer {
+
+    private static final String TAG = "HashedWheelTimer";
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final Queue<WheelTimeout> mPendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> mCanceledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mActiveCount = new AtomicInteger();
+
+    private final Bucket[] mWheel;
+    private final int mMask;
+    private final long mTickNanos;
+    private final long mStartTime;
+    private final Thread mWorker;
+
+    private volatile boolean mIdle;
+
+    // Only accessed by the worker thread.
+    private long mTick;
+
+    HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two but was " + wheelSize);
+        }
+        mWheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            mWheel[i] = new Bucket();
+        }
+        mMask = wheelSize - 1;
+        mTickNanos = unit.toNanos(tickDuration);
+        mStartTime = System.nanoTime();
+        mWorker = new Thread(this::work, name);
+        mWorker.setDaemon(true);
+        mWorker.start();
+    }
+
+    TaskTimer.Timeout newTimeout(Runnable runnable, long delay, TimeUnit unit) {
+        // Keep the deadline far enough from Long.MAX_VALUE that adding the elapsed time cannot overflow.
+        final long delayNanos = Math.min(Math.max(0L, unit.toNanos(delay)), Long.MAX_VALUE / 4);
+        final WheelTimeout timeout = new WheelTimeout(this, runnable, System.nanoTime() - mStartTime + delayNanos);
+        mActiveCount.incrementAndGet();
+        mPendingTimeouts.add(timeout);
+        if (mIdle) {
+            LockSupport.unpark(mWorker);
+        }
+        return timeout;
+    }
+
+    private void work() {
+        while (true) {
+            if (mActiveCount.get() == 0) {
+                removeCanceledTimeouts();
+                mIdle = true;
+                if (mActiveCount.get() == 0) {
+                    LockSupport.park(this);
+                }
+                mIdle = false;
+
+                // The wheel is empty, so skipping the ticks which passed while idle is safe.
+                mTick = Math.max(mTick, (System.nanoTime() - mStartTime) / mTickNanos);
+                continue;
+            }
+
+            waitForNextTick();
+            removeCanceledTimeouts();
+            transferPendingTimeouts();
+            mWheel[(int) (mTick & mMask)].expireTimeouts();
+            mTick++;
+        }
+    }
+
+    private void waitForNextTick() {
+        final long deadline = (mTick + 1) * mTickNanos;
+        while (true) {
+            final long remaining = deadline - (System.nanoTime() - mStartTime);
+            if (remaining <= 0L) {
+                return;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void removeCanceledTimeouts() {
+        WheelTimeout timeout;
+        while ((timeout = mCanceledTimeouts.poll()) != null) {
+            final Bucket bucket = timeout.mBucket;
+            if (bucket != null) {
+                bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            final WheelTimeout timeout = mPendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.mState != WheelTimeout.STATE_WAITING) {
+                continue;
+            }
+
+            final long expiryTick = timeout.mDeadline / mTickNanos;
+            timeout.mRemainingRounds = (expiryTick - mTick) / mWheel.length;
+
+            // Timeouts whose tick already passed expire with the current tick.
+            final long tick = Math.max(expiryTick, mTick);
+            mWheel[(int) (tick & mMask)].add(timeout);
+        }
+    }
+
+    private static class WheelTimeout implements TaskTimer.Timeout {
+
+        private static final int STATE_WAITING = 0x00;
+        private static final int STATE_CANCELED = 0x01;
+        private static final int STATE_EXPIRED = 0x02;
+
+        private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "mState");
+
+        private final HashedWheelTimer mTimer;
+        private final Runnable mRunnable;
+        private final long mDeadline;
+
+        private volatile int mState = STATE_WAITING;
+
+        // Only accessed by the worker thread.
+        private long mRemainingRounds;
+        private Bucket mBucket;
+        private WheelTimeout mPrevious;
+        private WheelTimeout mNext;
+
+        private WheelTimeout(HashedWheelTimer timer, Runnable runnable, long deadline) {
+            mTimer = timer;
+            mRunnable = runnable;
+            mDeadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, STATE_WAITING, STATE_CANCELED)) {
+                return false;
+            }
+            mTimer.mActiveCount.decrementAndGet();
+            mTimer.mCanceledTimeouts.add(this);
+            return true;
+        }
+
+        private void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, STATE_WAITING, STATE_EXPIRED)) {
+                return;
+            }
+            mTimer.mActiveCount.decrementAndGet();
+            try {
+                mRunnable.run();
+            } catch (Throwable e) {
+                Log.e(TAG, "Exception while running a scheduled Runnable.", e);
+            }
+        }
+    }
+
+    private static class Bucket {
+
+        private WheelTimeout mHead;
+        private WheelTimeout mTail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.mBucket = this;
+            timeout.mPrevious = mTail;
+            timeout.mNext = null;
+            if (mTail == null) {
+                mHead = timeout;
+            } else {
+                mTail.mNext = timeout;
+            }
+            mTail = timeout;
+        }
+
+        private void remove(WheelTimeout timeout) {
+            if (timeout.mBucket != this) {
+                return;
+            }
+
+            if (timeout.mPrevious == null) {
+                mHead = timeout.mNext;
+            } else {
+                timeout.mPrevious.mNext = timeout.mNext;
+            }
+            if (timeout.mNext == null) {
+                mTail = timeout.mPrevious;
+            } else {
+                timeout.mNext.mPrevious = timeout.mPrevious;
+            }
+            timeout.mBucket = null;
+            timeout.mPrevious = null;
+            timeout.mNext = null;
+        }
+
+        private void expireTimeouts() {
+            WheelTimeout timeout = mHead;
+            while (timeout != null) {
+                final WheelTimeout next = timeout.mNext;
+                if (timeout.mState != WheelTimeout.STATE_WAITING) {
+                    remove(timeout);
+                } else if (timeout.mRemainingRounds <= 0L) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.mRemainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.wrdlbrnft.simpletasks.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records durations in buckets whose bounds are powers of two nanoseconds. Recording is a single
+ * atomic increment, so it is cheap enough to be done for every operation. In exchange
+ * percentiles are only accurate to within a factor of two.
+ * <p>
+ * The recorded values are read with {@link LatencyHistogram#snapshot()} or
+ * {@link LatencyHistogram#snapshotAndReset()}, which return an immutable {@link Snapshot}.
+ * Snapshots are only weakly consistent: they are not taken at a single point in time while
+ * durations are being recorded.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final StripedCounter mTotal = new StripedCounter();
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param duration The duration.
+     * @param unit     The {@link TimeUnit} of the duration.
+     */
+    public void record(long duration, TimeUnit unit) {
+        recordNanos(unit.toNanos(duration));
+    }
+
+    /**
+     * Records a duration in nanoseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void recordNanos(long nanos) {
+        final long value = Math.max(0L, nanos);
+        mBuckets.incrementAndGet(bucketOf(value));
+        mTotal.add(value);
+
+        long max = mMax.get();
+        while (value > max && !mMax.compareAndSet(max, value)) {
+            max = mMax.get();
+        }
+    }
+
+    /**
+     * Returns a {@link Snapshot} of the recorded durations. The buckets, the total and the maximum
+     * are read one after another, so a duration which is recorded concurrently may be included
+     * in some of them but not in others.
+     *
+     * @return Returns a {@link Snapshot} of the recorded durations.
+     */
+    public Snapshot snapshot() {
+        final long[] buckets = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = mBuckets.get(i);
+        }
+        return new Snapshot(buckets, mTotal.sum(), mMax.get());
+    }
+
+    /**
+     * Returns a {@link Snapshot} of the recorded durations and starts over with an empty
+     * {@link LatencyHistogram}. The buckets, the total and the maximum are reset one after another
+     * and not in one atomic step. A duration which is recorded concurrently is not lost, but its
+     * count may end up in the returned {@link Snapshot} and its duration in the next one or the
+     * other way around.
+     *
+     * @return Returns a {@link Snapshot} of the durations recorded before the reset.
+     */
+    public Snapshot snapshotAndReset() {
+        final long[] buckets = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = mBuckets.getAndSet(i, 0L);
+        }
+        return new Snapshot(buckets, mTotal.sumThenReset(), mMax.getAndSet(0L));
+    }
+
+    private static int bucketOf(long nanos) {
+        // Bucket i holds values in [2^(i-1), 2^i), bucket 0 holds zero.
+        return (64 - Long.numberOfLeadingZeros(nanos)) & (BUCKET_COUNT - 1);
+    }
+
+    /**
+     * An immutable copy of the durations recorded by a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+
+        /**
+         * A {@link Snapshot} without any recorded durations.
+         */
+        public static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT], 0L, 0L);
+
+        private final long[] mBuckets;
+        private final long mCount;
+        private final long mTotalNanos;
+        private final long mMaxNanos;
+
+        private Snapshot(long[] buckets, long totalNanos, long maxNanos) {
+            long count = 0L;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            mBuckets = buckets;
+            mCount = count;
+            mTotalNanos = totalNanos;
+            mMaxNanos = maxNanos;
+        }
+
+        /**
+         * Returns the number of recorded durations.
+         *
+         * @return Returns the number of recorded durations.
+         */
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * Returns the sum of all recorded durations.
+         *
+         * @param unit The {@link TimeUnit} of the returned value.
+         * @return Returns the sum of all recorded durations.
+         */
+        public long getTotal(TimeUnit unit) {
+            return unit.convert(mTotalNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the mean of all recorded durations.
+         *
+         * @param unit The {@link TimeUnit} of the returned value.
+         * @return Returns the mean duration or {@code 0} if nothing was recorded.
+         */
+        public long getMean(TimeUnit unit) {
+            if (mCount == 0L) {
+                return 0L;
+            }
+            return unit.convert(mTotalNanos / mCount, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the longest recorded duration.
+         *
+         * @param unit The {@link TimeUnit} of the returned value.
+         * @return Returns the longest recorded duration.
+         */
+        public long getMax(TimeUnit unit) {
+            return unit.convert(mMaxNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns an upper bound for the duration below which the supplied fraction of the
+         * recorded durations lie. The bound is at most twice the exact value.
+         *
+         * @param fraction The fraction between {@code 0.0} and {@code 1.0}, for example
+         *                 {@code 0.99} for the 99th percentile.
+         * @param unit     The {@link TimeUnit} of the returned value.
+         * @return Returns the upper bound of the percentile or {@code 0} if nothing was recorded.
+         */
+        public long getPercentile(double fraction, TimeUnit unit) {
+            if (fraction < 0.0 || fraction > 1.0) {
+                throw new IllegalArgumentException("Fraction must be between 0.0 and 1.0 but was " + fraction);
+            }
+            if (mCount == 0L) {
+                return 0L;
+            }
+
+            final long rank = Math.max(1L, (long) Math.ceil(fraction * mCount));
+            long seen = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets[i];
+                if (seen >= rank) {
+                    final long upperBound = i == 0 ? 0L : i >= 63 ? Long.MAX_VALUE : (1L << i) - 1L;
+                    return unit.convert(Math.min(upperBound, mMaxNanos), TimeUnit.NANOSECONDS);
+                }
+            }
+            return unit.convert(mMaxNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.wrdlbrnft.simpletasks.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter which can be incremented by many threads at the same time without them competing for
+ * a single memory location. The count is spread over several cells which are picked based on the
+ * current thread and are padded so they do not share a cache line. Reading the count sums up
+ * all cells, so it is more expensive than incrementing.
+ */
+public final class StripedCounter {
+
+    // Eight longs per cell keep neighbouring cells on different 64 byte cache lines.
+    private static final int PADDING = 8;
+    private static final int STRIPES = stripeCount();
+    private static final int STRIPE_MASK = STRIPES - 1;
+
+    private final AtomicLongArray mCells = new AtomicLongArray(STRIPES * PADDING);
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        add(1L);
+    }
+
+    /**
+     * Adds the supplied value to the counter.
+     *
+     * @param value The value to add.
+     */
+    public void add(long value) {
+        mCells.getAndAdd(cellIndex(), value);
+    }
+
+    /**
+     * Returns the current count. Increments which happen concurrently may or may not be included.
+     *
+     * @return Returns the current count.
+     */
+    public long sum() {
+        long sum = 0L;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += mCells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the current count and resets the counter to zero. The cells are reset one at a time,
+     * so the result is not the count at a single point in time: an increment which happens
+     * concurrently is either included in the returned count or counted after the reset, but it
+     * is neither lost nor counted twice.
+     *
+     * @return Returns the count before the reset.
+     */
+    public long sumThenReset() {
+        long sum = 0L;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += mCells.getAndSet(i * PADDING, 0L);
+        }
+        return sum;
+    }
+
+    private static int cellIndex() {
+        long id = Thread.currentThread().getId();
+        id ^= id >>> 17;
+        id *= 0x9e3779b97f4a7c15L;
+        return ((int) (id >>> 32) & STRIPE_MASK) * PADDING;
+    }
+
+    private static int stripeCount() {
+        final int processors = Math.max(1, Runtime.getRuntime().availableProcessors());
+        final int stripes = Integer.highestOneBit(processors) << 1;
+        return Math.min(stripes, 64);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.wrdlbrnft.simpletasks.utils;
+
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single timer thread shared by everything in this library which needs to run something after
+ * a delay. The timer thread only keeps track of the timeouts, expired {@link Runnable Runnables}
+ * are handed off to a pool of dispatcher threads. Queueing work on a
+ * {@link com.github.wrdlbrnft.simpletasks.runners.TaskRunner} may block, for example on a
+ * {@link com.github.wrdlbrnft.simpletasks.runners.BoundedTaskRunner} with
+ * {@link com.github.wrdlbrnft.simpletasks.runners.BoundedTaskRunner#POLICY_BLOCK}, or execute the
+ * work right away on the calling thread. Neither delays the timer thread this way. There are at most
+ * {@value #DISPATCHER_THREADS} dispatcher threads, they are created as needed and exit after being
+ * idle for {@value #DISPATCHER_KEEP_ALIVE_SECONDS} seconds. When all of them are busy expired
+ * {@link Runnable Runnables} wait in a queue, so a burst of expirations never creates more threads
+ * but a {@link Runnable} which blocks for a long time delays the ones expiring after it once every
+ * dispatcher thread is blocked. {@link Runnable Runnables} which expire in the same tick may run
+ * concurrently.
+ * <p>
+ * Scheduled {@link Runnable Runnables} are kept in a hashed timing wheel which ticks every
+ * {@value #TICK_MILLIS} milliseconds. Scheduling and canceling cost O(1) even with tens of
+ * thousands of pending timeouts, in exchange a {@link Runnable} may run up to one tick late.
+ */
+public final class TaskTimer {
+
+    /**
+     * A handle for a scheduled {@link Runnable}.
+     */
+    public interface Timeout {
+
+        /**
+         * Cancels the scheduled {@link Runnable} if it has not been executed yet.
+         *
+         * @return Returns {@code true} if the {@link Runnable} will not be executed because of this call.
+         */
+        boolean cancel();
+    }
+
+    /**
+     * The duration of one tick of the timer in milliseconds.
+     */
+    public static final long TICK_MILLIS = 5L;
+
+    private static final String TAG = "TaskTimer";
+
+    private static final int WHEEL_SIZE = 512;
+    private static final long DISPATCHER_KEEP_ALIVE_SECONDS = 30L;
+
+    static final int DISPATCHER_THREADS = 4;
+
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer("SimpleTasks-Timer", TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+    private static final Executor DISPATCHER = createDispatcher();
+
+    private TaskTimer() {
+    }
+
+    /**
+     * Schedules a {@link Runnable} to be executed once on a dispatcher thread after the supplied
+     * delay.
+     *
+     * @param runnable The {@link Runnable} to execute.
+     * @param delay    The delay after which the {@link Runnable} is executed.
+     * @param unit     The {@link TimeUnit} of the delay.
+     * @return Returns a {@link Timeout} which can be used to cancel the execution.
+     */
+    public static Timeout schedule(Runnable runnable, long delay, TimeUnit unit) {
+        return TIMER.newTimeout(() -> DISPATCHER.execute(() -> dispatch(runnable)), delay, unit);
+    }
+
+    private static Executor createDispatcher() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                DISPATCHER_THREADS, DISPATCHER_THREADS,
+                DISPATCHER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "SimpleTasks-Timer-Dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static void dispatch(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (Throwable e) {
+            Log.e(TAG, "Exception while running a scheduled Runnable.", e);
+        }
+    }
+}
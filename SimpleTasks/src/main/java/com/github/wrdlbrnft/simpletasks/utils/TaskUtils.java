@@ -3,6 +3,10 @@ package com.github.wrdlbrnft.simpletasks.utils;
 import android.os.Handler;
 import android.os.Looper;
 
+import com.github.wrdlbrnft.simpletasks.executors.CoalescingMainThreadExecutor;
+
+import java.util.concurrent.Executor;
+
 /**
  * Created with Android Studio<br>
  * User: Xaver<br>
@@ -10,5 +14,50 @@ import android.os.Looper;
  */
 public class TaskUtils {
 
+    /**
+     * Callbacks of each completed {@link com.github.wrdlbrnft.simpletasks.tasks.Task} are
+     * posted to the main thread in a separate message. This is the default.
+     */
+    public static final int DISPATCH_MODE_IMMEDIATE = 0x01;
+
+    /**
+     * Callbacks of all completed {@link com.github.wrdlbrnft.simpletasks.tasks.Task Tasks} are
+     * collected and dispatched in batches by the {@link CoalescingMainThreadExecutor}.
+     */
+    public static final int DISPATCH_MODE_COALESCED = 0x02;
+
     public static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private static final Executor IMMEDIATE_EXECUTOR = MAIN_HANDLER::post;
+
+    private static volatile int sDispatchMode = DISPATCH_MODE_IMMEDIATE;
+
+    /**
+     * Sets how callbacks of completed {@link com.github.wrdlbrnft.simpletasks.tasks.Task Tasks}
+     * are dispatched to the main thread.
+     *
+     * @param mode Either {@link #DISPATCH_MODE_IMMEDIATE} or {@link #DISPATCH_MODE_COALESCED}.
+     */
+    public static void setCallbackDispatchMode(int mode) {
+        if (mode != DISPATCH_MODE_IMMEDIATE && mode != DISPATCH_MODE_COALESCED) {
+            throw new IllegalArgumentException("Unknown dispatch mode: " + mode);
+        }
+        sDispatchMode = mode;
+    }
+
+    public static int getCallbackDispatchMode() {
+        return sDispatchMode;
+    }
+
+    /**
+     * Returns the {@link Executor} used to deliver callbacks on the main thread according to
+     * the current dispatch mode.
+     *
+     * @return Returns an {@link Executor} which runs {@link Runnable Runnables} on the main thread.
+     */
+    public static Executor getMainThreadExecutor() {
+        return sDispatchMode == DISPATCH_MODE_COALESCED
+                ? CoalescingMainThreadExecutor.getInstance()
+                : IMMEDIATE_EXECUTOR;
+    }
 }
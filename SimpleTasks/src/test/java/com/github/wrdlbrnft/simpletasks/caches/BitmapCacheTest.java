@@ -0,0 +1,86 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 27)
+public class BitmapCacheTest {
+
+    private static final int MAX_SIZE = 1024 * 1024;
+
+    @Test
+    public void entryPutOnceHasAge() {
+        final BitmapCache<String> cache = new BitmapCache<>(MAX_SIZE, 1L, TimeUnit.HOURS);
+        cache.put("a", createBitmap());
+
+        final long age = cache.getAge("a", TimeUnit.NANOSECONDS);
+        assertTrue("Expected a known age but was " + age, age >= 0L);
+    }
+
+    @Test
+    public void entryPutOnceExpires() throws Exception {
+        final BitmapCache<String> cache = new BitmapCache<>(MAX_SIZE, 50L, TimeUnit.MILLISECONDS);
+        final Bitmap bitmap = createBitmap();
+        cache.put("a", bitmap);
+        assertSame(bitmap, cache.get("a"));
+
+        Thread.sleep(100L);
+        assertNull(cache.get("a"));
+        assertEquals(Cache.AGE_UNKNOWN, cache.getAge("a", TimeUnit.MILLISECONDS));
+        assertEquals(1L, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void replacingEntryRestartsItsAge() throws Exception {
+        final BitmapCache<String> cache = new BitmapCache<>(MAX_SIZE, 1L, TimeUnit.HOURS);
+        cache.put("a", createBitmap());
+        Thread.sleep(50L);
+        cache.put("a", createBitmap());
+
+        assertTrue(cache.getAge("a", TimeUnit.MILLISECONDS) < 50L);
+    }
+
+    @Test
+    public void evictedEntryHasNoAge() {
+        final BitmapCache<String> cache = new BitmapCache<>(MAX_SIZE, 1L, TimeUnit.HOURS);
+        cache.put("a", createBitmap());
+        cache.evict("a");
+
+        assertNull(cache.get("a"));
+        assertEquals(Cache.AGE_UNKNOWN, cache.getAge("a", TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void entryLargerThanCacheHasNoAge() {
+        final BitmapCache<String> cache = new BitmapCache<>(16, 1L, TimeUnit.HOURS);
+        cache.put("a", createBitmap());
+
+        assertNull(cache.get("a"));
+        assertEquals(Cache.AGE_UNKNOWN, cache.getAge("a", TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void entryWithoutTimeToLiveStays() {
+        final BitmapCache<String> cache = new BitmapCache<>(MAX_SIZE);
+        cache.put("a", createBitmap());
+
+        assertNotNull(cache.get("a"));
+    }
+
+    private static Bitmap createBitmap() {
+        return Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888);
+    }
+}
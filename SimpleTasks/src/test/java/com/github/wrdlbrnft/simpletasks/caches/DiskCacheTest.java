@@ -0,0 +1,125 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiskCacheTest {
+
+    private static final long MAXIMUM_SIZE = 1024L * 1024L;
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void interleavedWritesAndReadsReturnLatestValues() throws IOException {
+        final DiskCache<String, String> cache = open(mFolder.newFile());
+        for (int i = 0; i < 2000; i++) {
+            cache.put("key" + (i % 50), "value" + i);
+            assertEquals("value" + i, cache.get("key" + (i % 50)));
+        }
+        cache.close();
+    }
+
+    @Test
+    public void entriesSurviveReopening() throws IOException {
+        final File file = mFolder.newFile();
+        final DiskCache<String, String> cache = open(file);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.evict("a");
+        cache.get("b");
+        final long size = cache.getFileSize();
+        cache.close();
+
+        assertEquals(size, file.length());
+        final DiskCache<String, String> reopened = open(file);
+        assertNull(reopened.get("a"));
+        assertEquals("2", reopened.get("b"));
+        reopened.close();
+    }
+
+    @Test
+    public void truncatedRecordIsCutOffOnRecovery() throws IOException {
+        final File file = mFolder.newFile();
+        final DiskCache<String, String> cache = open(file);
+        cache.put("a", "1");
+        final long validSize = cache.getFileSize();
+        cache.put("b", "2");
+        cache.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3L);
+        }
+
+        final DiskCache<String, String> recovered = open(file);
+        assertEquals("1", recovered.get("a"));
+        assertNull(recovered.get("b"));
+        assertEquals(validSize, recovered.getFileSize());
+        recovered.close();
+    }
+
+    @Test
+    public void corruptRecordAndEverythingAfterItIsDropped() throws IOException {
+        final File file = mFolder.newFile();
+        final DiskCache<String, String> cache = open(file);
+        cache.put("a", "1");
+        final long corruptOffset = cache.getFileSize();
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(corruptOffset + 17L);
+            raf.write(0x7f);
+        }
+
+        final DiskCache<String, String> recovered = open(file);
+        assertEquals("1", recovered.get("a"));
+        assertNull(recovered.get("b"));
+        assertNull(recovered.get("c"));
+        assertEquals(corruptOffset, recovered.getFileSize());
+        recovered.close();
+    }
+
+    @Test
+    public void zeroFilledTailIsCutOffOnRecovery() throws IOException {
+        final File file = mFolder.newFile();
+        final DiskCache<String, String> cache = open(file);
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        final long size = cache.getFileSize();
+
+        // Simulates a process which died without closing the cache.
+        final DiskCache<String, String> recovered = open(file);
+        assertEquals("1", recovered.get("a"));
+        assertEquals(size, recovered.getFileSize());
+        recovered.close();
+    }
+
+    @Test
+    public void compactionKeepsLatestValues() throws IOException {
+        final DiskCache<String, String> cache = new DiskCache<>(mFolder.newFile(), Serializer.ofStrings(), Serializer.ofStrings(), 4096L);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + (i % 10), "value" + i);
+        }
+
+        assertTrue(cache.getFileSize() <= 4096L);
+        for (int i = 990; i < 1000; i++) {
+            assertEquals("value" + i, cache.get("key" + (i % 10)));
+        }
+        cache.close();
+    }
+
+    private static DiskCache<String, String> open(File file) throws IOException {
+        return new DiskCache<>(file, Serializer.ofStrings(), Serializer.ofStrings(), MAXIMUM_SIZE);
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TieredCacheTest {
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private DiskCache<String, String> mDiskCache;
+
+    @Before
+    public void setUp() throws IOException {
+        mDiskCache = new DiskCache<>(mFolder.newFile(), Serializer.ofStrings(), Serializer.ofStrings(), 1024L * 1024L);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mDiskCache.close();
+    }
+
+    @Test
+    public void valueExpiredInMemoryIsNotRestoredFromDisk() throws Exception {
+        final MapCache<String, String> memoryCache = new MapCache<>(50L, TimeUnit.MILLISECONDS);
+        final TieredCache<String, String> cache = new TieredCache<>(memoryCache, mDiskCache, 50L, TimeUnit.MILLISECONDS);
+        cache.put("a", "value");
+        assertEquals("value", cache.get("a"));
+
+        Thread.sleep(100L);
+        assertNull(cache.get("a"));
+        assertNull(memoryCache.get("a"));
+        assertEquals(Cache.AGE_UNKNOWN, cache.getAge("a", TimeUnit.MILLISECONDS));
+        assertNull(mDiskCache.get("a"));
+    }
+
+    @Test
+    public void freshValueOnDiskIsNotCopiedIntoMemoryWithTimeToLive() {
+        final MapCache<String, String> memoryCache = new MapCache<>(1L, TimeUnit.HOURS);
+        final TieredCache<String, String> cache = new TieredCache<>(memoryCache, mDiskCache, 1L, TimeUnit.HOURS);
+        mDiskCache.put("a", "value");
+
+        assertEquals("value", cache.get("a"));
+        assertNull(memoryCache.get("a"));
+        assertTrue(cache.getAge("a", TimeUnit.MILLISECONDS) >= 0L);
+    }
+
+    @Test
+    public void valueOnDiskIsCopiedIntoMemoryWithoutTimeToLive() {
+        final MapCache<String, String> memoryCache = new MapCache<>();
+        final TieredCache<String, String> cache = new TieredCache<>(memoryCache, mDiskCache);
+        mDiskCache.put("a", "value");
+
+        assertEquals("value", cache.get("a"));
+        assertEquals("value", memoryCache.get("a"));
+    }
+}
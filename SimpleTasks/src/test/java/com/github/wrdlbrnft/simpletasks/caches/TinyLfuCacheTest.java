@@ -0,0 +1,117 @@
+package com.github.wrdlbrnft.simpletasks.caches;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void sketchKeepsCountsWhileCacheFills() {
+        final FrequencySketch sketch = new FrequencySketch(1000L);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("hot");
+        }
+        for (int i = 0; i < 900; i++) {
+            sketch.increment("key" + i);
+        }
+
+        assertTrue(sketch.frequency("hot") >= 5);
+    }
+
+    @Test
+    public void frequentlyUsedEntrySurvivesScanWhileFilling() {
+        final TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(100L);
+        cache.put("hot", 1);
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(cache.get("hot"));
+            // Writes replay the buffered reads against the eviction policy.
+            cache.put("warmup" + i, i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            cache.put("cold" + i, i);
+        }
+
+        assertEquals(Integer.valueOf(1), cache.get("hot"));
+    }
+
+    @Test
+    public void hotKeysOutliveScansWhichFlushLru() {
+        final TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(100L);
+        final Map<String, Integer> lru = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > 100;
+            }
+        };
+
+        int cacheHits = 0;
+        int lruHits = 0;
+        int accesses = 0;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                final String key = "hot" + i;
+                accesses++;
+                if (cache.get(key) != null) {
+                    cacheHits++;
+                } else {
+                    cache.put(key, i);
+                }
+                if (lru.get(key) != null) {
+                    lruHits++;
+                } else {
+                    lru.put(key, i);
+                }
+            }
+            for (int i = 0; i < 200; i++) {
+                final String key = "scan" + round + "-" + i;
+                cache.put(key, i);
+                lru.put(key, i);
+            }
+        }
+
+        assertEquals(0, lruHits);
+        assertTrue("Expected most hot accesses to hit but only " + cacheHits + " of " + accesses + " did", cacheHits > accesses * 3 / 4);
+    }
+
+    @Test
+    public void hugeMaximumSizeKeepsSketchBounded() {
+        final TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(Long.MAX_VALUE);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, i);
+        }
+
+        assertEquals(Integer.valueOf(1), cache.get("key1"));
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        final TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(50L);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        int present = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cache.get(i) != null) {
+                present++;
+            }
+        }
+        assertTrue("Expected at most 50 entries but found " + present, present <= 50);
+    }
+
+    @Test
+    public void entryHeavierThanMaximumIsNotKept() {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<>(10L, (key, value) -> value.length());
+        cache.put("a", "01234567890");
+
+        assertNull(cache.get("a"));
+    }
+}
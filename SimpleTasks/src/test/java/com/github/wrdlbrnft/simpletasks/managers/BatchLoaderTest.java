@@ -0,0 +1,82 @@
+package com.github.wrdlbrnft.simpletasks.managers;
+
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+import com.github.wrdlbrnft.simpletasks.runners.TaskRunner;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class BatchLoaderTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(30L);
+
+    private final List<Set<String>> mBatches = new CopyOnWriteArrayList<>();
+    private final TaskManager.BatchWorker<String, Integer> mWorker = keys -> {
+        mBatches.add(keys);
+        final Map<String, Integer> results = new HashMap<>();
+        for (String key : keys) {
+            results.put(key, key.length());
+        }
+        return results;
+    };
+    private final TaskRunner mRunner = TaskRunner.runOn(Runnable::run, CallbackExecutors.direct());
+
+    @Test
+    public void batchWithOnlyCanceledKeysIsSkipped() throws Exception {
+        final BatchLoader<String, Integer> loader = new BatchLoader<>(mWorker, mRunner, WINDOW_NANOS, 10);
+        loader.load("a").cancel();
+        loader.load("bb").cancel();
+
+        Thread.sleep(150L);
+        assertTrue(mBatches.isEmpty());
+    }
+
+    @Test
+    public void canceledKeysAreLeftOutOfBatch() {
+        final BatchLoader<String, Integer> loader = new BatchLoader<>(mWorker, mRunner, WINDOW_NANOS, 10);
+        final Task<Integer> canceled = loader.load("a");
+        final Task<Integer> loaded = loader.load("bb");
+        canceled.cancel();
+
+        assertEquals(2, (int) loaded.await(5L, TimeUnit.SECONDS));
+        assertEquals(1, mBatches.size());
+        assertEquals(1, mBatches.get(0).size());
+        assertTrue(mBatches.get(0).contains("bb"));
+    }
+
+    @Test
+    public void canceledKeysDoNotCountTowardsBatchSize() {
+        final BatchLoader<String, Integer> loader = new BatchLoader<>(mWorker, mRunner, TimeUnit.SECONDS.toNanos(10L), 2);
+        loader.load("a").cancel();
+        final Task<Integer> first = loader.load("bb");
+        assertFalse(first.isDone());
+
+        final Task<Integer> second = loader.load("ccc");
+        assertEquals(2, (int) first.await(5L, TimeUnit.SECONDS));
+        assertEquals(3, (int) second.await(5L, TimeUnit.SECONDS));
+        assertEquals(1, mBatches.size());
+    }
+
+    @Test
+    public void loadAfterCancelCreatesNewTask() {
+        final BatchLoader<String, Integer> loader = new BatchLoader<>(mWorker, mRunner, WINDOW_NANOS, 10);
+        final Task<Integer> canceled = loader.load("a");
+        canceled.cancel();
+
+        final Task<Integer> reloaded = loader.load("a");
+        assertNotSame(canceled, reloaded);
+        assertEquals(1, (int) reloaded.await(5L, TimeUnit.SECONDS));
+    }
+}
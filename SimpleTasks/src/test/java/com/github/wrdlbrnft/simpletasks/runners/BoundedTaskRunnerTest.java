@@ -0,0 +1,31 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedTaskRunnerTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void canceledTaskFreesItsPlaceInQueue() {
+        final BoundedTaskRunner runner = new BoundedTaskRunner(DIRECT, 1, 1, BoundedTaskRunner.POLICY_REJECT);
+        runner.stop();
+
+        final Task<Integer> first = runner.queue(() -> 1);
+        assertEquals(1, runner.getQueuedCount());
+        first.cancel();
+        assertEquals(0, runner.getQueuedCount());
+
+        final Task<Integer> second = runner.queue(() -> 2);
+        runner.start();
+        assertEquals(2, (int) second.await());
+        assertTrue(first.isCanceled());
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.caches.Serializer;
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskExecutionException;
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DurableTaskRunnerTest {
+
+    private final List<String> mPerformed = new CopyOnWriteArrayList<>();
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = File.createTempFile("durable", ".journal");
+    }
+
+    @After
+    public void tearDown() {
+        mFile.delete();
+        new File(mFile.getPath() + ".compact").delete();
+    }
+
+    @Test
+    public void pendingWorkIsReplayedAfterReopening() throws Exception {
+        enqueueWithoutExecuting("a", "b");
+
+        open().close();
+        assertPerformed("a", "b");
+    }
+
+    @Test
+    public void truncatedRecordIsCutOffDuringRecovery() throws Exception {
+        enqueueWithoutExecuting("a");
+        final long firstRecordEnd = mFile.length();
+        enqueueWithoutExecuting("bbbb");
+        truncate(mFile.length() - 3L);
+
+        open(stoppedRunner()).close();
+        assertEquals(firstRecordEnd, mFile.length());
+
+        open().close();
+        assertPerformed("a");
+    }
+
+    @Test
+    public void corruptRecordIsCutOffDuringRecovery() throws Exception {
+        enqueueWithoutExecuting("a");
+        final long firstRecordEnd = mFile.length();
+        enqueueWithoutExecuting("bbbb", "c");
+        corrupt(firstRecordEnd + 24L);
+
+        open(stoppedRunner()).close();
+        assertEquals(firstRecordEnd, mFile.length());
+
+        open().close();
+        assertPerformed("a");
+    }
+
+    @Test
+    public void workQueuedAfterRecoveryIsKept() throws Exception {
+        enqueueWithoutExecuting("a");
+        final long firstRecordEnd = mFile.length();
+        enqueueWithoutExecuting("bbbb");
+        truncate(firstRecordEnd + 5L);
+
+        // Queued while the journal may still be recovered, it must not reuse a recovered sequence.
+        final DurableTaskRunner stopped = open(stoppedRunner());
+        stopped.enqueue("work", "c");
+        stopped.close();
+
+        open().close();
+        assertPerformed("a", "c");
+    }
+
+    @Test
+    public void completedWorkIsNotReplayed() throws Exception {
+        final DurableTaskRunner runner = open();
+        runner.enqueue("work", "a").await(5L, TimeUnit.SECONDS);
+        awaitPendingCount(runner, 0);
+        runner.close();
+
+        mPerformed.clear();
+        open().close();
+        assertTrue(mPerformed.isEmpty());
+    }
+
+    @Test
+    public void enqueueAfterCloseFails() throws Exception {
+        final DurableTaskRunner runner = open(stoppedRunner());
+        runner.close();
+
+        final Task<Void> task = runner.enqueue("work", "a");
+        try {
+            task.await();
+            fail("Expected the Task to fail.");
+        } catch (TaskExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        runner.close();
+    }
+
+    @Test
+    public void closeWithinCommitWindowWritesPendingWork() throws Exception {
+        final DurableTaskRunner runner = DurableTaskRunner.builder(mFile, stoppedRunner())
+                .register("work", Serializer.ofStrings(), mPerformed::add)
+                .commitWindow(20L, TimeUnit.MILLISECONDS)
+                .build();
+        runner.enqueue("work", "a");
+        runner.close();
+
+        // The scheduled commit runs after the journal was closed and must not fail.
+        Thread.sleep(50L);
+        open().close();
+        assertPerformed("a");
+    }
+
+    private void enqueueWithoutExecuting(String... keys) throws IOException {
+        final DurableTaskRunner runner = open(stoppedRunner());
+        for (String key : keys) {
+            runner.enqueue("work", key);
+        }
+        runner.close();
+    }
+
+    private DurableTaskRunner open() throws IOException {
+        return open(TaskRunner.runOn(Runnable::run, CallbackExecutors.direct()));
+    }
+
+    private DurableTaskRunner open(TaskRunner taskRunner) throws IOException {
+        return DurableTaskRunner.builder(mFile, taskRunner)
+                .register("work", Serializer.ofStrings(), mPerformed::add)
+                .commitWindow(0L, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static TaskRunner stoppedRunner() {
+        final TaskRunner runner = TaskRunner.runOn(Runnable::run, CallbackExecutors.direct());
+        runner.stop();
+        return runner;
+    }
+
+    private void assertPerformed(String... keys) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (mPerformed.size() < keys.length && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        final List<String> performed = new ArrayList<>(mPerformed);
+        Collections.sort(performed);
+        assertEquals(Arrays.asList(keys), performed);
+    }
+
+    private static void awaitPendingCount(DurableTaskRunner runner, int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (runner.getPendingCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(count, runner.getPendingCount());
+    }
+
+    private void truncate(long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "rw")) {
+            file.setLength(size);
+        }
+    }
+
+    private void corrupt(long position) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "rw")) {
+            file.seek(position);
+            final int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+    }
+}
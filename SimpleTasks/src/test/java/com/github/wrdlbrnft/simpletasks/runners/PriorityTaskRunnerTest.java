@@ -0,0 +1,99 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityTaskRunnerTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void canceledTaskIsRemovedFromQueue() {
+        final PriorityTaskRunner runner = new PriorityTaskRunner(DIRECT, 1);
+        final AtomicInteger discarded = new AtomicInteger();
+        runner.setInstrumentation(new CountingInstrumentation(discarded));
+        runner.stop();
+
+        final Task<Integer> first = runner.queue(() -> 1);
+        final Task<Integer> second = runner.queue(() -> 2);
+        assertEquals(2, runner.getQueuedCount());
+
+        first.cancel();
+        assertEquals(1, runner.getQueuedCount());
+        assertEquals(1, discarded.get());
+        assertFalse(runner.setPriority(first, 10));
+
+        runner.start();
+        assertEquals(2, (int) second.await());
+        assertEquals(0, runner.getQueuedCount());
+    }
+
+    @Test
+    public void timedOutTaskIsRemovedFromQueue() throws Exception {
+        final PriorityTaskRunner runner = new PriorityTaskRunner(DIRECT, 1);
+        runner.stop();
+
+        runner.queue(() -> 1).withTimeout(10L, TimeUnit.MILLISECONDS);
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (runner.getQueuedCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(0, runner.getQueuedCount());
+    }
+
+    @Test
+    public void higherPriorityRunsFirst() {
+        final PriorityTaskRunner runner = new PriorityTaskRunner(DIRECT, 1);
+        final List<Integer> order = new ArrayList<>();
+        runner.stop();
+        runner.queue(() -> order.add(1), 1);
+        runner.queue(() -> order.add(3), 3);
+        final Task<Boolean> canceled = runner.queue(() -> order.add(4), 4);
+        runner.queue(() -> order.add(2), 2);
+        canceled.cancel();
+
+        runner.start();
+        assertEquals(3, (int) order.get(0));
+        assertEquals(2, (int) order.get(1));
+        assertEquals(1, (int) order.get(2));
+        assertTrue(canceled.isCanceled());
+        assertEquals(3, order.size());
+    }
+
+    private static class CountingInstrumentation implements RunnerInstrumentation {
+
+        private final AtomicInteger mDiscarded;
+
+        private CountingInstrumentation(AtomicInteger discarded) {
+            mDiscarded = discarded;
+        }
+
+        @Override
+        public void onTaskQueued() {
+        }
+
+        @Override
+        public void onTaskStarted(long waitNanos) {
+        }
+
+        @Override
+        public void onTaskFinished(long runNanos) {
+        }
+
+        @Override
+        public void onTaskDiscarded(long waitNanos) {
+            mDiscarded.incrementAndGet();
+        }
+    }
+}
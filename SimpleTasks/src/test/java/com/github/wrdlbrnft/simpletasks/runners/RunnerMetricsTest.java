@@ -0,0 +1,80 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunnerMetricsTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void canceledTaskIsReportedAsDiscarded() {
+        final RunnerMetrics metrics = new RunnerMetrics();
+        final TaskRunner runner = TaskRunner.runOn(Runnable::run, CallbackExecutors.direct());
+        runner.setInstrumentation(metrics);
+        runner.stop();
+
+        final Task<Integer> canceled = runner.queue(() -> 1);
+        final Task<Integer> executed = runner.queue(() -> 2);
+        canceled.cancel();
+        runner.start();
+
+        assertTrue(canceled.isCanceled());
+        assertEquals(2, (int) executed.await());
+        final RunnerMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1L, snapshot.getCompletedCount());
+        assertEquals(1L, snapshot.getWaitTime().getCount());
+        assertEquals(1L, snapshot.getDiscardedCount());
+        assertEquals(0, snapshot.getQueueDepth());
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void deprecatedRunnersReportToInstrumentation() {
+        final RunnerMetrics metrics = new RunnerMetrics();
+        final TaskRunner runner = new ExecutorTaskRunner(DIRECT);
+        runner.setInstrumentation(metrics);
+
+        assertEquals(1, (int) runner.queue(() -> 1).await());
+        assertEquals(1L, metrics.snapshot().getCompletedCount());
+    }
+
+    @Test
+    public void runnerWithoutInstrumentationSupportIgnoresIt() {
+        final TaskRunner runner = new TaskRunner() {
+
+            private final TaskRunner mDelegate = TaskRunner.runOn(Runnable::run, CallbackExecutors.direct());
+
+            @Override
+            public <T> Task<T> queue(Callable<T> callable) {
+                return mDelegate.queue(callable);
+            }
+
+            @Override
+            public int getState() {
+                return mDelegate.getState();
+            }
+
+            @Override
+            public void start() {
+                mDelegate.start();
+            }
+
+            @Override
+            public void stop() {
+                mDelegate.stop();
+            }
+        };
+        runner.setInstrumentation(new RunnerMetrics());
+
+        assertEquals(1, (int) runner.queue(() -> 1).await());
+    }
+}
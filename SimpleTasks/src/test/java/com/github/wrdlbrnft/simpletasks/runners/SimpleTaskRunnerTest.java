@@ -0,0 +1,52 @@
+package com.github.wrdlbrnft.simpletasks.runners;
+
+import com.github.wrdlbrnft.simpletasks.tasks.Task;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimpleTaskRunnerTest {
+
+    @Test
+    public void submissionDuringDrainRunsAfterBacklog() throws Exception {
+        final SimpleTaskRunner runner = new SimpleTaskRunner(Runnable::run);
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final CountDownLatch draining = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        runner.stop();
+        runner.queue(() -> {
+            order.add("a");
+            draining.countDown();
+            release.await();
+            return null;
+        });
+        runner.queue(() -> order.add("b"));
+
+        final Thread starter = new Thread(runner::start);
+        starter.start();
+        assertTrue(draining.await(5L, TimeUnit.SECONDS));
+        runner.queue(() -> order.add("c"));
+        release.countDown();
+        starter.join(5000L);
+
+        assertEquals(Arrays.asList("a", "b", "c"), order);
+    }
+
+    @Test
+    public void taskRunOnDrainingThreadCanWaitForNestedTask() {
+        final SimpleTaskRunner runner = new SimpleTaskRunner(Runnable::run);
+        runner.stop();
+        final Task<Integer> outer = runner.queue(() -> runner.queue(() -> 1).await() + 1);
+
+        runner.start();
+        assertEquals(2, (int) outer.await());
+    }
+}
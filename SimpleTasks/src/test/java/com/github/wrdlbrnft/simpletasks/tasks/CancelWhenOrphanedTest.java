@@ -0,0 +1,147 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+import android.arch.lifecycle.LifecycleObserver;
+import android.arch.lifecycle.OnLifecycleEvent;
+
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CancelWhenOrphanedTest {
+
+    @Test
+    public void taskIsCanceledWhenLastLifecycleIsDestroyed() {
+        final StubTask<String> task = createShared();
+        final TestLifecycle lifecycle = new TestLifecycle();
+        task.onResult(lifecycle, result -> {
+        });
+
+        lifecycle.destroy();
+        assertTrue(task.isCanceled());
+    }
+
+    @Test
+    public void bookkeepingDoesNotCountAsInterest() {
+        final StubTask<String> task = createShared();
+        task.withTimeout(1L, TimeUnit.HOURS);
+        TaskHooks.whenStopped(task, () -> {
+        });
+        final TestLifecycle lifecycle = new TestLifecycle();
+        task.onResult(lifecycle, result -> {
+        });
+
+        lifecycle.destroy();
+        assertTrue(task.isCanceled());
+    }
+
+    @Test
+    public void derivedTaskKeepsSourceAlive() {
+        final StubTask<String> task = createShared();
+        final Task<Integer> derived = task.map(null, String::length);
+        final TestLifecycle lifecycle = new TestLifecycle();
+        task.onResult(lifecycle, result -> {
+        });
+
+        lifecycle.destroy();
+        assertFalse(task.isCanceled());
+        task.notifyResult("abc");
+        assertEquals(3, (int) derived.await(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void fanInKeepsSourceAlive() {
+        final StubTask<String> task = createShared();
+        final Task<List<String>> all = Task.allOf(Collections.singletonList(task));
+        final TestLifecycle lifecycle = new TestLifecycle();
+        task.onResult(lifecycle, result -> {
+        });
+
+        lifecycle.destroy();
+        assertFalse(task.isCanceled());
+        task.notifyResult("a");
+        assertEquals(Collections.singletonList("a"), all.await(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void forwardingTaskKeepsSourceAlive() {
+        final StubTask<String> task = createShared();
+        final StubTask<String> forwarded = StubTask.create();
+        forwarded.notifyFrom(task);
+        final TestLifecycle lifecycle = new TestLifecycle();
+        task.onResult(lifecycle, result -> {
+        });
+
+        lifecycle.destroy();
+        assertFalse(task.isCanceled());
+    }
+
+    @Test
+    public void unboxedTaskKeepsSourceAlive() {
+        final StubTask<Integer> task = createShared();
+        final IntTask unboxed = IntTask.unbox(task);
+        final TestLifecycle lifecycle = new TestLifecycle();
+        task.onResult(lifecycle, result -> {
+        });
+
+        lifecycle.destroy();
+        assertFalse(task.isCanceled());
+        task.notifyResult(3);
+        assertEquals(3, unboxed.await());
+    }
+
+    private static <T> StubTask<T> createShared() {
+        final StubTask<T> task = StubTask.create();
+        task.deliverCallbacksOn(CallbackExecutors.direct());
+        task.cancelWhenOrphaned();
+        return task;
+    }
+
+    private static class TestLifecycle extends Lifecycle {
+
+        private final List<LifecycleObserver> mObservers = new ArrayList<>();
+        private State mState = State.RESUMED;
+
+        @Override
+        public void addObserver(LifecycleObserver observer) {
+            mObservers.add(observer);
+        }
+
+        @Override
+        public void removeObserver(LifecycleObserver observer) {
+            mObservers.remove(observer);
+        }
+
+        @Override
+        public State getCurrentState() {
+            return mState;
+        }
+
+        void destroy() {
+            mState = State.DESTROYED;
+            for (LifecycleObserver observer : new ArrayList<>(mObservers)) {
+                for (Method method : observer.getClass().getMethods()) {
+                    final OnLifecycleEvent event = method.getAnnotation(OnLifecycleEvent.class);
+                    if (event != null && event.value() == Event.ON_DESTROY) {
+                        try {
+                            method.setAccessible(true);
+                            method.invoke(observer);
+                        } catch (Exception e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
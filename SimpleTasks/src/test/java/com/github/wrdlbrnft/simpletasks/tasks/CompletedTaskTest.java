@@ -0,0 +1,112 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import android.arch.lifecycle.Lifecycle;
+import android.arch.lifecycle.LifecycleObserver;
+
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+import com.github.wrdlbrnft.simpletasks.runners.BoundedTaskRunner;
+
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CompletedTaskTest {
+
+    @Test
+    public void resultIsNotCopiedOnEveryRead() {
+        final CompletedTask<String> task = CompletedTask.withResult("a");
+
+        assertSame(task.getResult(), task.getResult());
+        assertEquals("a", task.getResult().getResult());
+    }
+
+    @Test
+    public void executorIsBoundWhenTaskIsCreated() {
+        final Executor executor = CallbackExecutors.direct();
+        final Task<String> task = Task.withResult("a", executor);
+
+        assertSame(executor, ((CompletedTask<String>) task).getCallbackExecutorOrNull());
+        assertSame(task, task.deliverCallbacksOn(executor));
+        assertEquals("a", task.await());
+    }
+
+    @Test
+    public void executorIsNotBoundToSharedInstances() {
+        final Task<Boolean> task = Task.withResult(Boolean.TRUE, CallbackExecutors.direct());
+
+        assertSame(CallbackExecutors.direct(), ((CompletedTask<Boolean>) task).getCallbackExecutorOrNull());
+        assertNull(((CompletedTask<Boolean>) Task.withResult(Boolean.TRUE)).getCallbackExecutorOrNull());
+    }
+
+    @Test
+    public void primitiveTaskKeepsExecutorOfRejectedCore() {
+        final BoundedTaskRunner runner = new BoundedTaskRunner(runnable -> {
+        }, 1, 0, BoundedTaskRunner.POLICY_REJECT);
+        runner.queue(() -> null);
+
+        final Executor executor = CallbackExecutors.direct();
+        final IntTaskImpl task = (IntTaskImpl) IntTask.queueOn(runner, () -> 1).deliverCallbacksOn(executor);
+        assertSame(executor, ((CompletedTask<Void>) task.mTask).getCallbackExecutorOrNull());
+    }
+
+    @Test
+    public void destroyedLifecycleSkipsCallbacksOfCompletedTask() {
+        final AtomicInteger calls = new AtomicInteger();
+        Task.withResult("a").onResult(new FixedLifecycle(Lifecycle.State.DESTROYED), result -> calls.incrementAndGet());
+        Task.<String>withError(new Exception()).onError(new FixedLifecycle(Lifecycle.State.DESTROYED), error -> calls.incrementAndGet());
+
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void destroyedLifecycleSkipsCallbacksOfFinishedTask() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Task<String> succeeded = Task.from(() -> "a").deliverCallbacksOn(CallbackExecutors.direct());
+        succeeded.asRunnable().run();
+        final Task<String> failed = Task.<String>from(() -> {
+            throw new Exception();
+        }).deliverCallbacksOn(CallbackExecutors.direct());
+        failed.asRunnable().run();
+        final Task<String> canceled = Task.from(() -> "a").deliverCallbacksOn(CallbackExecutors.direct());
+        canceled.cancel();
+
+        final Lifecycle destroyed = new FixedLifecycle(Lifecycle.State.DESTROYED);
+        succeeded.onResult(destroyed, result -> calls.incrementAndGet());
+        failed.onError(destroyed, error -> calls.incrementAndGet());
+        canceled.onCanceled(destroyed, calls::incrementAndGet);
+        assertEquals(0, calls.get());
+
+        final Lifecycle resumed = new FixedLifecycle(Lifecycle.State.RESUMED);
+        succeeded.onResult(resumed, result -> calls.incrementAndGet());
+        failed.onError(resumed, error -> calls.incrementAndGet());
+        canceled.onCanceled(resumed, calls::incrementAndGet);
+        assertEquals(3, calls.get());
+    }
+
+    private static class FixedLifecycle extends Lifecycle {
+
+        private final State mState;
+
+        private FixedLifecycle(State state) {
+            mState = state;
+        }
+
+        @Override
+        public void addObserver(LifecycleObserver observer) {
+        }
+
+        @Override
+        public void removeObserver(LifecycleObserver observer) {
+        }
+
+        @Override
+        public State getCurrentState() {
+            return mState;
+        }
+    }
+}
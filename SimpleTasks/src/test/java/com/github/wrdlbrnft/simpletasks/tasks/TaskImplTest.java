@@ -0,0 +1,227 @@
+package com.github.wrdlbrnft.simpletasks.tasks;
+
+import com.github.wrdlbrnft.simpletasks.exceptions.TaskCanceledException;
+import com.github.wrdlbrnft.simpletasks.executors.CallbackExecutors;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskImplTest {
+
+    private static final int ROUNDS = 2000;
+    private static final int THREADS = 4;
+
+    @Test
+    public void concurrentCompletionPublishesExactlyOneResult() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            final TaskImpl<Integer> task = new TaskImpl<>(() -> -1);
+            final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+            final AtomicInteger winners = new AtomicInteger();
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int value = i;
+                threads.add(start(() -> {
+                    await(barrier);
+                    if (task.complete(new TaskResult<>(TaskResult.STATE_RESULT, value, null))) {
+                        winners.incrementAndGet();
+                    }
+                }));
+            }
+            joinAll(threads);
+
+            assertEquals(1, winners.get());
+            final int result = task.await();
+            assertEquals(result, (int) task.await());
+        }
+    }
+
+    @Test
+    public void callbacksAttachedDuringCompletionAreCalledExactlyOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            final TaskImpl<Integer> task = new TaskImpl<>(() -> 7);
+            task.deliverCallbacksOn(CallbackExecutors.direct());
+            final CyclicBarrier barrier = new CyclicBarrier(THREADS + 1);
+            final AtomicInteger calls = new AtomicInteger();
+            final AtomicInteger wrongResults = new AtomicInteger();
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                threads.add(start(() -> {
+                    await(barrier);
+                    for (int j = 0; j < 10; j++) {
+                        task.onResult(result -> {
+                            if (result != 7) {
+                                wrongResults.incrementAndGet();
+                            }
+                            calls.incrementAndGet();
+                        });
+                    }
+                }));
+            }
+            threads.add(start(() -> {
+                await(barrier);
+                task.run();
+            }));
+            joinAll(threads);
+
+            assertEquals(THREADS * 10, calls.get());
+            assertEquals(0, wrongResults.get());
+        }
+    }
+
+    @Test
+    public void cancelRacingWithRunCallsExactlyOneCallback() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            final TaskImpl<Integer> task = new TaskImpl<>(() -> 1);
+            task.deliverCallbacksOn(CallbackExecutors.direct());
+            final AtomicInteger calls = new AtomicInteger();
+            task.onResult(result -> calls.incrementAndGet());
+            task.onCanceled(calls::incrementAndGet);
+            final CyclicBarrier barrier = new CyclicBarrier(2);
+            final Thread runner = start(() -> {
+                await(barrier);
+                task.run();
+            });
+            final Thread canceler = start(() -> {
+                await(barrier);
+                task.cancel();
+            });
+            runner.join();
+            canceler.join();
+
+            assertEquals(1, calls.get());
+            assertTrue(task.isDone());
+        }
+    }
+
+    @Test
+    public void cancelDoesNotLeakInterruptIntoRunningThread() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final TaskImpl<Integer> task = new TaskImpl<>(() -> {
+            running.countDown();
+            while (true) {
+                // Busy wait so the interrupt is not consumed by the Callable.
+                if (Thread.currentThread().isInterrupted()) {
+                    return 0;
+                }
+            }
+        });
+        final AtomicBoolean interruptedAfterRun = new AtomicBoolean(true);
+        final Thread thread = start(() -> {
+            task.run();
+            interruptedAfterRun.set(Thread.currentThread().isInterrupted());
+        });
+        assertTrue(running.await(5L, TimeUnit.SECONDS));
+        task.cancel();
+        thread.join();
+
+        assertFalse(interruptedAfterRun.get());
+        assertTrue(task.isCanceled());
+    }
+
+    @Test
+    public void cancelKeepsInterruptWhichWasAlreadyPending() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CountDownLatch canceled = new CountDownLatch(1);
+        final TaskImpl<Integer> task = new TaskImpl<>(() -> {
+            Thread.currentThread().interrupt();
+            interrupted.countDown();
+            while (canceled.getCount() > 0) {
+                Thread.yield();
+            }
+            return 0;
+        });
+        final AtomicBoolean interruptedAfterRun = new AtomicBoolean();
+        final Thread thread = start(() -> {
+            task.run();
+            interruptedAfterRun.set(Thread.currentThread().isInterrupted());
+        });
+        assertTrue(interrupted.await(5L, TimeUnit.SECONDS));
+        task.cancel();
+        canceled.countDown();
+        thread.join();
+
+        assertTrue(interruptedAfterRun.get());
+    }
+
+    @Test
+    public void waitersAreReleasedByConcurrentCompletion() throws Exception {
+        for (int round = 0; round < ROUNDS / 10; round++) {
+            final TaskImpl<Integer> task = new TaskImpl<>(() -> 3);
+            final AtomicInteger sum = new AtomicInteger();
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                threads.add(start(() -> sum.addAndGet(task.await())));
+            }
+            threads.add(start(task::run));
+            joinAll(threads);
+
+            assertEquals(THREADS * 3, sum.get());
+        }
+    }
+
+    @Test
+    public void timedOutWaiterDoesNotCompleteTask() {
+        final TaskImpl<Integer> task = new TaskImpl<>(() -> 5);
+        try {
+            task.await(10L, TimeUnit.MILLISECONDS);
+            fail("Expected a timeout.");
+        } catch (RuntimeException ignored) {
+        }
+        assertFalse(task.isDone());
+
+        task.run();
+        assertEquals(5, (int) task.await());
+    }
+
+    @Test(expected = TaskCanceledException.class)
+    public void awaitThrowsAfterCancel() {
+        final TaskImpl<Integer> task = new TaskImpl<>(() -> 5);
+        task.cancel();
+        task.await();
+    }
+
+    @Test
+    public void lateCallbackReceivesPublishedResult() {
+        final TaskImpl<Integer> task = new TaskImpl<>(() -> 9);
+        task.run();
+        final AtomicReference<Integer> result = new AtomicReference<>();
+        task.deliverCallbacksOn(CallbackExecutors.direct()).onResult(result::set);
+
+        assertEquals(Integer.valueOf(9), result.get());
+    }
+
+    private static Thread start(Runnable runnable) {
+        final Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10L));
+            assertFalse("Thread did not terminate.", thread.isAlive());
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
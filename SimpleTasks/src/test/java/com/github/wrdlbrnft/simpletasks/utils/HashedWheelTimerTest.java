@@ -0,0 +1,76 @@
+package com.github.wrdlbrnft.simpletasks.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void timeoutsExpireInOrderOfTheirDeadlines() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 1L, TimeUnit.MILLISECONDS, 8);
+        final List<Integer> order = new CopyOnWriteArrayList<>();
+        final int[] delays = {60, 10, 40, 25, 5, 50};
+        final CountDownLatch latch = new CountDownLatch(delays.length);
+        for (int delay : delays) {
+            timer.newTimeout(() -> {
+                order.add(delay);
+                latch.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+        final List<Integer> expected = new ArrayList<>();
+        for (int delay : new int[]{5, 10, 25, 40, 50, 60}) {
+            expected.add(delay);
+        }
+        assertEquals(expected, order);
+    }
+
+    @Test
+    public void timeoutsInLaterRoundsDoNotExpireEarly() throws Exception {
+        // With 4 buckets of 5 milliseconds one revolution of the wheel takes 20 milliseconds.
+        final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 5L, TimeUnit.MILLISECONDS, 4);
+        final long start = System.nanoTime();
+        final List<Long> elapsed = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        timer.newTimeout(() -> {
+            elapsed.add(System.nanoTime() - start);
+            latch.countDown();
+        }, 5L, TimeUnit.MILLISECONDS);
+        timer.newTimeout(() -> {
+            elapsed.add(System.nanoTime() - start);
+            latch.countDown();
+        }, 65L, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+        assertTrue(elapsed.get(0) < elapsed.get(1));
+        assertTrue(elapsed.get(1) >= TimeUnit.MILLISECONDS.toNanos(65L));
+    }
+
+    @Test
+    public void canceledTimeoutDoesNotExpire() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 1L, TimeUnit.MILLISECONDS, 8);
+        final List<String> expired = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final TaskTimer.Timeout canceled = timer.newTimeout(() -> expired.add("canceled"), 10L, TimeUnit.MILLISECONDS);
+        timer.newTimeout(() -> {
+            expired.add("kept");
+            latch.countDown();
+        }, 30L, TimeUnit.MILLISECONDS);
+
+        assertTrue(canceled.cancel());
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+        assertEquals(1, expired.size());
+        assertEquals("kept", expired.get(0));
+        assertFalse(canceled.cancel());
+    }
+}
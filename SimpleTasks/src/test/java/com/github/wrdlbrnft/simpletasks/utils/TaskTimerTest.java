@@ -0,0 +1,114 @@
+package com.github.wrdlbrnft.simpletasks.utils;
+
+import com.github.wrdlbrnft.simpletasks.runners.BoundedTaskRunner;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskTimerTest {
+
+    private static final Executor NEW_THREAD = runnable -> {
+        final Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    @Test
+    public void blockingRunnableDoesNotDelayOtherTimeouts() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch expired = new CountDownLatch(1);
+        TaskTimer.schedule(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1L, TimeUnit.MILLISECONDS);
+        TaskTimer.schedule(expired::countDown, 20L, TimeUnit.MILLISECONDS);
+
+        try {
+            assertTrue(expired.await(5L, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void burstOfExpirationsUsesBoundedNumberOfThreads() throws Exception {
+        final int count = 200;
+        final Set<Thread> threads = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        final CountDownLatch expired = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            TaskTimer.schedule(() -> {
+                threads.add(Thread.currentThread());
+                try {
+                    Thread.sleep(5L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                expired.countDown();
+            }, 10L, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(expired.await(10L, TimeUnit.SECONDS));
+        assertTrue("Expected at most " + TaskTimer.DISPATCHER_THREADS + " threads but " + threads.size() + " were used",
+                threads.size() <= TaskTimer.DISPATCHER_THREADS);
+    }
+
+    @Test
+    public void scheduledQueueOnBlockingRunnerDoesNotStallTimer() throws Exception {
+        final BoundedTaskRunner runner = new BoundedTaskRunner(NEW_THREAD, 1, 1, BoundedTaskRunner.POLICY_BLOCK);
+        final CountDownLatch release = new CountDownLatch(1);
+        runner.queue(() -> {
+            release.await();
+            return null;
+        });
+        runner.queue(() -> null);
+
+        // The runner is full, so this queue() blocks until the first Task completes.
+        runner.schedule(() -> null, 20L, TimeUnit.MILLISECONDS);
+        final CountDownLatch expired = new CountDownLatch(1);
+        TaskTimer.schedule(expired::countDown, 100L, TimeUnit.MILLISECONDS);
+
+        try {
+            assertTrue(expired.await(5L, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void callerRunsWorkDoesNotRunOnTimerThread() throws Exception {
+        final BoundedTaskRunner runner = new BoundedTaskRunner(NEW_THREAD, 1, 0, BoundedTaskRunner.POLICY_CALLER_RUNS);
+        final CountDownLatch release = new CountDownLatch(1);
+        runner.queue(() -> {
+            release.await();
+            return null;
+        });
+
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final CountDownLatch executed = new CountDownLatch(1);
+        runner.debounce(() -> {
+            thread.set(Thread.currentThread());
+            executed.countDown();
+            return null;
+        }, 1L, TimeUnit.MILLISECONDS).trigger();
+
+        try {
+            assertTrue(executed.await(5L, TimeUnit.SECONDS));
+            assertNotEquals("SimpleTasks-Timer", thread.get().getName());
+        } finally {
+            release.countDown();
+        }
+    }
+}